@@ -0,0 +1,14 @@
+@echo off
+
+:: JMH benchmarks, run from the root of the project:
+::   bench\DEV_bench.bat [jmh options]      eg. bench\DEV_bench.bat -p size=small ParseBenchmark
+:: Needs the jars of JMH 1.37 inside lib/jmh: jmh-core, jmh-generator-annprocess,
+:: jopt-simple and commons-math3. The libraries in lib are used as in DEV_compile.bat.
+
+set first=src/com/vincentcodes/markdown/*.java src/com/vincentcodes/markdown/ast/*.java src/com/vincentcodes/markdown/inline/*.java src/com/vincentcodes/markdown/renderer/*.java
+set bench=src/com/vincentcodes/tests/markdown/corpus/*.java bench/src/com/vincentcodes/markdown/bench/*.java
+:: .java files are in encoding UTF-8
+javac -encoding UTF-8 -d bench/classes -cp ./lib/*;./lib/jmh/* --release 11 %first% %bench% || exit /b 1
+
+:: -prof gc reports the bytes allocated per operation (gc.alloc.rate.norm)
+java -cp bench/classes;./lib/*;./lib/jmh/* org.openjdk.jmh.Main -prof gc %*
@@ -0,0 +1,17 @@
+#!/bin/sh
+# JMH benchmarks, same as DEV_bench.bat. Run from anywhere:
+#   bench/bench.sh [jmh options]      eg. bench/bench.sh -p size=small ParseBenchmark
+# Needs the jars of JMH 1.37 inside lib/jmh: jmh-core, jmh-generator-annprocess,
+# jopt-simple and commons-math3. The libraries in lib are used as in DEV_compile.bat.
+set -e
+cd "$(dirname "$0")/.."
+CP="lib/*:lib/jmh/*"
+
+rm -rf bench/classes
+javac -encoding UTF-8 -d bench/classes -cp "$CP" --release 11 \
+    src/com/vincentcodes/markdown/*.java src/com/vincentcodes/markdown/ast/*.java \
+    src/com/vincentcodes/markdown/inline/*.java src/com/vincentcodes/markdown/renderer/*.java \
+    src/com/vincentcodes/tests/markdown/corpus/*.java bench/src/com/vincentcodes/markdown/bench/*.java
+
+# -prof gc reports the bytes allocated per operation (gc.alloc.rate.norm)
+exec java -cp "bench/classes:$CP" org.openjdk.jmh.Main -prof gc "$@"
@@ -0,0 +1,20 @@
+#!/bin/sh
+# Performance regression gate, see RegressionGate. Only needs a JDK, run from anywhere:
+#   bench/regression.sh                          compare with bench/baselines/baseline.json
+#   bench/regression.sh --record                 write the current results as the baseline
+#   bench/regression.sh --tolerance 0.1 --alloc-tolerance 0.05
+# Exits with 1 if a benchmark is slower or allocates more than the baseline allows.
+set -e
+cd "$(dirname "$0")/.."
+
+rm -rf bench/classes-gate
+# the other renderer classes which HtmlRenderer needs are found in src,
+# OoxmlWordRenderer (and its libraries) is left out
+javac -encoding UTF-8 -d bench/classes-gate --release 11 -sourcepath src \
+    src/com/vincentcodes/markdown/*.java src/com/vincentcodes/markdown/ast/*.java \
+    src/com/vincentcodes/markdown/inline/*.java src/com/vincentcodes/markdown/renderer/HtmlRenderer.java \
+    src/com/vincentcodes/tests/markdown/corpus/*.java src/com/vincentcodes/tests/markdown/mock/NoOpRenderer.java \
+    bench/src/com/vincentcodes/markdown/bench/BenchmarkInputs.java bench/src/com/vincentcodes/markdown/bench/RegressionGate.java
+
+# a fixed heap and one gc, so that runs are comparable
+exec java -Xms2g -Xmx2g -XX:+UseParallelGC -cp bench/classes-gate com.vincentcodes.markdown.bench.RegressionGate "$@"
@@ -0,0 +1,53 @@
+package com.vincentcodes.markdown.bench;
+
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator.Profile;
+
+/**
+ * The documents measured by the benchmarks, made by {@link CorpusGenerator}
+ * with a fixed seed. The size is chosen by name with 
+ * {@code -p size=small,medium,huge}.
+ */
+public final class BenchmarkInputs {
+    public static final long SEED = 20240101;
+
+    // one paragraph, parseText() stops at the first empty line
+    private static final String INLINE_SAMPLE = "Some *emphasis*, **strong**, ~~strike~~ and `code` "
+        + "with a [link](https://google.com) and an ![image](a.png) *unmatched\n";
+
+    private BenchmarkInputs(){}
+
+    /**
+     * @return no. of chars of a document of {@code size}
+     */
+    public static int length(String size){
+        switch(size){
+            case "small": return 1024;
+            case "medium": return 100 * 1024;
+            case "huge": return 10 * 1024 * 1024;
+            default: throw new IllegalArgumentException("Unknown size: " + size);
+        }
+    }
+
+    /**
+     * @return a document with every kind of block
+     */
+    public static String document(String size){
+        return document(size, Profile.MIXED);
+    }
+
+    public static String document(String size, Profile profile){
+        return new CorpusGenerator(SEED, profile).generate(length(size));
+    }
+
+    /**
+     * @return a single paragraph of inline text
+     */
+    public static String paragraph(String size){
+        int length = length(size);
+        StringBuilder builder = new StringBuilder(length + INLINE_SAMPLE.length());
+        while(builder.length() < length)
+            builder.append(INLINE_SAMPLE);
+        return builder.toString();
+    }
+}
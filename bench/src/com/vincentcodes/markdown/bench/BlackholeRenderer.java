@@ -0,0 +1,50 @@
+package com.vincentcodes.markdown.bench;
+
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Does nothing but hand the events to a {@link Blackhole}, so that
+ * the JIT cannot drop the objects made by the parser. Used to
+ * measure the parser alone.
+ */
+public class BlackholeRenderer implements Renderer {
+    private final Blackhole blackhole;
+
+    public BlackholeRenderer(Blackhole blackhole){
+        this.blackhole = blackhole;
+    }
+
+    public void body(){}
+    public void done(){}
+
+    public void hr(){}
+
+    public void h1(TextNode texts){ blackhole.consume(texts); }
+    public void h2(TextNode texts){ blackhole.consume(texts); }
+    public void h3(TextNode texts){ blackhole.consume(texts); }
+    public void h4(TextNode texts){ blackhole.consume(texts); }
+    public void h5(TextNode texts){ blackhole.consume(texts); }
+    public void h6(TextNode texts){ blackhole.consume(texts); }
+
+    public void p(TextNode texts){ blackhole.consume(texts); }
+    public void append(String text){ blackhole.consume(text); }
+
+    public void table(TextNode[] headings){ blackhole.consume(headings); }
+    public void tr(TextNode[] rowEntries){ blackhole.consume(rowEntries); }
+    public void endTable(){}
+
+    public void codeblock(String text, String lang){ blackhole.consume(text); }
+
+    public void ol(){}
+    public void ul(){}
+    public void li(TextNode text){ blackhole.consume(text); }
+    public void endol(){}
+    public void endul(){}
+
+    public void startBlockQuote(){}
+    public void blockquote(TextNode text, int level){ blackhole.consume(text); }
+    public void endBlockQuote(){}
+}
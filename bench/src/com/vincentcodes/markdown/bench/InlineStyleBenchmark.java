@@ -0,0 +1,69 @@
+package com.vincentcodes.markdown.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.ast.Document;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator.Profile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link HtmlRenderer} alone on text full of emphasis: the document
+ * is parsed once and replayed on a new renderer each time. "overlap"
+ * is runs of nested and overlapping styles, the others are from
+ * {@link BenchmarkInputs}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class InlineStyleBenchmark {
+    private static final String OVERLAP_SAMPLE = "***a*** **b *c* d** ~~e `f`~~ *g **h* i** [l](u) **[m](v)** *n*\n";
+
+    @Param({"small", "medium"})
+    public String size;
+
+    @Param({"overlap", "paragraph", "unmatched"})
+    public String text;
+
+    private Document document;
+
+    @Setup
+    public void setUp(){
+        String markdown;
+        switch(text){
+            case "overlap": markdown = repeat(OVERLAP_SAMPLE, BenchmarkInputs.length(size)); break;
+            case "paragraph": markdown = BenchmarkInputs.paragraph(size); break;
+            default: markdown = BenchmarkInputs.document(size, Profile.UNMATCHED_EMPHASIS); break;
+        }
+        document = new MarkdownParser().parseDocument(markdown);
+    }
+
+    private static String repeat(String sample, int length){
+        StringBuilder builder = new StringBuilder(length + sample.length());
+        while(builder.length() < length)
+            builder.append(sample);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public String html(){
+        HtmlRenderer renderer = new HtmlRenderer(false);
+        document.replay(renderer);
+        return renderer.getRenderedHtml();
+    }
+}
@@ -0,0 +1,65 @@
+package com.vincentcodes.markdown.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator.Profile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The parser alone: {@link MarkdownParser#parse(String, com.vincentcodes.markdown.renderer.Renderer)}
+ * with a renderer which does nothing, and {@link MarkdownParser#parseText()}
+ * on one paragraph. The adversarial profiles of the corpus are only
+ * used by {@link #parse(Blackhole)}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    @Param({"MIXED", "UNMATCHED_EMPHASIS", "LONG_LINES", "DEEP_NESTING"})
+    public Profile profile;
+
+    private final MarkdownParser parser = new MarkdownParser();
+    private String document;
+    private String paragraph;
+
+    @Setup
+    public void setUp(){
+        document = BenchmarkInputs.document(size, profile);
+        paragraph = BenchmarkInputs.paragraph(size);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole){
+        parser.parse(document, new BlackholeRenderer(blackhole));
+    }
+
+    /**
+     * Includes the copy of the text made by {@link MarkdownParser#setText(String)}
+     */
+    @Benchmark
+    public TextNode parseText(){
+        MarkdownParser textParser = new MarkdownParser();
+        textParser.setText(paragraph);
+        return textParser.parseText();
+    }
+}
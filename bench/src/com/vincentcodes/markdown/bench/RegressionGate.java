@@ -0,0 +1,232 @@
+package com.vincentcodes.markdown.bench;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator.Profile;
+import com.vincentcodes.tests.markdown.mock.NoOpRenderer;
+
+/**
+ * <p>
+ * Runs a fixed set of benchmarks on the corpora of {@link CorpusGenerator}
+ * and compares the results with a JSON baseline. It fails (exit code 1)
+ * if the throughput of a benchmark is lower than the baseline, or its
+ * allocation per KB is higher, by more than the tolerance. Nothing but
+ * the JDK is needed, see {@code bench/regression.sh}.
+ * <pre>
+ * RegressionGate [--record] [--baseline file] [--tolerance 0.2] [--alloc-tolerance 0.05]
+ * </pre>
+ * {@code --record} writes the results as the new baseline instead. A
+ * baseline is only meaningful on the machine (and JVM) it is recorded on.
+ * <p>
+ * Each benchmark runs for a while to warm up, then takes {@link #SAMPLES}
+ * samples of at least {@link #SAMPLE_RUNS} runs and {@link #SAMPLE_NANOS}.
+ * The median throughput and the median allocation are used, so that
+ * a single sample which the machine slows down (or a lucky one) does
+ * not decide.
+ */
+public class RegressionGate {
+    static final int SAMPLES = 7;
+    static final int SAMPLE_RUNS = 5;
+    static final long SAMPLE_NANOS = 1_000_000_000L;
+    static final long WARMUP_NANOS = 2_000_000_000L;
+
+    static final class Result {
+        final String name;
+        final double kbPerMs;
+        final double bytesPerKb;
+
+        Result(String name, double kbPerMs, double bytesPerKb){
+            this.name = name;
+            this.kbPerMs = kbPerMs;
+            this.bytesPerKb = bytesPerKb;
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS = 
+        (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException{
+        boolean record = false;
+        Path baselineFile = Paths.get("bench/baselines/baseline.json");
+        double tolerance = 0.2;
+        double allocTolerance = 0.05;
+        for(int i = 0; i < args.length; i++){
+            switch(args[i]){
+                case "--record": record = true; break;
+                case "--baseline": baselineFile = Paths.get(args[++i]); break;
+                case "--tolerance": tolerance = Double.parseDouble(args[++i]); break;
+                case "--alloc-tolerance": allocTolerance = Double.parseDouble(args[++i]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        List<Result> results = runAll();
+        if(record){
+            Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+            Files.writeString(baselineFile, toJson(results), StandardCharsets.UTF_8);
+            System.out.println("Baseline is written to " + baselineFile);
+            return;
+        }
+        if(!Files.exists(baselineFile)){
+            System.err.println("No baseline at " + baselineFile + ", run with --record first");
+            System.exit(2);
+        }
+        Map<String, Result> baseline = fromJson(Files.readString(baselineFile, StandardCharsets.UTF_8));
+        int regressions = compare(baseline, results, tolerance, allocTolerance);
+        if(regressions > 0){
+            System.out.println(regressions + " regression(s) against " + baselineFile);
+            System.exit(1);
+        }
+        System.out.println("No regression against " + baselineFile);
+    }
+
+    /**
+     * The fixed benchmark set: parsing alone and parsing into html,
+     * on each profile of the corpus
+     */
+    static List<Result> runAll(){
+        MarkdownParser parser = new MarkdownParser();
+        List<Result> results = new ArrayList<>();
+        for(Profile profile : Profile.values()){
+            for(String size : new String[]{"64k", "4m"}){
+                if(profile != Profile.MIXED && size.equals("64k"))
+                    continue;
+                String document = new CorpusGenerator(BenchmarkInputs.SEED, profile)
+                    .generate((int)CorpusGenerator.parseSize(size));
+                String suffix = "/" + profile + "/" + size;
+                results.add(run("parse" + suffix, document.length(), 
+                    () -> parser.parse(document, new NoOpRenderer())));
+                results.add(run("html" + suffix, document.length(), () -> {
+                    HtmlRenderer renderer = new HtmlRenderer(false);
+                    parser.parse(document, renderer);
+                    renderer.getRenderedHtml();
+                }));
+            }
+        }
+        return results;
+    }
+
+    static Result run(String name, int chars, Runnable benchmark){
+        measure(benchmark, WARMUP_NANOS);
+        double[] kbPerMs = new double[SAMPLES];
+        double[] bytesPerKb = new double[SAMPLES];
+        for(int i = 0; i < SAMPLES; i++){
+            double[] sample = measure(benchmark, SAMPLE_NANOS);
+            double kb = sample[0] * chars / 1024.0;
+            kbPerMs[i] = kb / (sample[1] / 1e6);
+            bytesPerKb[i] = sample[2] / kb;
+        }
+        Result result = new Result(name, median(kbPerMs), median(bytesPerKb));
+        System.out.printf(Locale.ROOT, "%-32s %10.1f KB/ms %12.0f B/KB%n", name, result.kbPerMs, result.bytesPerKb);
+        return result;
+    }
+
+    /**
+     * @return no. of runs, ns taken and bytes allocated
+     */
+    private static double[] measure(Runnable benchmark, long minNanos){
+        long thread = Thread.currentThread().getId();
+        long runs = 0;
+        long allocated = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long time;
+        do{
+            benchmark.run();
+            runs++;
+        }while((time = System.nanoTime() - start) < minNanos || runs < SAMPLE_RUNS);
+        allocated = THREADS.getThreadAllocatedBytes(thread) - allocated;
+        return new double[]{runs, time, allocated};
+    }
+
+    private static double median(double[] values){
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Print a table of the changes
+     * @return no. of regressions
+     */
+    static int compare(Map<String, Result> baseline, List<Result> results, double tolerance, double allocTolerance){
+        int regressions = 0;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-32s %-6s %12s %12s %8s%n", "benchmark", "", "baseline", "current", "change");
+        for(Result result : results){
+            Result old = baseline.get(result.name);
+            if(old == null){
+                System.out.printf(Locale.ROOT, "%-32s not in the baseline%n", result.name);
+                continue;
+            }
+            // a lower throughput or a higher allocation is worse
+            boolean slower = result.kbPerMs < old.kbPerMs * (1 - tolerance);
+            boolean moreAllocation = result.bytesPerKb > old.bytesPerKb * (1 + allocTolerance);
+            printRow(result.name, "KB/ms", old.kbPerMs, result.kbPerMs, slower);
+            printRow("", "B/KB", old.bytesPerKb, result.bytesPerKb, moreAllocation);
+            if(slower) regressions++;
+            if(moreAllocation) regressions++;
+        }
+        for(String name : baseline.keySet()){
+            if(results.stream().noneMatch(result -> result.name.equals(name)))
+                System.out.printf(Locale.ROOT, "%-32s not run, only in the baseline%n", name);
+        }
+        return regressions;
+    }
+
+    private static void printRow(String name, String unit, double baseline, double current, boolean regression){
+        System.out.printf(Locale.ROOT, "%-32s %-6s %12.1f %12.1f %+7.1f%%%s%n", name, unit, baseline, current,
+            (current - baseline) / baseline * 100, regression? "  REGRESSION" : "");
+    }
+
+    // JSON: only what toJson() writes is read back //
+
+    static String toJson(List<Result> results){
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"java\": \"").append(System.getProperty("java.version")).append("\",\n");
+        json.append("  \"os\": \"").append(System.getProperty("os.name")).append(' ')
+            .append(System.getProperty("os.arch")).append("\",\n");
+        json.append("  \"results\": [\n");
+        for(int i = 0; i < results.size(); i++){
+            Result result = results.get(i);
+            json.append(String.format(Locale.ROOT, "    {\"name\": \"%s\", \"kbPerMs\": %.1f, \"bytesPerKb\": %.1f}", 
+                result.name, result.kbPerMs, result.bytesPerKb));
+            json.append(i + 1 < results.size()? ",\n" : "\n");
+        }
+        json.append("  ]\n}\n");
+        return json.toString();
+    }
+
+    private static final Pattern RESULT = Pattern.compile(
+        "\\{\\s*\"name\":\\s*\"([^\"]+)\",\\s*\"kbPerMs\":\\s*([0-9.eE+-]+),\\s*\"bytesPerKb\":\\s*([0-9.eE+-]+)\\s*\\}");
+
+    static Map<String, Result> fromJson(String json){
+        Map<String, Result> results = new LinkedHashMap<>();
+        Matcher matcher = RESULT.matcher(json);
+        while(matcher.find()){
+            results.put(matcher.group(1), new Result(matcher.group(1), 
+                Double.parseDouble(matcher.group(2)), Double.parseDouble(matcher.group(3))));
+        }
+        if(results.isEmpty())
+            throw new IllegalArgumentException("No results inside the baseline");
+        return results;
+    }
+}
@@ -0,0 +1,65 @@
+package com.vincentcodes.markdown.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.markdown.renderer.OoxmlWordRenderer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * From markdown text to the final output: a html string, or a
+ * .docx file written to a temporary file.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    private final MarkdownParser parser = new MarkdownParser();
+    private String document;
+    private File wordFile;
+
+    @Setup
+    public void setUp() throws IOException{
+        document = BenchmarkInputs.document(size);
+        wordFile = File.createTempFile("jmarkdown-bench", ".docx");
+    }
+
+    @TearDown
+    public void tearDown(){
+        wordFile.delete();
+    }
+
+    @Benchmark
+    public String html(){
+        HtmlRenderer renderer = new HtmlRenderer(false);
+        parser.parse(document, renderer);
+        return renderer.getRenderedHtml();
+    }
+
+    @Benchmark
+    public long ooxmlWord(){
+        parser.parse(document, new OoxmlWordRenderer(wordFile, null));
+        return wordFile.length();
+    }
+}
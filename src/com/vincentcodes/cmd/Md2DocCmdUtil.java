@@ -6,6 +6,7 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
 
 import com.vincentcodes.markdown.MarkdownParser;
@@ -51,7 +52,7 @@ public class Md2DocCmdUtil {
             }
 
             parser = new MarkdownParser(renderer);
-            parser.parse(new String(fis.readAllBytes()));
+            parser.parse(new InputStreamReader(fis));
             System.out.println("File created");
         }catch(FileNotFoundException ignored){
         }catch(IOException e){
@@ -4,9 +4,12 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 
 import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.renderer.FlushPolicy;
 import com.vincentcodes.markdown.renderer.HtmlRenderer;
 import com.vincentcodes.util.commandline.Command;
 
@@ -20,11 +23,9 @@ public class Md2HtmlCmdUtil {
         
         try(FileInputStream fis = new FileInputStream(cmd.getOptionValue("-i"));
             FileOutputStream fos = new FileOutputStream(cmd.hasOption("-o")? cmd.getOptionValue("-o") : "out.html")){
-            HtmlRenderer renderer = new HtmlRenderer();
-            MarkdownParser parser = new MarkdownParser(renderer);
-            parser.parse(new String(fis.readAllBytes()));
-            
-            fos.write(renderer.getRenderedHtml().getBytes());
+            // the html is written while the file is parsed, neither of them is held in memory
+            MarkdownParser parser = new MarkdownParser(new HtmlRenderer(fos, true, FlushPolicy.AT_END));
+            parser.parse(new InputStreamReader(fis, StandardCharsets.UTF_8));
             System.out.println("File created");
         }catch(FileNotFoundException ignored){
         }catch(IOException e){
@@ -0,0 +1,231 @@
+package com.vincentcodes.markdown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.vincentcodes.markdown.inline.TextGroup;
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.inline.TextSpan;
+import com.vincentcodes.markdown.inline.TextStyle;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * <p>
+ * A parse result in a compact binary form, so that an unchanged
+ * markdown file does not need to be parsed again. Write it with
+ * {@link #write(ParseResult, Path)} and read it back with
+ * {@link #load(Path)}, which maps the file into memory.
+ * <p>
+ * Format (big endian):
+ * <pre>
+ * int magic ("JMDB"), int version, int flags, int no. of chars, int no. of event bytes
+ * chars     the source followed by the other strings, 1 byte each if
+ *           flags has LATIN1, otherwise 2 bytes each
+ * events    op code (byte) then its arguments as unsigned varints:
+ *           string:   length + 1 (0 for null), offset into chars if length > 0
+ *           TextNode: no. of groups, then for each group: style bits |
+ *                     HAS_VALUE | JOINS_LINES | HAS_LINK, the value as
+ *                     length and offset, desc and url as strings
+ * </pre>
+ * Text values which are pieces of the source are stored as offsets
+ * into it. A file of another version is rejected with an
+ * {@link IncompatibleFormatException}.
+ * <p>
+ * Only the chars are copied out of the file when it is loaded,
+ * the events are decoded from the mapped buffer on each replay.
+ */
+public final class BinaryDocument {
+    public static final int VERSION = 1;
+    static final int MAGIC = 0x4A4D4442; // "JMDB"
+    static final int HEADER_SIZE = 20;
+    static final int LATIN1 = 1;
+
+    // node group flags, the style bits take the lowest 6 bits
+    static final int HAS_VALUE = 1 << 6;
+    static final int JOINS_LINES = 1 << 7;
+    static final int HAS_LINK = 1 << 8;
+
+    static final int BODY = 0;
+    static final int DONE = 1;
+    static final int HR = 2;
+    static final int H1 = 3; // up to H6 = 8
+    static final int P = 9;
+    static final int APPEND = 10;
+    static final int OL = 11;
+    static final int UL = 12;
+    static final int LI = 13;
+    static final int ENDOL = 14;
+    static final int ENDUL = 15;
+    static final int TABLE = 16;
+    static final int TR = 17;
+    static final int END_TABLE = 18;
+    static final int CODEBLOCK = 19;
+    static final int START_BLOCK_QUOTE = 20;
+    static final int BLOCKQUOTE = 21;
+    static final int END_BLOCK_QUOTE = 22;
+
+    private final char[] chars;
+    private final ByteBuffer events;
+
+    private BinaryDocument(char[] chars, ByteBuffer events){
+        this.chars = chars;
+        this.events = events;
+    }
+
+    public static void write(ParseResult result, OutputStream out) throws IOException{
+        BinaryWriter.write(result, out);
+    }
+
+    public static void write(ParseResult result, Path file) throws IOException{
+        try(OutputStream out = Files.newOutputStream(file)){
+            write(result, out);
+        }
+    }
+
+    /**
+     * Map {@code file} into memory, the file can be closed right after
+     * @throws IncompatibleFormatException if it is not written in {@link #VERSION}
+     */
+    public static BinaryDocument load(Path file) throws IOException{
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            return load(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param buffer from its position to its limit, it is not copied
+     * and must not be modified afterwards
+     */
+    public static BinaryDocument load(ByteBuffer buffer) throws IncompatibleFormatException{
+        ByteBuffer data = buffer.slice();
+        if(data.remaining() < HEADER_SIZE || data.getInt(0) != MAGIC)
+            throw new IncompatibleFormatException("Not a binary markdown document");
+        int version = data.getInt(4);
+        if(version != VERSION)
+            throw new IncompatibleFormatException("Version " + version + " is not supported, expected " + VERSION);
+        boolean latin1 = (data.getInt(8) & LATIN1) != 0;
+        int charCount = data.getInt(12);
+        int eventsLength = data.getInt(16);
+        long charsLength = latin1? charCount : charCount * 2L;
+        if(charCount < 0 || eventsLength < 0 || HEADER_SIZE + charsLength + eventsLength > data.remaining())
+            throw new IncompatibleFormatException("Truncated binary markdown document");
+
+        char[] chars = new char[charCount];
+        data.position(HEADER_SIZE);
+        if(latin1){
+            for(int i = 0; i < charCount; i++)
+                chars[i] = (char)(data.get() & 0xFF);
+        }else{
+            data.asCharBuffer().get(chars);
+            data.position(HEADER_SIZE + (int)charsLength);
+        }
+        data.limit(data.position() + eventsLength);
+        return new BinaryDocument(chars, data.slice());
+    }
+
+    /**
+     * Give {@code renderer} the same calls as the parse which
+     * the document is written from. Can be called many times.
+     */
+    public void replay(Renderer renderer){
+        Decoder in = new Decoder();
+        try{
+            while(in.position < events.limit()){
+                int op = events.get(in.position++);
+                switch(op){
+                    case BODY: renderer.body(); break;
+                    case DONE: RenderDoneEvent.done(renderer, 0); break;
+                    case HR: renderer.hr(); break;
+                    case H1: renderer.h1(in.readNode()); break;
+                    case H1 + 1: renderer.h2(in.readNode()); break;
+                    case H1 + 2: renderer.h3(in.readNode()); break;
+                    case H1 + 3: renderer.h4(in.readNode()); break;
+                    case H1 + 4: renderer.h5(in.readNode()); break;
+                    case H1 + 5: renderer.h6(in.readNode()); break;
+                    case P: renderer.p(in.readNode()); break;
+                    case APPEND: renderer.append(in.readString()); break;
+                    case OL: renderer.ol(); break;
+                    case UL: renderer.ul(); break;
+                    case LI: renderer.li(in.readNode()); break;
+                    case ENDOL: renderer.endol(); break;
+                    case ENDUL: renderer.endul(); break;
+                    case TABLE: renderer.table(in.readNodes()); break;
+                    case TR: renderer.tr(in.readNodes()); break;
+                    case END_TABLE: renderer.endTable(); break;
+                    case CODEBLOCK: renderer.codeblock(in.readString(), in.readString()); break;
+                    case START_BLOCK_QUOTE: renderer.startBlockQuote(); break;
+                    case BLOCKQUOTE: renderer.blockquote(in.readNode(), in.readVarInt()); break;
+                    case END_BLOCK_QUOTE: renderer.endBlockQuote(); break;
+                    default: throw new IllegalStateException("Unknown op code " + op + " at " + (in.position - 1));
+                }
+            }
+        }catch(IndexOutOfBoundsException | BufferUnderflowException e){
+            throw new IllegalStateException("Corrupted binary markdown document", e);
+        }
+    }
+
+    /**
+     * Reads the events from a position of its own, so that
+     * many threads can replay the same document
+     */
+    private final class Decoder {
+        private int position;
+
+        int readVarInt(){
+            int value = 0;
+            for(int shift = 0; ; shift += 7){
+                byte b = events.get(position++);
+                value |= (b & 0x7F) << shift;
+                if(b >= 0)
+                    return value;
+            }
+        }
+
+        String readString(){
+            int length = readVarInt() - 1;
+            if(length <= 0)
+                return length == 0? "" : null;
+            return new String(chars, readVarInt(), length);
+        }
+
+        TextNode readNode(){
+            TextNode node = new TextNode();
+            int size = readVarInt();
+            for(int i = 0; i < size; i++){
+                int flags = readVarInt();
+                TextStyle style = TextStyle.of(flags & (TextStyle.NUM_OF_STYLES - 1));
+                CharSequence value = null;
+                if((flags & HAS_VALUE) != 0){
+                    int length = readVarInt();
+                    int offset = length > 0? readVarInt() : 0;
+                    value = new TextSpan(chars, offset, length, (flags & JOINS_LINES) != 0);
+                }
+                if((flags & HAS_LINK) == 0){
+                    node.add(style, value);
+                }else if(value == null){
+                    node.addLink(style, readString(), readString());
+                }else{
+                    TextGroup group = new TextGroup(style, value);
+                    group.desc = readString();
+                    group.url = readString();
+                    node.add(group);
+                }
+            }
+            return node;
+        }
+
+        TextNode[] readNodes(){
+            TextNode[] nodes = new TextNode[readVarInt()];
+            for(int i = 0; i < nodes.length; i++)
+                nodes[i] = readNode();
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.vincentcodes.markdown;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.inline.TextSpan;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * Encodes the events of a {@link ParseResult} into the format
+ * read by {@link BinaryDocument}.
+ */
+final class BinaryWriter implements Renderer {
+    private final char[] source;
+    // chars which are not inside the source, eg. escaped texts and code blocks
+    private final StringBuilder strings = new StringBuilder();
+    private final Map<String, Integer> stringOffsets = new HashMap<>();
+
+    private byte[] events = new byte[256];
+    private int size;
+
+    private BinaryWriter(char[] source){
+        this.source = source == null? new char[0] : source;
+    }
+
+    static void write(ParseResult result, OutputStream out) throws IOException{
+        BinaryWriter writer = new BinaryWriter(result.source());
+        result.replay(writer);
+        writer.writeTo(out);
+    }
+
+    private void writeTo(OutputStream out) throws IOException{
+        int charCount = source.length + strings.length();
+        boolean latin1 = isLatin1(source, 0, source.length) && isLatin1(strings);
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(BinaryDocument.MAGIC);
+        data.writeInt(BinaryDocument.VERSION);
+        data.writeInt(latin1? BinaryDocument.LATIN1 : 0);
+        data.writeInt(charCount);
+        data.writeInt(size);
+
+        byte[] chars = new byte[latin1? charCount : charCount * 2];
+        for(int i = 0; i < charCount; i++){
+            char c = i < source.length? source[i] : strings.charAt(i - source.length);
+            if(latin1){
+                chars[i] = (byte)c;
+            }else{
+                chars[i * 2] = (byte)(c >> 8);
+                chars[i * 2 + 1] = (byte)c;
+            }
+        }
+        data.write(chars);
+        data.write(events, 0, size);
+        data.flush();
+    }
+
+    private static boolean isLatin1(char[] chars, int start, int end){
+        for(int i = start; i < end; i++){
+            if(chars[i] > 0xFF)
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isLatin1(CharSequence chars){
+        for(int i = 0; i < chars.length(); i++){
+            if(chars.charAt(i) > 0xFF)
+                return false;
+        }
+        return true;
+    }
+
+    private void writeByte(int value){
+        if(size == events.length)
+            events = Arrays.copyOf(events, size * 2);
+        events[size++] = (byte)value;
+    }
+
+    private void writeVarInt(int value){
+        while((value & ~0x7F) != 0){
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+
+    /**
+     * length + 1 (0 for null) then the offset inside the chars
+     */
+    private void writeString(CharSequence value){
+        if(value == null){
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(value.length() + 1);
+        if(value.length() > 0)
+            writeVarInt(offsetOf(value.toString()));
+    }
+
+    private int offsetOf(String value){
+        Integer offset = stringOffsets.get(value);
+        if(offset == null){
+            offset = source.length + strings.length();
+            strings.append(value);
+            stringOffsets.put(value, offset);
+        }
+        return offset;
+    }
+
+    private void writeNode(TextNode node){
+        writeVarInt(node.size());
+        for(int i = 0; i < node.size(); i++){
+            CharSequence value = node.getText(i);
+            String desc = node.getDesc(i);
+            String url = node.getUrl(i);
+            boolean span = value instanceof TextSpan && ((TextSpan)value).isPieceOf(source);
+            int flags = node.getStyle(i).bits();
+            if(value != null)
+                flags |= BinaryDocument.HAS_VALUE;
+            if(span && ((TextSpan)value).isJoiningLines())
+                flags |= BinaryDocument.JOINS_LINES;
+            if(desc != null || url != null)
+                flags |= BinaryDocument.HAS_LINK;
+            writeVarInt(flags);
+
+            if(value != null){
+                writeVarInt(value.length());
+                if(value.length() > 0)
+                    writeVarInt(span? ((TextSpan)value).getOffset() : offsetOf(value.toString()));
+            }
+            if((flags & BinaryDocument.HAS_LINK) != 0){
+                writeString(desc);
+                writeString(url);
+            }
+        }
+    }
+
+    private void writeNodes(TextNode[] nodes){
+        writeVarInt(nodes.length);
+        for(TextNode node : nodes)
+            writeNode(node);
+    }
+
+    @Override
+    public void body(){
+        writeByte(BinaryDocument.BODY);
+    }
+    @Override
+    public void done(){
+        writeByte(BinaryDocument.DONE);
+    }
+    @Override
+    public void hr(){
+        writeByte(BinaryDocument.HR);
+    }
+    @Override
+    public void h1(TextNode texts){
+        writeByte(BinaryDocument.H1);
+        writeNode(texts);
+    }
+    @Override
+    public void h2(TextNode texts){
+        writeByte(BinaryDocument.H1 + 1);
+        writeNode(texts);
+    }
+    @Override
+    public void h3(TextNode texts){
+        writeByte(BinaryDocument.H1 + 2);
+        writeNode(texts);
+    }
+    @Override
+    public void h4(TextNode texts){
+        writeByte(BinaryDocument.H1 + 3);
+        writeNode(texts);
+    }
+    @Override
+    public void h5(TextNode texts){
+        writeByte(BinaryDocument.H1 + 4);
+        writeNode(texts);
+    }
+    @Override
+    public void h6(TextNode texts){
+        writeByte(BinaryDocument.H1 + 5);
+        writeNode(texts);
+    }
+    @Override
+    public void p(TextNode texts){
+        writeByte(BinaryDocument.P);
+        writeNode(texts);
+    }
+    @Override
+    public void append(String text){
+        writeByte(BinaryDocument.APPEND);
+        writeString(text);
+    }
+    @Override
+    public void ol(){
+        writeByte(BinaryDocument.OL);
+    }
+    @Override
+    public void ul(){
+        writeByte(BinaryDocument.UL);
+    }
+    @Override
+    public void li(TextNode text){
+        writeByte(BinaryDocument.LI);
+        writeNode(text);
+    }
+    @Override
+    public void endol(){
+        writeByte(BinaryDocument.ENDOL);
+    }
+    @Override
+    public void endul(){
+        writeByte(BinaryDocument.ENDUL);
+    }
+    @Override
+    public void table(TextNode[] headings){
+        writeByte(BinaryDocument.TABLE);
+        writeNodes(headings);
+    }
+    @Override
+    public void tr(TextNode[] rowEntries){
+        writeByte(BinaryDocument.TR);
+        writeNodes(rowEntries);
+    }
+    @Override
+    public void endTable(){
+        writeByte(BinaryDocument.END_TABLE);
+    }
+    @Override
+    public void codeblock(String text, String lang){
+        writeByte(BinaryDocument.CODEBLOCK);
+        writeString(text);
+        writeString(lang);
+    }
+    @Override
+    public void startBlockQuote(){
+        writeByte(BinaryDocument.START_BLOCK_QUOTE);
+    }
+    @Override
+    public void blockquote(TextNode text, int level){
+        writeByte(BinaryDocument.BLOCKQUOTE);
+        writeNode(text);
+        writeVarInt(level);
+    }
+    @Override
+    public void endBlockQuote(){
+        writeByte(BinaryDocument.END_BLOCK_QUOTE);
+    }
+}
@@ -0,0 +1,37 @@
+package com.vincentcodes.markdown;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of one top-level block, including the time spent 
+ * by the renderer on its events. The chunks of a parallel parse 
+ * keep their blocks, which are committed by the calling thread when
+ * they are given to the renderer, so the duration is the time of the
+ * renderer only. {@link #parseTime} has the time of the parse too.
+ */
+@Name("com.vincentcodes.markdown.BlockParse")
+@Label("Markdown Block Parse")
+@Category("JMarkdown")
+@StackTrace(false)
+final class BlockParseEvent extends Event {
+    @Label("Document Id")
+    long documentId;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Offset")
+    long offset;
+
+    @Label("Chars")
+    int chars;
+
+    @Label("Parse Time")
+    @Timespan
+    long parseTime;
+}
@@ -0,0 +1,220 @@
+package com.vincentcodes.markdown;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.vincentcodes.markdown.renderer.FragmentRenderer;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * <p>
+ * Keeps the rendered output of blocks, so that a block which has
+ * not changed since the last time is neither parsed nor rendered
+ * again. Use it with {@link MarkdownParser#parse(String, Renderer, BlockRenderCache)}.
+ * <p>
+ * The text is cut at lines which are likely to start a block (see
+ * {@link ParallelParser#findChunks(MarkdownSource, int)}), each
+ * piece holds one or a few blocks. A piece is looked up by the hash
+ * of its text (plus the line after it, which the parser looks at)
+ * and its kind (the first char). It is only taken from the cache if
+ * the parse before it really ended at its start.
+ * <p>
+ * A {@link FragmentRenderer} (eg. {@link com.vincentcodes.markdown.renderer.HtmlRenderer})
+ * gets the kept output. Any other renderer gets the kept events,
+ * which only saves the parsing. One cache should only be used for
+ * renderers of the same kind and options.
+ * <p>
+ * The least recently used pieces are dropped once there are more
+ * than {@code maxEntries}. The cache can be shared by many threads.
+ */
+public final class BlockRenderCache {
+    private static final class Key {
+        final long hash;
+        final int length;
+        final char kind;
+        final byte flags;
+
+        Key(long hash, int length, char kind, byte flags){
+            this.hash = hash;
+            this.length = length;
+            this.kind = kind;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object obj){
+            if(!(obj instanceof Key))
+                return false;
+            Key key = (Key)obj;
+            return hash == key.hash && length == key.length && kind == key.kind && flags == key.flags;
+        }
+
+        @Override
+        public int hashCode(){
+            return Long.hashCode(hash);
+        }
+    }
+
+    private static final class CachedBlock {
+        final String text;   // compared on a hit, in case two texts have the same hash
+        final Object output; // String for a FragmentRenderer, otherwise RecordingRenderer
+
+        CachedBlock(String text, Object output){
+            this.text = text;
+            this.output = output;
+        }
+    }
+
+    // key flags
+    private static final byte AT_START = 1;
+    private static final byte AT_END = 2;
+    private static final byte EVENTS = 4;
+
+    private final Map<Key, CachedBlock> entries;
+    private long hits;
+    private long misses;
+
+    public BlockRenderCache(int maxEntries){
+        if(maxEntries <= 0)
+            throw new IllegalArgumentException("Max no. of entries must be positive");
+        this.entries = new LinkedHashMap<Key, CachedBlock>(16, 0.75f, true){
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedBlock> eldest){
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized long getHits(){
+        return hits;
+    }
+
+    public synchronized long getMisses(){
+        return misses;
+    }
+
+    public synchronized int size(){
+        return entries.size();
+    }
+
+    public synchronized void clear(){
+        entries.clear();
+        hits = misses = 0;
+    }
+
+    void render(MarkdownSource text, Renderer renderer, ParseBudget budget){
+        FragmentRenderer fragments = renderer instanceof FragmentRenderer? (FragmentRenderer)renderer : null;
+        int[] starts = ParallelParser.findChunks(text, 1);
+        int length = text.length();
+
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        long documentId = ParseEvent.nextDocumentId();
+        renderer.body();
+        int position = 0;
+        for(int i = 0; i < starts.length; i++){
+            int start = starts[i];
+            int end = i + 1 < starts.length? starts[i + 1] : length;
+            ParseContext context;
+            if(position > start){
+                // the previous piece went on into this one
+                if(position >= end)
+                    continue;
+                context = new ParseContext(renderer, text, position, budget);
+                context.setDocumentId(documentId);
+                context.parseBlocksUntil(end);
+            }else{
+                context = renderPiece(text, start, end, renderer, fragments, budget, documentId);
+                if(context == null){
+                    position = end;
+                    continue;
+                }
+            }
+            position = context.position();
+            if(context.isFinished() && position < length){
+                // eg. a '\0' ends the parse before eof
+                break;
+            }
+        }
+        RenderDoneEvent.done(renderer, documentId);
+        if(event.shouldCommit()){
+            event.documentId = documentId;
+            event.mode = "cache";
+            event.chars = length;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return the context which parsed the piece, null if it is taken from the cache
+     */
+    private ParseContext renderPiece(MarkdownSource text, int start, int end, Renderer renderer, FragmentRenderer fragments, ParseBudget budget, long documentId){
+        int fragmentStart = fragments == null? 0 : fragments.startFragment();
+        if(fragmentStart < 0){
+            ParseContext context = new ParseContext(renderer, text, start, budget);
+            context.setDocumentId(documentId);
+            context.parseBlocksUntil(end);
+            return context;
+        }
+
+        // the parser may read until the line after the piece
+        int keyEnd = Math.min(text.lineEnd(end) + 2, text.length());
+        Key key = createKey(text, start, keyEnd, fragments == null);
+        Object output = get(key, text, start, keyEnd);
+        if(output != null){
+            if(fragments != null)
+                fragments.appendFragment((String)output);
+            else ((RecordingRenderer)output).replay(renderer, 0);
+            return null;
+        }
+
+        RecordingRenderer recorder = fragments == null? new RecordingRenderer() : null;
+        ParseContext context = new ParseContext(fragments == null? recorder : renderer, text, start, budget);
+        context.setDocumentId(documentId);
+        context.parseBlocksUntil(end);
+        if(recorder != null)
+            recorder.replay(renderer, 0);
+        if(context.position() == end || (end == text.length() && context.position() >= end)){
+            output = fragments == null? recorder : fragments.endFragment(fragmentStart);
+            if(output != null)
+                put(key, text.substring(start, keyEnd), output);
+        }
+        return context;
+    }
+
+    private static Key createKey(MarkdownSource text, int start, int end, boolean events){
+        long hash = 1125899906842597L;
+        for(int i = start; i < end; i++)
+            hash = 31 * hash + text.charAt(i);
+        // spread the bits, the lower ones are used by the map
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        byte flags = (byte)((start == 0? AT_START : 0) | (end == text.length()? AT_END : 0) | (events? EVENTS : 0));
+        return new Key(hash, end - start, start < end? text.charAt(start) : '\0', flags);
+    }
+
+    private synchronized Object get(Key key, MarkdownSource text, int start, int end){
+        CachedBlock entry = entries.get(key);
+        if(entry != null && matches(entry.text, text, start, end)){
+            hits++;
+            return entry.output;
+        }
+        misses++;
+        return null;
+    }
+
+    private synchronized void put(Key key, String text, Object output){
+        entries.put(key, new CachedBlock(text, output));
+    }
+
+    private static boolean matches(String cached, MarkdownSource text, int start, int end){
+        for(int i = start; i < end; i++){
+            if(cached.charAt(i - start) != text.charAt(i))
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,194 @@
+package com.vincentcodes.markdown;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import com.vincentcodes.markdown.ast.Block;
+import com.vincentcodes.markdown.ast.BlockQuote;
+import com.vincentcodes.markdown.ast.CodeBlock;
+import com.vincentcodes.markdown.ast.Document;
+import com.vincentcodes.markdown.ast.Heading;
+import com.vincentcodes.markdown.ast.ListBlock;
+import com.vincentcodes.markdown.ast.ListItem;
+import com.vincentcodes.markdown.ast.Paragraph;
+import com.vincentcodes.markdown.ast.PlainText;
+import com.vincentcodes.markdown.ast.Table;
+import com.vincentcodes.markdown.ast.ThematicBreak;
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * <p>
+ * Turns the events of a parse into a {@link Document}.
+ * <p>
+ * The list events are not always balanced (see {@link ListBlock}),
+ * so the builder needs to be told where a block ends. It is fed 
+ * from a {@link RecordingRenderer}, one block at a time, see 
+ * {@link #build(RecordingRenderer, int)}.
+ */
+final class DocumentBuilder implements Renderer {
+    private static final class OpenList {
+        final boolean ordered;
+        final boolean opened;
+        final List<Block> items = new ArrayList<>();
+
+        OpenList(boolean ordered, boolean opened){
+            this.ordered = ordered;
+            this.opened = opened;
+        }
+    }
+
+    private final List<Block> blocks = new ArrayList<>();
+    private final Deque<OpenList> lists = new ArrayDeque<>();
+    private List<TextNode> headings;
+    private List<List<TextNode>> rows;
+    private List<BlockQuote.Line> quoteLines;
+
+    /**
+     * @param eventsEnd the event after the last block
+     */
+    static Document build(RecordingRenderer events, int eventsEnd){
+        DocumentBuilder builder = new DocumentBuilder();
+        int numOfBlocks = events.numOfBlocks();
+        for(int i = 0; i < numOfBlocks; i++){
+            int end = i + 1 < numOfBlocks? events.blockEvent(i + 1) : eventsEnd;
+            events.replay(builder, events.blockEvent(i), end);
+            builder.endBlock();
+        }
+        return new Document(builder.blocks);
+    }
+
+    /**
+     * Close the lists which are left open by the parser
+     */
+    private void endBlock(){
+        while(!lists.isEmpty())
+            endList(List.of());
+    }
+
+    private void add(Block block){
+        endBlock();
+        blocks.add(block);
+    }
+
+    private void endList(ListBlock.End end){
+        if(lists.isEmpty()){
+            // the parser closes more lists than it opened
+            int last = blocks.size() - 1;
+            ListBlock closed = (ListBlock)blocks.get(last);
+            List<ListBlock.End> ends = new ArrayList<>(closed.getEnds());
+            ends.add(end);
+            blocks.set(last, new ListBlock(closed.isOrdered(), closed.getItems(), ends, closed.isOpened()));
+            return;
+        }
+        endList(List.of(end));
+    }
+
+    private void endList(List<ListBlock.End> ends){
+        OpenList list = lists.pop();
+        ListBlock block = new ListBlock(list.ordered, list.items, ends, list.opened);
+        if(lists.isEmpty())
+            blocks.add(block);
+        else lists.peek().items.add(block);
+    }
+
+    @Override
+    public void body(){}
+    @Override
+    public void done(){}
+    @Override
+    public void hr(){
+        add(ThematicBreak.INSTANCE);
+    }
+    @Override
+    public void h1(TextNode texts){
+        add(new Heading(1, texts));
+    }
+    @Override
+    public void h2(TextNode texts){
+        add(new Heading(2, texts));
+    }
+    @Override
+    public void h3(TextNode texts){
+        add(new Heading(3, texts));
+    }
+    @Override
+    public void h4(TextNode texts){
+        add(new Heading(4, texts));
+    }
+    @Override
+    public void h5(TextNode texts){
+        add(new Heading(5, texts));
+    }
+    @Override
+    public void h6(TextNode texts){
+        add(new Heading(6, texts));
+    }
+    @Override
+    public void p(TextNode texts){
+        add(new Paragraph(texts));
+    }
+    @Override
+    public void append(String text){
+        add(new PlainText(text));
+    }
+    @Override
+    public void ol(){
+        lists.push(new OpenList(true, true));
+    }
+    @Override
+    public void ul(){
+        lists.push(new OpenList(false, true));
+    }
+    @Override
+    public void li(TextNode text){
+        if(lists.isEmpty()){
+            // an item after the parser closed the list
+            ListBlock closed = (ListBlock)blocks.get(blocks.size() - 1);
+            lists.push(new OpenList(closed.isOrdered(), false));
+        }
+        lists.peek().items.add(new ListItem(text));
+    }
+    @Override
+    public void endol(){
+        endList(ListBlock.End.ORDERED);
+    }
+    @Override
+    public void endul(){
+        endList(ListBlock.End.UNORDERED);
+    }
+    @Override
+    public void table(TextNode[] headings){
+        this.headings = List.of(headings);
+        this.rows = new ArrayList<>();
+    }
+    @Override
+    public void tr(TextNode[] rowEntries){
+        rows.add(List.of(rowEntries));
+    }
+    @Override
+    public void endTable(){
+        add(new Table(headings, rows));
+        headings = null;
+        rows = null;
+    }
+    @Override
+    public void codeblock(String text, String lang){
+        add(new CodeBlock(text, lang));
+    }
+    @Override
+    public void startBlockQuote(){
+        quoteLines = new ArrayList<>();
+    }
+    @Override
+    public void blockquote(TextNode text, int level){
+        quoteLines.add(new BlockQuote.Line(text, level));
+    }
+    @Override
+    public void endBlockQuote(){
+        add(new BlockQuote(quoteLines));
+        quoteLines = null;
+    }
+}
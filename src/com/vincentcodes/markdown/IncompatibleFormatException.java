@@ -0,0 +1,16 @@
+package com.vincentcodes.markdown;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a cached {@link BinaryDocument} is not written in
+ * the current format (eg. by an older version of the library).
+ * The markdown text should be parsed again.
+ */
+public class IncompatibleFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public IncompatibleFormatException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,90 @@
+package com.vincentcodes.markdown;
+
+/**
+ * <p>
+ * Parses a text again after an edit by reusing the blocks of the
+ * previous {@link ParseResult} which cannot be affected by it.
+ * <p>
+ * A block looks back at most 2 chars before its start and ahead
+ * until the end of the line which the next block starts with (eg.
+ * a paragraph checks whether the next line is a heading). So a block
+ * is kept as is if that line ends before the edit. From there, the
+ * blocks are parsed again until one of them starts at a block start
+ * of the previous result, more than 2 chars after the edit. The rest
+ * of the text is the same as before, so are the blocks.
+ */
+final class IncrementalParser {
+    private IncrementalParser(){}
+
+    static ParseResult parse(String text, ParseBudget budget){
+        RecordingRenderer recorder = new RecordingRenderer();
+        MarkdownSource source = new MarkdownSource(text);
+        ParseContext context = new ParseContext(recorder, source, 0, budget);
+        recorder.body();
+        context.parseBlocksUntil(Integer.MAX_VALUE);
+        recorder.done();
+        return new ParseResult(text, source.chars(), recorder, context.position(), 0, recorder.numOfBlocks(), 0);
+    }
+
+    static ParseResult reparse(ParseResult previous, int offset, int removedLength, String inserted, ParseBudget budget){
+        String oldText = previous.getText();
+        if(offset < 0 || removedLength < 0 || offset > oldText.length() - removedLength)
+            throw new IndexOutOfBoundsException("cannot remove [" + offset + ", " + (offset + removedLength) + ") from text of length " + oldText.length());
+        String text = oldText.substring(0, offset) + inserted + oldText.substring(offset + removedLength);
+        int editEnd = offset + inserted.length(); // in the new text
+        int shift = inserted.length() - removedLength;
+
+        int numOfBlocks = previous.getNumOfBlocks();
+        int firstChanged = firstAffectedBlock(previous, offset);
+        int start = firstChanged < numOfBlocks? previous.getBlockStart(firstChanged) : previous.end();
+
+        RecordingRenderer changed = new RecordingRenderer();
+        MarkdownSource source = new MarkdownSource(text);
+        ParseContext context = new ParseContext(changed, source, start, budget);
+        int firstReused = numOfBlocks;
+        while(!context.isFinished()){
+            int position = context.position();
+            if(position - 2 >= editEnd){
+                int block = previous.events().findBlock(position - shift);
+                if(block >= 0){
+                    firstReused = block;
+                    break;
+                }
+            }
+            context.parseBlocksUntil(position + 1);
+        }
+        int end = firstReused < numOfBlocks? previous.end() + shift : context.position();
+
+        RecordingRenderer recorder = new RecordingRenderer();
+        RecordingRenderer old = previous.events();
+        recorder.body();
+        recorder.copyBlocks(old, 0, firstChanged, previous.eventsEnd(numOfBlocks), 0);
+        recorder.copyBlocks(changed, 0, changed.numOfBlocks(), changed.size(), 0);
+        recorder.copyBlocks(old, firstReused, numOfBlocks, previous.eventsEnd(numOfBlocks), shift);
+        recorder.done();
+        return new ParseResult(text, source.chars(), recorder, end, firstChanged, changed.numOfBlocks(), firstReused - firstChanged);
+    }
+
+    /**
+     * @return the first block whose parse may read a char at or after {@code offset}
+     */
+    private static int firstAffectedBlock(ParseResult previous, int offset){
+        String text = previous.getText();
+        int numOfBlocks = previous.getNumOfBlocks();
+        // the blocks before the one containing the offset are the candidates
+        int block = previous.events().findBlock(offset);
+        block = block < 0? -block - 1 : block;
+        while(block > 0 && lastCharRead(text, previous.getBlockEnd(block - 1)) >= offset)
+            block--;
+        return Math.min(block, numOfBlocks);
+    }
+
+    /**
+     * @return the last index a block ending at {@code blockEnd} may
+     * read, including the check for the end of the text
+     */
+    private static int lastCharRead(String text, int blockEnd){
+        int lineEnd = text.indexOf('\n', blockEnd);
+        return (lineEnd == -1? text.length() : lineEnd) + 1;
+    }
+}
@@ -0,0 +1,198 @@
+package com.vincentcodes.markdown;
+
+/**
+ * <p>
+ * Delimiter runs of one line, used by {@link ParseContext#parseText()}
+ * to decide whether a delimiter (eg. '*', "**", "~~") can reach another
+ * one to form a pair.
+ * <p>
+ * The tables are built by one backward pass from the current position
+ * to the end of the line. After that, every question is answered in
+ * O(1) instead of re-scanning the rest of the line for each delimiter.
+ * The parser moves forward, so a line is only scanned again when the
+ * parser goes back (which does not happen during one parseText()).
+ * <p>
+ * The pairing rules are the same as the old look-ahead scan:
+ * <pre>
+ * 1. the pair is on the same line and not inside inline code
+ *    (the first `...` pair after the opening delimiter)
+ * 2. pairs with a space on their left are skipped if ignoreCharAfterSpace
+ *    is set ("a * b *c*" pairs the first '*' with the last one)
+ * 3. a pair surrounded by spaces does not count
+ * </pre>
+ */
+class InlineDelimiters {
+    static final int ASTERISK = 0;
+    static final int UNDERSCORE = 1;
+    static final int DOUBLE_ASTERISK = 2;
+    static final int DOUBLE_UNDERSCORE = 3;
+    static final int DOUBLE_TILDE = 4;
+    static final int BACKTICK = 5;
+    static final int CLOSING_PARENTHESIS = 6;
+    private static final int NUM_OF_KINDS = 7;
+    private static final int NUM_OF_EMPHASIS = 5; // kinds which can be chained
+
+    private MarkdownSource text;
+    private int from = -1; // tables cover [from, lineEnd)
+    private int lineEnd = -1;
+
+    // next[kind][i - from] = absolute index of the first delimiter at or after i, -1 if none
+    private int[][] next = new int[NUM_OF_KINDS][0];
+    // unspaced[kind][i - from] = starting from the delimiter at i, the first delimiter
+    // without a space on its left reachable by skipping spaced ones, -1 if none
+    private int[][] unspaced = new int[NUM_OF_EMPHASIS][0];
+
+    // counted for ParseListener, reset by take*() only
+    private long lineScans;
+    private long rescans;
+    private long charsScanned;
+
+    /**
+     * Forget the tables. Must be called when the text changes.
+     */
+    void reset(MarkdownSource text){
+        this.text = text;
+        this.from = -1;
+        this.lineEnd = -1;
+    }
+
+    /**
+     * @return true if the delimiter at {@code index} has a pair on the same line
+     */
+    boolean canReach(int kind, int index, boolean ignoreCharAfterSpace){
+        ensureLine(index);
+        // nothing to reach if the delimiter ends the line
+        if(index + 1 >= lineEnd)
+            return false;
+        int codeInlineStartingPos = get(next, BACKTICK, index + 2);
+        int codeInlineEndingPos = codeInlineStartingPos == -1 || codeInlineStartingPos + 1 >= lineEnd?
+            -1 : get(next, BACKTICK, codeInlineStartingPos + 2);
+
+        // single chars look for a pair after the next char, strings right after itself
+        int pairPos = get(next, kind, index + (isDoubleChar(kind)? 1 : 2));
+        if(pairPos == -1)
+            return false;
+
+        if(ignoreCharAfterSpace){
+            int firstUnspaced = get(unspaced, kind, pairPos);
+            if(codeInlineEndingPos != -1 && (firstUnspaced == -1 || firstUnspaced > codeInlineStartingPos)){
+                // the spaced ones skipped before the inline code do not matter, the first
+                // pair after the opening '`' is the one which ends inside / outside inline code
+                int afterCode = get(next, kind, codeInlineStartingPos + 1);
+                pairPos = afterCode != -1 && afterCode < codeInlineEndingPos? afterCode : firstUnspaced;
+            }else pairPos = firstUnspaced;
+            if(pairPos == -1)
+                return false;
+        }
+
+        boolean leftIsSpace = isSpace(pairPos - 1);
+        boolean rightIsSpace = !text.has(pairPos + 1) || isSpace(pairPos + 1);
+        boolean insideInlineCode = codeInlineStartingPos < pairPos && pairPos < codeInlineEndingPos;
+        return !insideInlineCode && !(leftIsSpace && rightIsSpace);
+    }
+
+    /**
+     * @return absolute index of the first delimiter at or after {@code index} on
+     * the same line, -1 if none
+     */
+    int findOnSameLine(int kind, int index){
+        ensureLine(index);
+        return get(next, kind, index);
+    }
+
+    private int get(int[][] table, int kind, int index){
+        if(index >= lineEnd)
+            return -1;
+        return table[kind][index - from];
+    }
+
+    private void ensureLine(int index){
+        if(index >= from && index < lineEnd)
+            return;
+        if(!text.has(index)){
+            from = lineEnd = index;
+            return;
+        }
+        if(index < from)
+            rescans++;
+        from = index;
+        lineEnd = text.lineEnd(index);
+        build();
+    }
+
+    /**
+     * One backward pass over [from, lineEnd)
+     */
+    private void build(){
+        int length = lineEnd - from;
+        lineScans++;
+        charsScanned += length;
+        if(next[0].length < length){
+            int newLength = Math.max(length, next[0].length * 2);
+            for(int k = 0; k < NUM_OF_KINDS; k++)
+                next[k] = new int[newLength];
+            for(int k = 0; k < NUM_OF_EMPHASIS; k++)
+                unspaced[k] = new int[newLength];
+        }
+
+        int[] following = {-1, -1, -1, -1, -1, -1, -1};
+        char nextChar = 0;
+        for(int i = lineEnd - 1; i >= from; i--){
+            char c = text.charAt(i);
+            if(c == '*') following[ASTERISK] = i;
+            if(c == '_') following[UNDERSCORE] = i;
+            if(c == '*' && nextChar == '*') following[DOUBLE_ASTERISK] = i;
+            if(c == '_' && nextChar == '_') following[DOUBLE_UNDERSCORE] = i;
+            if(c == '~' && nextChar == '~') following[DOUBLE_TILDE] = i;
+            if(c == '`') following[BACKTICK] = i;
+            if(c == ')') following[CLOSING_PARENTHESIS] = i;
+            for(int k = 0; k < NUM_OF_KINDS; k++)
+                next[k][i - from] = following[k];
+
+            for(int k = 0; k < NUM_OF_EMPHASIS; k++){
+                if(following[k] != i)
+                    continue;
+                if(!isSpace(i - 1)){
+                    unspaced[k][i - from] = i;
+                    continue;
+                }
+                // the next candidate is searched after the char next to this one (or right after a string)
+                int candidate = get(next, k, i + (isDoubleChar(k)? 1 : 2));
+                unspaced[k][i - from] = candidate == -1? -1 : unspaced[k][candidate - from];
+            }
+            nextChar = c;
+        }
+    }
+
+    long takeLineScans(){
+        long count = lineScans;
+        lineScans = 0;
+        return count;
+    }
+
+    long takeRescans(){
+        long count = rescans;
+        rescans = 0;
+        return count;
+    }
+
+    long takeCharsScanned(){
+        long count = charsScanned;
+        charsScanned = 0;
+        return count;
+    }
+
+    private static boolean isDoubleChar(int kind){
+        return kind == DOUBLE_ASTERISK || kind == DOUBLE_UNDERSCORE || kind == DOUBLE_TILDE;
+    }
+
+    /**
+     * The start of text counts as space
+     */
+    private boolean isSpace(int index){
+        if(!text.has(index))
+            return true;
+        char c = text.charAt(index);
+        return c == ' ' || c == '\t' || c == '\n';
+    }
+}
@@ -0,0 +1,193 @@
+package com.vincentcodes.markdown;
+
+/**
+ * <p>
+ * Tells {@link MarkdownParser} what kind of block a line can start,
+ * replacing the regex which were matched against peeked lines.
+ * <p>
+ * A line is read once by {@link #classify(int)} and the result is
+ * kept until another line is classified. The same object is reused
+ * for every line, nothing is allocated.
+ * <p>
+ * Since a line can be more than one kind (eg. "1. a|b" is both an
+ * ordered item and a table row), the result is a set of flags.
+ * The rules are the same as the regex they replaced, eg. ".*" does
+ * not match '\r'.
+ */
+class LineClassifier {
+    private MarkdownSource text;
+    private int from = -1;
+
+    /**
+     * Same as {@code peekUntilLineEnd() != null}, ie. at least
+     * 2 chars are left. A line which does not exist is none of
+     * the kinds below.
+     */
+    boolean exists;
+    /**
+     * Exclusive, index of '\n' or eof
+     */
+    int end;
+    /**
+     * No. of leading blank chars (ie. removed by {@code String.trim()}).
+     * If the whole line is blank, the last char is not counted.
+     */
+    int indent;
+    boolean blank;
+    /**
+     * Index of the last char which is not blank, -1 if none
+     */
+    int lastNonBlank;
+
+    boolean thematicBreak;       // "---\n", "***\n" or "___\n"
+    boolean heading;             // "#(.*)"
+    boolean fence;               // "```(.*)"
+    boolean orderedItem;         // "[0-9]{1,}\. (.*)"
+    boolean bulletItem;          // "[-\*+] (.*)"
+    boolean indentedOrderedItem; // "(\s{2,})[0-9]{1,}\. (.*)"
+    boolean indentedBulletItem;  // "(\s{2,})[-\*+] (.*)"
+
+    boolean quote;               // ">(.*)"
+    int quoteDepth;              // no. of leading '>'
+    boolean arrowAfterQuote;     // another '>' after the leading ones
+
+    boolean tableRow;            // "([^\n\|]{1,}\|){1,}([^\n\|]{1,})?"
+    boolean delimiterRow;        // "([- ]{1,}\|){1,}([- ]{1,})?"
+    boolean startsWithPipe;
+    boolean endsWithPipe;
+    int numOfPipes;
+
+    void reset(MarkdownSource text){
+        this.text = text;
+        this.from = -1;
+    }
+
+    /**
+     * Classify the line from {@code index} (inclusive) to the line end
+     * @return this
+     */
+    LineClassifier classify(int index){
+        if(index == from)
+            return this;
+        from = index;
+        clear();
+        exists = index >= 0 && text.has(index + 1);
+        if(!exists)
+            return this;
+        end = text.lineEnd(index);
+
+        int lastLineTerminator = -1;
+        int leadingBlanks = 0;
+        int leadingWhitespaces = 0;
+        boolean onlyDashesAndSpaces = true;
+        boolean adjacentPipes = false;
+        char previous = 0;
+        for(int i = index; i < end; i++){
+            char c = text.charAt(i);
+            if(c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+                lastLineTerminator = i;
+            if(c > ' ')
+                lastNonBlank = i;
+            else if(leadingBlanks == i - index)
+                leadingBlanks++;
+            if(isWhitespace(c) && leadingWhitespaces == i - index)
+                leadingWhitespaces++;
+
+            if(c == '>'){
+                if(quoteDepth == i - index)
+                    quoteDepth++;
+                else arrowAfterQuote = true;
+            }
+            if(c == '|'){
+                numOfPipes++;
+                adjacentPipes |= previous == '|';
+            }else if(c != '-' && c != ' ')
+                onlyDashesAndSpaces = false;
+            previous = c;
+        }
+        int length = end - index;
+        char first = text.charAt(index);
+
+        blank = lastNonBlank == -1;
+        indent = leadingBlanks == length? Math.max(length - 1, 0) : leadingBlanks;
+
+        thematicBreak = length == 3 && text.has(end)
+            && (first == '-' || first == '*' || first == '_')
+            && text.charAt(index + 1) == first && text.charAt(index + 2) == first;
+        heading = first == '#' && lastLineTerminator < index + 1;
+        quote = first == '>' && lastLineTerminator < index + 1;
+        fence = isFence(index) && lastLineTerminator < index + 3;
+
+        orderedItem = isContent(orderedItemContent(index), lastLineTerminator);
+        bulletItem = isContent(bulletItemContent(index), lastLineTerminator);
+        if(length >= 2 && first == ' ' && text.charAt(index + 1) == ' '){
+            indentedOrderedItem = isContent(orderedItemContent(index + leadingWhitespaces), lastLineTerminator);
+            indentedBulletItem = isContent(bulletItemContent(index + leadingWhitespaces), lastLineTerminator);
+        }
+
+        startsWithPipe = first == '|';
+        endsWithPipe = length > 0 && text.charAt(end - 1) == '|';
+        tableRow = !startsWithPipe && numOfPipes > 0 && !adjacentPipes;
+        delimiterRow = tableRow && onlyDashesAndSpaces;
+        return this;
+    }
+
+    /**
+     * "```" which does not need to end the line, unlike {@link #fence}
+     */
+    boolean isFence(int index){
+        return index + 3 <= end && text.charAt(index) == '`'
+            && text.charAt(index + 1) == '`' && text.charAt(index + 2) == '`';
+    }
+
+    /**
+     * ".*" matches the content if there is no line terminator inside
+     */
+    private static boolean isContent(int contentStart, int lastLineTerminator){
+        return contentStart != -1 && lastLineTerminator < contentStart;
+    }
+
+    /**
+     * @return start of the content after "1. ", -1 if it is not an ordered item
+     */
+    private int orderedItemContent(int index){
+        int i = index;
+        while(i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9')
+            i++;
+        if(i == index || i + 2 > end || text.charAt(i) != '.' || text.charAt(i + 1) != ' ')
+            return -1;
+        return i + 2;
+    }
+
+    /**
+     * @return start of the content after "- ", -1 if it is not a bullet item
+     */
+    private int bulletItemContent(int index){
+        if(index + 2 > end)
+            return -1;
+        char c = text.charAt(index);
+        if((c != '-' && c != '*' && c != '+') || text.charAt(index + 1) != ' ')
+            return -1;
+        return index + 2;
+    }
+
+    private void clear(){
+        end = from;
+        indent = 0;
+        blank = false;
+        lastNonBlank = -1;
+        thematicBreak = heading = fence = false;
+        orderedItem = bulletItem = indentedOrderedItem = indentedBulletItem = false;
+        quote = arrowAfterQuote = false;
+        quoteDepth = 0;
+        tableRow = delimiterRow = startsWithPipe = endsWithPipe = false;
+        numOfPipes = 0;
+    }
+
+    /**
+     * Same as "\s" in regex
+     */
+    private static boolean isWhitespace(char c){
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
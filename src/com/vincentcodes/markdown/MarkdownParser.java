@@ -1,6 +1,15 @@
 package com.vincentcodes.markdown;
 
-import com.vincentcodes.markdown.inline.TextGroup;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import com.vincentcodes.markdown.ast.Document;
 import com.vincentcodes.markdown.inline.TextNode;
 import com.vincentcodes.markdown.renderer.Renderer;
 
@@ -11,26 +20,62 @@ import com.vincentcodes.markdown.renderer.Renderer;
  * of markdown files, there could be some missing 
  * functions.
  * <p>
- * If anyone is looking for improving this parser, the 
- * two important functions are {@link #parse(String)} and
- * {@link #parseText()}.
- * 
+ * The parser only holds the configuration, everything used during
+ * parsing lives in a {@link ParseContext} which is created for each
+ * call. Once configured, one parser can be shared by many threads
+ * as long as each call gets its own renderer, see
+ * {@link #parse(String, Renderer)}. The methods for testing
+ * ({@link #setText(String)}, {@link #parseText()}) are not thread-safe.
+ * <p>
+ * Limits can be set (eg. {@link #setMaxWork(long)}), so that one bad
+ * document cannot keep a thread busy. A parse which goes over one of
+ * them, or whose thread is interrupted, throws a {@link ParseLimitException}
+ * unless {@link #setPlainTextFallback(boolean)} is used.
+ * <p>
+ * Parses (except {@link #parseIncremental(String)} and {@link #reparse(ParseResult, int, int, String)})
+ * are recorded by JDK Flight Recorder as events of the "JMarkdown" 
+ * category: the whole parse, each block and {@link Renderer#done()}. 
+ * They cost nothing unless a recording enables them.
+ * <p>
+ * If anyone is looking for improving this parser, the
+ * two important functions are {@link ParseContext#parseBlocks()} and
+ * {@link ParseContext#parseText()}.
+ *
  * @author Vincent Ko
  * @see https://www.markdownguide.org/cheat-sheet/
  * @see https://spec.commonmark.org/
  */
 public class MarkdownParser{
-    private Renderer renderer;
-    private String text;
-    private int currentIndex = 0;
+    private final Renderer renderer;
+    private volatile int windowSize = MarkdownSource.DEFAULT_WINDOW_SIZE;
+    private volatile int chunkSize = 1 << 18;
+    private volatile int maxInputSize = Integer.MAX_VALUE;
+    private volatile int maxNestingDepth = Integer.MAX_VALUE;
+    private volatile long maxWork = Long.MAX_VALUE;
+    private volatile long timeLimit = 0; // in ns, 0 if none
+    private volatile boolean plainTextFallback;
+    private volatile ParseListener listener;
+
+    private ParseContext textContext; // for testing only
 
+    /**
+     * The renderer is used by {@link #parse(String)}. Use
+     * {@link #MarkdownParser()} if the parser is shared.
+     */
     public MarkdownParser(Renderer renderer){
         this.renderer = renderer;
     }
 
+    /**
+     * A parser without its own renderer, the renderer is given
+     * to each call instead (eg. {@link #parse(String, Renderer)})
+     */
+    public MarkdownParser(){
+        this(null);
+    }
+
     public void reset(){
-        text = "";
-        currentIndex = 0;
+        textContext = null;
     }
 
     /**
@@ -38,607 +83,280 @@ public class MarkdownParser{
      * @see #parseText()
      */
     public void setText(String text){
-        this.text = text;
+        textContext = new ParseContext(null, new MarkdownSource(text), 0);
     }
 
-    public Renderer getRenderer(){
-        return renderer;
+    /**
+     * Number of chars kept in memory when parsing from a
+     * {@link Reader}. The window grows if a single block
+     * (eg. a huge code block) does not fit into it.
+     * @see #parse(Reader)
+     */
+    public void setWindowSize(int windowSize){
+        if(windowSize <= 0)
+            throw new IllegalArgumentException("Window size must be positive");
+        this.windowSize = windowSize;
     }
 
-    // Tokenizing stuff (Put inside parser for easier integration) //
-
     /**
-     * Includes the current char
-     * @return null if eof is reached
+     * Rough number of chars parsed by one thread in
+     * {@link #parseParallel(String, Renderer, ForkJoinPool)}.
+     * Texts shorter than twice of it are parsed by one thread.
      */
-    private String getUntilLineEnd(){
-        if(currentIndex+1 >= text.length()) 
-            return null;
-        int startingIndex = currentIndex;
-        while(text.charAt(currentIndex++) != '\n'){
-            if(currentIndex >= text.length()){
-                currentIndex++; // add 1 to offset "currentIndex - 1" because eof has no '\n'
-                break;
-            }
-        }
-        return text.substring(startingIndex, currentIndex - 1);
+    public void setParallelChunkSize(int chunkSize){
+        if(chunkSize <= 0)
+            throw new IllegalArgumentException("Chunk size must be positive");
+        this.chunkSize = chunkSize;
     }
 
     /**
-     * Includes the current char
-     * @return null if eof is reached
+     * Texts with more chars are rejected. A {@link Reader} is
+     * read until it goes over the limit.
      */
-    private String peekUntilLineEnd(int startOffset){
-        if(currentIndex+startOffset+1 >= text.length()) 
-            return null;
-        int cIndex = currentIndex + startOffset;
-        int startingIndex = cIndex;
-        while(text.charAt(cIndex++) != '\n'){
-            // importantly "cIndex == text.length()"
-            if(cIndex >= text.length()){
-                cIndex++;
-                break;
-            }
-        }
-        return text.substring(startingIndex, cIndex - 1);
+    public void setMaxInputSize(int maxInputSize){
+        if(maxInputSize <= 0)
+            throw new IllegalArgumentException("Max input size must be positive");
+        this.maxInputSize = maxInputSize;
     }
 
     /**
-     * @return 0 if eof is reached
+     * Max no. of lists inside each other in one list block,
+     * and max no. of '>' of a block quote line
      */
-    private char currentChar(){
-        if(currentIndex >= text.length())
-            return 0;
-        return text.charAt(currentIndex);
+    public void setMaxNestingDepth(int maxNestingDepth){
+        if(maxNestingDepth <= 0)
+            throw new IllegalArgumentException("Max nesting depth must be positive");
+        this.maxNestingDepth = maxNestingDepth;
     }
 
     /**
-     * Include the current index char
-     * @return null if eof will reach after n chars
+     * Max no. of steps for one document, a step is about one char
+     * looked at by the parser. Like the time limit, it is checked
+     * every few thousand steps.
      */
-    private String peekNChar(int n){
-        if(n <= 0) return null;
-        if(currentIndex + n > text.length())
-            return null;
-        return text.substring(currentIndex, currentIndex + n);
+    public void setMaxWork(long maxWork){
+        if(maxWork <= 0)
+            throw new IllegalArgumentException("Max work must be positive");
+        this.maxWork = maxWork;
     }
 
     /**
-     * @return 0 if eof is reached
+     * Max time for one document, counted from the start of the call
+     * @param timeLimit null if there is no limit
      */
-    private char peekNextChar(){
-        if(currentIndex + 1 >= text.length())
-            return 0;
-        return text.charAt(currentIndex + 1);
+    public void setTimeLimit(Duration timeLimit){
+        if(timeLimit != null && (timeLimit.isNegative() || timeLimit.isZero()))
+            throw new IllegalArgumentException("Time limit must be positive");
+        this.timeLimit = timeLimit == null? 0 : timeLimit.toNanos();
     }
 
-    private char peekPreviousChar(){
-        if(currentIndex - 1 < 0)
-            return 0;
-        return text.charAt(currentIndex - 1);
+    /**
+     * If true, a block which goes over the nesting depth, the work or
+     * the time limit is not rendered. The renderer gets it and the rest
+     * of the text as paragraphs of plain text instead of an exception.
+     * The input size and interruption still throw.
+     * <p>
+     * Only {@link #parse(String, Renderer)}, {@link #parse(Reader, Renderer)},
+     * {@link #parseParallel(String, Renderer, ForkJoinPool)} and 
+     * {@link #parseDocument(String)} fall back, the others keep their 
+     * output and always throw.
+     */
+    public void setPlainTextFallback(boolean plainTextFallback){
+        this.plainTextFallback = plainTextFallback;
     }
 
-    private void next(){
-        currentIndex++;
+    /**
+     * Report the blocks and the inline work of each parse to {@code listener}
+     * (eg. a {@link ParseMetrics}). Only {@link #parse(String, Renderer)}, 
+     * {@link #parse(Reader, Renderer)}, {@link #parseParallel(String, Renderer, ForkJoinPool)}
+     * and {@link #parseDocument(String)} report.
+     * @param listener null to measure nothing
+     */
+    public void setParseListener(ParseListener listener){
+        this.listener = listener;
     }
 
-    private void skipSpaces(){
-        while(currentIndex < text.length() && 
-        (currentChar() == ' ' || currentChar() == '\t')){
-            next();
-        }
+    public Renderer getRenderer(){
+        return renderer;
     }
 
-    private boolean isSpace(int index){
-        return text.charAt(index) == ' ' || text.charAt(index) == '\t' || text.charAt(index) == '\n';
-    }
+    // Parsing starts here //
 
     /**
-     * Exclusive, pointer goes after c
+     * @see #parse(String, int)
      */
-    private String readUntilChar(char c){
-        StringBuilder builder = new StringBuilder();
-        while(currentIndex < text.length() && currentChar() != c){
-            builder.append(currentChar());
-            next();
-        }
-        return builder.toString();
+    public void parse(String text){
+        parse(text, 0);
     }
-
     /**
-     * Exclusive, pointer goes after str
+     * The renderer will take any events invoked from this
+     * function during the parsing process.
+     * @param text markdown text
+     * @param startOffset based on 0
      */
-    // private String readUntilString(String str){
-    //     StringBuilder builder = new StringBuilder();
-    //     int matchingChars = 0;
-    //     while(currentIndex < text.length() && matchingChars < str.length()){
-    //         if(currentChar() == str.charAt(matchingChars++));
-    //         else matchingChars = 0;
-    //         builder.append(currentChar());
-    //         next();
-    //     }
-    //     return builder.substring(0, builder.length()-str.length());
-    // }
-
+    public void parse(String text, int startOffset){
+        parse(text, startOffset, requireRenderer());
+    }
     /**
-     * As the name says
-     * @return -1 if not found
+     * Same as {@link #parse(String)} but the events go to
+     * {@code renderer}. Can be called by many threads at once.
      */
-    private int findStrOnSameLine(String c, int startingIndex){
-        if(startingIndex >= text.length() || text.charAt(startingIndex) == '\n') return -1;
-
-        int newlineIndex = text.indexOf('\n', startingIndex);
-        int matchingCharIndex = text.indexOf(c, startingIndex);
-        if(newlineIndex == -1) newlineIndex = text.length();
-        if(matchingCharIndex > newlineIndex)
-            return -1;
-        return matchingCharIndex;
+    public void parse(String text, Renderer renderer){
+        parse(text, 0, renderer);
+    }
+    public void parse(String text, int startOffset, Renderer renderer){
+        checkInputSize(text);
+        newContext(renderer, new MarkdownSource(text), startOffset).parseBlocks();
     }
     /**
-     * As the name says
-     * @return -1 if not found
+     * Same as {@link #parse(String, Renderer)}, but the blocks which
+     * are found in {@code cache} are not parsed or rendered again.
+     * The cache is updated with the other blocks.
      */
-    private int findCharOnSameLine(char c, int startingIndex){
-        if(startingIndex >= text.length() || text.charAt(startingIndex) == '\n') return -1;
-
-        int newlineIndex = text.indexOf('\n', startingIndex);
-        int matchingCharIndex = text.indexOf(c, startingIndex + 1);
-        if(matchingCharIndex == -1) return -1;
-        if(newlineIndex == -1) newlineIndex = text.length();
-        if(matchingCharIndex > newlineIndex)
-            return -1;
-        return matchingCharIndex;
+    public void parse(String text, Renderer renderer, BlockRenderCache cache){
+        checkInputSize(text);
+        cache.render(new MarkdownSource(text), renderer, newBudget().failFast());
     }
     /**
-     * Can reach another char to form a pair
-     * '\n' acts as a barrier. And the char is not inside inline code
+     * Parse markdown text from a file which is encoded in UTF-8
+     * @see #parse(Reader)
      */
-    private boolean canReachChar(char c, boolean ignoreCharAfterSpace){
-        int codeInlineStartingPos = findCharOnSameLine('`', currentIndex + 1);
-        int codeInlineEndingingPos = findCharOnSameLine('`', codeInlineStartingPos + 1);
-        int pairPos = findCharOnSameLine(c, currentIndex + 1);
-
-        boolean leftIsSpace = (pairPos - 1 >= 0 && isSpace(pairPos-1)) || pairPos - 1 < 0;
-        boolean insideInlineCode = codeInlineStartingPos < pairPos && pairPos < codeInlineEndingingPos;
-        while(ignoreCharAfterSpace && pairPos != -1 && leftIsSpace && !insideInlineCode){
-            pairPos = findCharOnSameLine(c, pairPos + 1);
-            leftIsSpace = (pairPos - 1 >= 0 && isSpace(pairPos-1)) || pairPos - 1 < 0;
-            insideInlineCode = codeInlineStartingPos < pairPos && pairPos < codeInlineEndingingPos;
+    public void parse(Path file) throws IOException{
+        parse(file, requireRenderer());
+    }
+    public void parse(Path file, Renderer renderer) throws IOException{
+        try(Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)){
+            ParseContext context = newContext(renderer, newSource(reader), 0);
+            context.setFile(file.toString());
+            context.parseBlocks();
+        }catch(UncheckedIOException e){
+            throw e.getCause();
         }
-        
-        // eol also counts as space
-        boolean rightIsSpace = (pairPos + 1 < text.length() && isSpace(pairPos+1)) || pairPos + 1 >= text.length();
-        boolean isSurroundedBySpaces = leftIsSpace && rightIsSpace;
-        
-        if(codeInlineStartingPos != -1)
-            return pairPos != -1 && !insideInlineCode && !isSurroundedBySpaces;
-        return pairPos != -1 && !isSurroundedBySpaces;
     }
     /**
-     * Can reach another String to form a pair
-     * '\n' acts as a barrier. And the char is not inside inline code
+     * Parse markdown text without loading the whole document
+     * into memory. Only a window of chars (see {@link #setWindowSize(int)})
+     * plus the block being parsed are kept. The renderer gets
+     * exactly the same events as {@link #parse(String)}.
+     * <p>
+     * The reader is not closed by this method.
      */
-    private boolean canReachStr(String c, boolean ignoreCharAfterSpace){
-        int codeInlineStartingPos = findCharOnSameLine('`', currentIndex + 1);
-        int codeInlineEndingingPos = findCharOnSameLine('`', codeInlineStartingPos + 1);
-        int pairPos = findStrOnSameLine(c, currentIndex + 1);
-
-        boolean leftIsSpace = (pairPos - 1 >= 0 && isSpace(pairPos-1)) || pairPos - 1 < 0;
-        boolean insideInlineCode = codeInlineStartingPos < pairPos && pairPos < codeInlineEndingingPos;
-        while(ignoreCharAfterSpace && pairPos != -1 && leftIsSpace && !insideInlineCode){
-            pairPos = findStrOnSameLine(c, pairPos + 1);
-            leftIsSpace = (pairPos - 1 >= 0 && isSpace(pairPos-1)) || pairPos - 1 < 0;
-            insideInlineCode = codeInlineStartingPos < pairPos && pairPos < codeInlineEndingingPos;
+    public void parse(Reader reader) throws IOException{
+        parse(reader, requireRenderer());
+    }
+    public void parse(Reader reader, Renderer renderer) throws IOException{
+        try{
+            newContext(renderer, newSource(reader), 0).parseBlocks();
+        }catch(UncheckedIOException e){
+            throw e.getCause();
         }
-        
-        // eol also counts as space
-        boolean rightIsSpace = (pairPos + 1 < text.length() && isSpace(pairPos+1)) || pairPos + 1 >= text.length();
-        boolean isSurroundedBySpaces = leftIsSpace && rightIsSpace;
-        
-        if(codeInlineStartingPos != -1)
-            return pairPos != -1 && !insideInlineCode && !isSurroundedBySpaces;
-        return pairPos != -1 && !isSurroundedBySpaces;
-    }
-    private int numOfCharInString(String str, char c){
-        int counter = 0;
-        for(int i = 0; i < str.length(); i++){
-            if(str.charAt(i) == c)
-                counter++;
-        }
-        return counter;
-    }
-    private String repeatChar(String c, int n){
-        return new String(new char[n]).replaceAll("\0", c);
     }
 
-    // Parsing starts here //
-
     /**
-     * @see #parse(String, int)
+     * @see #parseParallel(String, Renderer, ForkJoinPool)
      */
-    public void parse(String text){
-        parse(text, 0);
+    public void parseParallel(String text, Renderer renderer){
+        parseParallel(text, renderer, ForkJoinPool.commonPool());
     }
     /**
-     * The renderer will take any events invoked from this
-     * function during the parsing process.
-     * @param text markdown text
-     * @param startOffset based on 0
+     * Same as {@link #parse(String, Renderer)} but the text is cut
+     * into chunks (see {@link #setParallelChunkSize(int)}) and
+     * parsed by the threads of {@code pool}. The renderer gets 
+     * exactly the same calls as the normal parse, all of them 
+     * on the calling thread.
      */
-    public void parse(String text, int startOffset){
-        reset();
-        setText(text);
-        currentIndex = startOffset;
-        
-        renderer.body();
-        for(; currentChar() != 0; ){
-            if(parseHrLine()) continue;
-            if(parseHeading()) continue;
-            if(parseQuoteBlock()) continue;
-            if(parseOrderedList()) continue;
-            if(parseUnorderedList()) continue;
-            if(parseTable()) continue;
-            if(parseCodeBlock()) continue;
-
-            renderer.p(parseText());
-            next();
-        }
-        renderer.done();
-    }
-    private boolean parseHrLine(){
-        String peek4Char = peekNChar(4);
-        if(peek4Char == null) 
-            return false;
-        if((currentChar() == '-' && peekNChar(4).equals("---\n"))
-        || (currentChar() == '*' && peekNChar(4).equals("***\n"))
-        || (currentChar() == '_' && peekNChar(4).equals("___\n"))){
-            renderer.hr();
-            next();next();next();next();
-            return true;
-        }
-        return false;
-    }
-    private boolean parseHeading(){
-        if(currentChar() == '#'){
-            int numOfHash = 1;
-            while(peekNextChar() == '#'){
-                numOfHash++;
-                next();
-            }
-            next();
-            skipSpaces();
-            switch(numOfHash){
-                case 1: renderer.h1(parseText(true)); break;
-                case 2: renderer.h2(parseText(true)); break;
-                case 3: renderer.h3(parseText(true)); break;
-                case 4: renderer.h4(parseText(true)); break;
-                case 5: renderer.h5(parseText(true)); break;
-                case 6: renderer.h6(parseText(true)); break;
-                default: renderer.append(repeatChar("#", numOfHash)); break;
-            }
-            next();
-            if(peekUntilLineEnd(0) != null && peekUntilLineEnd(0).equals("")){
-                getUntilLineEnd();
-            }
-            return true;
-        }
-        return false;
-    }
-    private boolean parseQuoteBlock(){
-        if(currentChar() == '>'){
-            renderer.startBlockQuote();
-            while(currentChar() == '>'){
-                int numOfArrow = 1;
-                while(peekNextChar() == '>'){
-                    numOfArrow++;
-                    next();
-                }
-                String arrowString = repeatChar(">", numOfArrow);
-                next(); // skip '>'
-                skipSpaces();
-
-                StringBuilder lines = new StringBuilder();
-                String line;
-                // combine same level block quotes into one line
-                while((line = peekUntilLineEnd(0)) != null){
-                    if(line.matches("^" + arrowString + "([^>]*)"))
-                        line = line.replace(arrowString, "");
-                    if(line.startsWith(">") || line.trim().isEmpty()){
-                        break;
-                    }
-                    lines.append(line).append('\n');
-                    getUntilLineEnd(); // completed this line
-                }
-                lines.deleteCharAt(lines.length()-1); // delete '\n'
-                // provide specific lines to be parsed
-                MarkdownParser innerParser = new MarkdownParser(null);
-                innerParser.setText(lines.toString());
-                renderer.blockquote(innerParser.parseText(), numOfArrow);
-            }
-            renderer.endBlockQuote();
-            next(); // skip '\n'
-            return true;
-        }
-        return false;
+    public void parseParallel(String text, Renderer renderer, ForkJoinPool pool){
+        checkInputSize(text);
+        ParallelParser.parse(new MarkdownSource(text), renderer, pool, chunkSize, newBudget(), listener);
     }
 
-    // ----------------- Start of List Parsing ----------------- //
-    private boolean parseOrderedList(){
-        if(incomingOlItem()){
-            MarkdownParser inlineParser = new MarkdownParser(null);
-            renderer.ol();
-            boolean indentedOl = false;
-            int previousLeadingSpaces = 0;
-            while(incomingOlItem() || incomingIndentedOlItem() || incomingIndentedUlItem()){
-                // create new list / end a list if indentation is changed
-                /**
-                 * This is fine:
-                 * (ol)
-                 * 1. asd
-                 *     - asd  (ul)
-                 *     - asd  (ul) same level do nothing
-                 *   2. feqwe (endul) 
-                 * (endol)
-                 */
-                int cLineLeadingSpaces = 0;
-                if((cLineLeadingSpaces = findNoOfLeadingSpaces(peekUntilLineEnd(0))) > previousLeadingSpaces){
-                    previousLeadingSpaces = cLineLeadingSpaces;
-                    if(incomingIndentedOlItem()){
-                        renderer.ol();
-                        indentedOl = true;
-                    }else if(incomingIndentedUlItem()){
-                       renderer.ul();
-                       indentedOl = false;
-                    }
-                }else if(cLineLeadingSpaces < previousLeadingSpaces){
-                    previousLeadingSpaces = cLineLeadingSpaces;
-                    if(previousLeadingSpaces < 0){
-                        previousLeadingSpaces = 0;
-                    }
-                    if(indentedOl){
-                        renderer.endol();
-                    }else{
-                       renderer.endul();
-                    }
-                }
-                parseListItem(inlineParser);
-            }
-            // close the opened ones because of this pattern
-            /**
-             * 1. asdasd
-             *    - something
-             */
-            if(previousLeadingSpaces > 0){
-                if(indentedOl){
-                    renderer.endol();
-                }else{
-                   renderer.endul();
-                }
-            }
-            renderer.endol();
-            return true;
-        }
-        return false;
-    }
-    private boolean parseUnorderedList(){
-        if(incomingUlItem()){
-            MarkdownParser inlineParser = new MarkdownParser(null);
-            renderer.ul();
-            boolean indentedOl = false;
-            int previousLeadingSpaces = 0;
-            while(incomingUlItem() || incomingIndentedOlItem() || incomingIndentedUlItem()){
-                // create new list / end a list if indentation is changed
-                // see #parseOrderedList()
-                int cLineLeadingSpaces = 0;
-                if((cLineLeadingSpaces = findNoOfLeadingSpaces(peekUntilLineEnd(0))) > previousLeadingSpaces){
-                    previousLeadingSpaces = cLineLeadingSpaces;
-                    if(incomingIndentedOlItem()){
-                        renderer.ol();
-                        indentedOl = true;
-                    }else if(incomingIndentedUlItem()){
-                       renderer.ul();
-                       indentedOl = false;
-                    }
-                }else if(cLineLeadingSpaces < previousLeadingSpaces){
-                    previousLeadingSpaces = cLineLeadingSpaces;
-                    if(previousLeadingSpaces < 0){
-                        previousLeadingSpaces = 0;
-                    }
-                    if(indentedOl){
-                        renderer.endol();
-                    }else{
-                       renderer.endul();
-                    }
-                }
-                parseListItem(inlineParser);
-            }
-            // close the opened ones
-            if(previousLeadingSpaces > 0){
-                if(indentedOl){
-                    renderer.endol();
-                }else{
-                   renderer.endul();
-                }
-            }
-            renderer.endul();
-            return true;
-        }
-        return false;
+    /**
+     * Parse the text into a tree instead of giving the events to
+     * a renderer. The tree can be rendered by many renderers 
+     * (see {@link Document#replay(Renderer)}) or be cached.
+     */
+    public Document parseDocument(String text){
+        checkInputSize(text);
+        RecordingRenderer recorder = new RecordingRenderer();
+        newContext(recorder, new MarkdownSource(text), 0).parseBlocks();
+        return DocumentBuilder.build(recorder, recorder.size() - 1);
     }
     /**
-     * For double line feed to terminate a list item, the 
-     * parser expects minimal indentation on the next line 
-     * (2 spaces to be exact).
-     * <p>
-     * Will invoke {@code renderer.li()}. Hence, it's void
+     * Same as {@link #parseDocument(String)} but the text is
+     * read as in {@link #parse(Reader)}
      */
-    private void parseListItem(MarkdownParser inlineParser){
-        inlineParser.reset();
-        String line = getUntilLineEnd();
-        if(line == null)
-            return;
-
-        StringBuilder builder = new StringBuilder();
-        int offsetLeadingSpaces = findNoOfLeadingSpaces(line);
-        boolean hasIndentation = false;
-
-        line = line.substring(line.indexOf(' ', offsetLeadingSpaces)+1); // stip leading num / bullet
-        builder.append(line).append('\n');
-        while(true){
-            line = peekUntilLineEnd(0);
-            if(line == null){
-                break;
-            }else{
-                // expects 2 spaces or more
-                if(!hasIndentation && findNoOfLeadingSpaces(line) > 1)
-                    hasIndentation = true;
-                if(!hasIndentation && line.trim().isEmpty()){
-                    break;
-                }
-                if(matchesPatternsForNewParagraph(line)
-                || incomingIndentedOlItem() || incomingIndentedUlItem()){
-                    break;
-                }
-            }
-            builder.append(line).append('\n');
-            getUntilLineEnd(); // skip the current line
-        }
-        if(builder.charAt(builder.length()-1) == '\n')
-            builder.deleteCharAt(builder.length()-1); // delete '\n'
-        inlineParser.setText(builder.toString());
-        renderer.li(inlineParser.parseText('\0', false, true));
-    }
-    private int findNoOfLeadingSpaces(String str){
-        int noOfSpaces = 1;
-        while(noOfSpaces < str.length() && str.substring(0, noOfSpaces).trim().equals("")){
-            noOfSpaces++;
+    public Document parseDocument(Reader reader) throws IOException{
+        RecordingRenderer recorder = new RecordingRenderer();
+        try{
+            newContext(recorder, newSource(reader), 0).parseBlocks();
+        }catch(UncheckedIOException e){
+            throw e.getCause();
         }
-        return noOfSpaces-1;
+        return DocumentBuilder.build(recorder, recorder.size() - 1);
     }
-    private boolean incomingOlItem(){
-        return currentChar() >= '0' && currentChar() <= '9'
-        && peekUntilLineEnd(0).matches("^[0-9]{1,}\\. (.*)");
-    }
-    private boolean incomingIndentedOlItem(){
-        // use currentChar() == ' ' to ensure performance, kind of
-        return currentChar() == ' ' && peekNextChar() == ' '
-        && peekUntilLineEnd(0).matches("^(\\s{2,})[0-9]{1,}\\. (.*)");
-    }
-    private boolean incomingUlItem(){
-        return (currentChar() == '-'
-        || currentChar() == '*'
-        || currentChar() == '+') && peekUntilLineEnd(0).matches("^[-\\*+] (.*)");
+
+    /**
+     * Parse the text and keep the events, so that the text can
+     * be edited later with {@link #reparse(ParseResult, int, int, String)}.
+     * Use {@link ParseResult#replay(Renderer)} to render it.
+     */
+    public ParseResult parseIncremental(String text){
+        checkInputSize(text);
+        return IncrementalParser.parse(text, newBudget().failFast());
     }
-    private boolean incomingIndentedUlItem(){
-        return currentChar() == ' ' && peekNextChar() == ' '
-        && peekUntilLineEnd(0).matches("^(\\s{2,})[-\\*+] (.*)");
+    /**
+     * Apply an edit to the text of {@code previous} and parse only the
+     * blocks which may be affected by it. The other blocks keep their
+     * TextNodes. The result tells which blocks are changed (see
+     * {@link ParseResult#getFirstChangedBlock()}), replaying it gives
+     * the same events as parsing the edited text from scratch.
+     * @param offset where the edit starts in the text of {@code previous}
+     * @param removedLength no. of chars removed from {@code offset}
+     * @param insertedText inserted at {@code offset}
+     */
+    public ParseResult reparse(ParseResult previous, int offset, int removedLength, String insertedText){
+        if(previous.getText().length() - removedLength + insertedText.length() > maxInputSize)
+            throw tooLong();
+        return IncrementalParser.reparse(previous, offset, removedLength, insertedText, newBudget().failFast());
     }
-    // ----------------- End of List Parsing ----------------- //
 
-    private boolean parseTable(){
-        String currentLine = peekUntilLineEnd(0);
-        if(currentLine == null) 
-            return false;
-        
-        if(currentChar() == '|' || 
-        (currentLine.matches("([^\n\\|]{1,}\\|){1,}([^\n\\|]{1,})?") 
-        && peekUntilLineEnd(currentLine.length()+1).matches("([- ]{1,}\\|){1,}([- ]{1,})?"))){
-            return parseNormalTable(currentLine);
-        }
-        return false;
+    private ParseContext newContext(Renderer renderer, MarkdownSource text, int startOffset){
+        ParseContext context = new ParseContext(renderer, text, startOffset, newBudget());
+        context.setListener(listener);
+        return context;
     }
-    private boolean parseNormalTable(String currentLine){
-        boolean stripPipes = false;
 
-        // No trailing noise are allowed, ie. "|a|b|asd12346?" is not allowed
-        if(currentLine.startsWith("|") && currentLine.endsWith("|")){
-            stripPipes = true;
-        }
+    private ParseBudget newBudget(){
+        return new ParseBudget(maxNestingDepth, maxWork, timeLimit, plainTextFallback);
+    }
 
-        // Parse headings
-        TextNode[] headings = parseTableRow(currentLine, stripPipes, -1);
-        int numOfCells = headings.length;
-        renderer.table(headings);
-        getUntilLineEnd(); // skip "|-|-|-...|" or "-|-|-|-..."
+    private MarkdownSource newSource(Reader reader){
+        return new MarkdownSource(reader, windowSize, maxInputSize);
+    }
 
-        String nextLine;
-        while((nextLine = peekUntilLineEnd(0)) != null && ((nextLine.startsWith("|") && numOfCharInString(nextLine, '|')-1 >= numOfCells) 
-        || nextLine.matches("([^\n\\|]{1,}\\|){1,}([^\n\\|]{1,})?"))){
-            TextNode[] trCells = parseTableRow(nextLine, stripPipes, numOfCells);
-            renderer.tr(trCells);
-        }
-        renderer.endTable();
-        return true;
+    private void checkInputSize(String text){
+        if(text.length() > maxInputSize)
+            throw tooLong();
     }
-    /**
-     * @param noOfCells -1 if you want to compute it on the fly
-     */
-    private TextNode[] parseTableRow(String peekedLine, boolean stripPipes, int noOfCells){
-        if(stripPipes){
-            // To be a little bit more flexible
-            int startIndex = 1;
-            if(!peekedLine.startsWith("|")){
-                startIndex = 0;
-            }else 
-                next(); // skip '|' in real pointer
-            peekedLine = peekedLine.substring(startIndex, peekedLine.lastIndexOf("|")-1);
-        }
-        
-        TextNode[] cellsValue = new TextNode[noOfCells == -1? numOfCharInString(peekedLine, '|')+1 : noOfCells];
-        for(int i = 0; i < cellsValue.length; i++){
-            cellsValue[i] = parseText('|', true, false);
-            if(cellsValue[i].groups.size() > 0){
-                TextGroup textGroup = cellsValue[i].groups.get(0);
-                textGroup.value = textGroup.value.trim();
-            }
-            if(i < cellsValue.length-1){
-                next(); next(); // move forward to '|' then go pass '|' (go to next cell)
-            }
-        }
-        getUntilLineEnd(); // skip the rest of the line
-        return cellsValue;
-    }
-    private boolean parseCodeBlock(){
-        if(peekNChar(3) != null && peekNChar(3).equals("```")){
-            next(); next(); next();
-            String lang = readUntilChar('\n');
-            next(); // skip '\n'
 
-            StringBuilder codeBlock = new StringBuilder();
-            String line;
-            while((line = getUntilLineEnd()) != null && !line.equals("```")){
-                codeBlock.append(line).append("\n");
-            }
-            codeBlock.deleteCharAt(codeBlock.length()-1); // delete '\n'
-            renderer.codeblock(codeBlock.toString(), lang);
-            if(currentChar() == '\n')
-                next();
-            return true;
-        }
-        return false;
+    private ParseLimitException tooLong(){
+        return new ParseLimitException(ParseLimitException.Limit.INPUT_SIZE, "Text is longer than " + maxInputSize + " chars");
     }
 
+    private Renderer requireRenderer(){
+        if(renderer == null)
+            throw new IllegalStateException("No renderer is given to this parser");
+        return renderer;
+    }
 
     // Parse Inline Text //
-    private boolean matchesPatternsForNewParagraph(String string){
-        if(string.matches("^[0-9]{1,}\\. (.*)"))
-            return true;
-        if(string.matches("^[-\\*+] (.*)"))
-            return true;
-        if(string.matches("^#(.*)"))
-            return true;
-        if(string.matches("^>(.*)"))
-            return true;
-        if(string.matches("^```(.*)"))
-            return true;
-        return false;
-    }
 
     /**
      * Internal API.
      * <p>
-     * Not recommended to call this method. This 
+     * Not recommended to call this method. This
      * is set public for testing purposes only.
+     * @see #setText(String)
      */
     public TextNode parseText(){
         return parseText('\0', false, false);
@@ -647,276 +365,12 @@ public class MarkdownParser{
         return parseText('\0', terminateOnOneNewLine, false);
     }
     /**
-     * Not recommended to call this method. This 
+     * Not recommended to call this method. This
      * is set public for testing purposes only
      */
     public TextNode parseText(char additionalTerminator, boolean terminateOnOneNewLine, boolean allowDoubleLineFeeds){
-        TextNode node = new TextNode();
-        TextGroup inEffect = new TextGroup();
-        StringBuilder builder = new StringBuilder();
-        for(; currentIndex < text.length(); next()){
-            // Return if a newline and the next newline is empty is reached
-            if(currentChar() == '\\'){
-                switch(peekNextChar()){
-                    case '!': case '"': case '\'': case '#': case '$': case '%':
-                    case '&': case '(': case ')': case '*': case '+': case '-':
-                    case ',': case '.': case '/': case ':': case ';': case '<':
-                    case '>': case '=': case '?': case '@': case '[': case ']':
-                    case '^': case '_': case '`': case '{': case '}': case '|':
-                    case '~': case '\\':
-                        next();
-                        builder.append(currentChar());
-                        continue;
-                }
-            }
-
-            if(currentChar() == '\n'){
-                //// Specific to parse() because parse() has next() itself
-                if(terminateOnOneNewLine) 
-                    break;
-                
-                // offset 1 to skip '\n'
-                String nextLine = peekUntilLineEnd(1);
-                if(nextLine != null){
-                    // I have to use Regex here to look ahead for simplicity
-                    if(matchesPatternsForNewParagraph(nextLine))
-                        break;
-
-                    // next line is empty
-                    if(nextLine.trim().equals("")){
-                        if(!allowDoubleLineFeeds){
-                            next(); // add 1 to skip '\n' (used for parseText() exit)
-                            break;
-                        }else{
-                            /**
-                             * This is allowed:
-                             * asd asd
-                             * asd
-                             * 
-                             * asd
-                             * To become: 
-                             * asd asd asd
-                             * asd
-                             */
-                            inEffect = new TextGroup(); // reset styles
-                            builder.append("\n");
-                            continue;
-                        }
-                    }
-                }
-                // line breaks by "  " (2 space)
-                if(text.charAt(currentIndex-1) == ' ' && text.charAt(currentIndex-2) == ' '){
-                    // I could have use trim() in the end, but anyways
-                    builder.deleteCharAt(builder.length()-1).deleteCharAt(builder.length()-1);
-                    break;
-                }
-
-                inEffect = new TextGroup(); // reset styles
-                builder.append(" ");
-                continue;
-            }
-
-            // don't forget '_' and '__'
-            if(parseSingleAsterisk(node, inEffect, builder))
-                continue; // do not add char to buffer
-            if(parseDoubleAsterisk(node, inEffect, builder))
-                continue;
-            if(parseSingleUnderscore(node, inEffect, builder))
-                continue;
-            if(parseDoubleUnderscore(node, inEffect, builder))
-                continue;
-            if(parseDoubleTilde(node, inEffect, builder))
-                continue;
-            if(parseInlineCode(node, inEffect, builder))
-                continue;
-            if(parseInlineLink(node, inEffect, builder))
-                continue;
-            if(parseInlineImage(node, inEffect, builder))
-                continue;
-            
-            // Just in case pointer lands on `additionalTerminator` after some parsing the above functions
-            if(additionalTerminator != '\0' && currentChar() == additionalTerminator){
-                currentIndex--; // promised to not include the current char
-                break;
-            }
-            
-            builder.append(currentChar());
-
-            //// Specific to parse()
-            // Additional term is used: Do not next() into the terminator
-            if(additionalTerminator != '\0' && peekNextChar() == additionalTerminator){
-                break;
-            }
-        }
-        createGroupToNode(node, inEffect.copy(), builder);
-        return node;
-    }
-    /**
-     * @return successful or not
-     */
-    private boolean parseSingleAsterisk(TextNode node, TextGroup inEffect, StringBuilder builder){
-        boolean isSurroundedBySpaces = peekPreviousChar() == ' ' && peekNextChar() == ' ';
-        if(currentChar() == '*' && peekNextChar() != '*' && !isSurroundedBySpaces){
-            if((!inEffect.isEmphasis && canReachChar('*', true))){
-                createGroupToNode(node, inEffect, builder); // before setting
-                inEffect.isEmphasis = true;
-                return true;
-            }else if(inEffect.isEmphasis){
-                // turn it off
-                createGroupToNode(node, inEffect, builder);
-                inEffect.isEmphasis = false;
-                return true;
-            }
-        }
-        return false;
-    }
-    private boolean parseDoubleAsterisk(TextNode node, TextGroup inEffect, StringBuilder builder){
-        boolean isSurroundedWithSpaces = peekPreviousChar() == ' ' && (peekNChar(3) != null && peekNChar(3).charAt(2) == ' ');
-        if(currentChar() == '*' && peekNextChar() == '*' && !isSurroundedWithSpaces){
-            if(!inEffect.isStrong && canReachStr("**", true)){
-                createGroupToNode(node, inEffect, builder);
-                inEffect.isStrong = true;
-                next(); // goto 2nd '*'
-                return true;
-            }else if(inEffect.isStrong){
-                createGroupToNode(node, inEffect, builder);
-                inEffect.isStrong = false;
-                next();
-                return true;
-            }
-        }
-        return false;
-    }
-    private boolean parseSingleUnderscore(TextNode node, TextGroup inEffect, StringBuilder builder){
-        boolean isSurroundedBySpaces = peekPreviousChar() == ' ' && peekNextChar() == ' ';
-        boolean isSurroundedByAlphaNum = Character.toString(peekPreviousChar()).matches("[0-9a-zA-Z_]") && Character.toString(peekNextChar()).matches("[0-9a-zA-Z_]");
-        if(currentChar() == '_' && peekNextChar() != '_' && !(isSurroundedBySpaces || isSurroundedByAlphaNum)){
-            if(!inEffect.isEmphasis && canReachChar('_', true)){
-                createGroupToNode(node, inEffect, builder); // before setting
-                inEffect.isEmphasis = true;
-                return true;
-            }else if(inEffect.isEmphasis){
-                createGroupToNode(node, inEffect, builder);
-                inEffect.isEmphasis = false;
-                return true;
-            }
-        }
-        return false;
-    }
-    private boolean parseDoubleUnderscore(TextNode node, TextGroup inEffect, StringBuilder builder){
-        boolean isSurroundedBySpaces = peekPreviousChar() == ' ' && (peekNChar(3) != null && peekNChar(3).charAt(2) == ' ');
-        boolean isSurroundedByAlphaNum = Character.toString(peekPreviousChar()).matches("[0-9a-zA-Z]") && peekNChar(3) != null && Character.toString(peekNChar(3).charAt(2)).matches("[0-9a-zA-Z]");
-        if(currentChar() == '_' && peekNextChar() == '_' && !(isSurroundedBySpaces || isSurroundedByAlphaNum)){
-            if(!inEffect.isStrong && canReachStr("__", false)){
-                createGroupToNode(node, inEffect, builder);
-                inEffect.isStrong = true;
-                next(); // goto 2nd '_'
-                return true;
-            }else if(inEffect.isStrong){
-                createGroupToNode(node, inEffect, builder);
-                inEffect.isStrong = false;
-                next();
-                return true;
-            }
-        }
-        return false;
-    }
-    private boolean parseDoubleTilde(TextNode node, TextGroup inEffect, StringBuilder builder){
-        boolean isSurroundedBySpaces = peekPreviousChar() == ' ' && (peekNChar(3) != null && peekNChar(3).charAt(2) == ' ');
-        if(currentChar() == '~' && peekNextChar() == '~' && !isSurroundedBySpaces){
-            if(!inEffect.isStrikeThrough && canReachStr("~~", true)){
-                createGroupToNode(node, inEffect, builder);
-                inEffect.isStrikeThrough = true;
-                next(); // goto 2nd '~'
-                return true;
-            }else if(inEffect.isStrikeThrough){
-                createGroupToNode(node, inEffect, builder);
-                inEffect.isStrikeThrough = false;
-                next();
-                return true;
-            }
-        }
-        return false;
-    }
-    private boolean parseInlineCode(TextNode node, TextGroup inEffect, StringBuilder builder){
-        if(currentChar() == '`'){
-            if(findStrOnSameLine("`", currentIndex + 1) != -1){
-                createGroupToNode(node, inEffect, builder);
-                inEffect = new TextGroup(); // reset styles
-                inEffect.isCode = true;
-                StringBuilder codeInline = new StringBuilder();
-                while(peekNextChar() != '`'){
-                    next();
-                    codeInline.append(currentChar());
-                }
-                next();
-                if(codeInline.length() != 0){
-                    createGroupToNode(node, inEffect, codeInline);
-                }else{
-                    builder.append("``");
-                }
-                inEffect.isCode = false;
-                return true;
-            }
-        }
-        return false;
-    }
-    private boolean parseInlineLink(TextNode node, TextGroup inEffect, StringBuilder builder){
-        return parseInlineLink(node, inEffect, builder, false);
-    }
-    private boolean parseInlineLink(TextNode node, TextGroup inEffect, StringBuilder builder, boolean toImage){
-        // crude way of searching for [...](...)
-        // I could have used Regex for that
-        if(currentChar() == '[' || currentChar() == ']'
-        || currentChar() == '(' || currentChar() == ')'){
-            if(currentChar() == '[' && !inEffect.isLink){
-                createGroupToNode(node, inEffect, builder);
-                if(toImage)
-                    inEffect.isImage = true;
-                else 
-                    inEffect.isLink = true;
-                return true;
-            }else if(currentChar() == ']' && (inEffect.isLink || inEffect.isImage)){
-                // turn it off if '*' is alone without a pair
-                if(peekNextChar() == '('){
-                    next(); // now on '('
-                    if(findStrOnSameLine(")", currentIndex + 1) != -1){
-                        TextGroup newGroup = inEffect.copy();
-                        newGroup.desc = builder.toString().trim();
-                        next(); // skip '('
-                        newGroup.url = readUntilChar(')');
-                        node.add(newGroup);
-                        builder.setLength(0);
-                    }
-                }
-                inEffect.isLink = false;
-                inEffect.isImage = false;
-                return true;
-            }
-        }
-        return false;
-    }
-    private boolean parseInlineImage(TextNode node, TextGroup inEffect, StringBuilder builder){
-        // crude way of searching for [...](...)
-        // I could have used Regex for that
-        if(currentChar() == '!' && peekNextChar() == '['){
-            next();
-            return parseInlineLink(node, inEffect, builder, true);
-        }
-        return false;
-    }
-
-    /**
-     * Add new group to node and resets stringbuilder 
-     */
-    private void createGroupToNode(TextNode node, TextGroup stylesInEffect, StringBuilder builder){
-        if(builder.toString().trim().equals("")) return;
-        
-        TextGroup newGroup = stylesInEffect.copy();
-        newGroup.value = builder.toString();
-        node.add(newGroup);
-
-        builder.setLength(0); // reset stringbuilder
+        if(textContext == null)
+            setText("");
+        return textContext.parseText(additionalTerminator, terminateOnOneNewLine, allowDoubleLineFeeds);
     }
-    
-}
\ No newline at end of file
+}
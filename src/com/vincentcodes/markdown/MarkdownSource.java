@@ -0,0 +1,313 @@
+package com.vincentcodes.markdown;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import com.vincentcodes.markdown.inline.TextSpan;
+
+/**
+ * <p>
+ * The markdown text seen by {@link MarkdownParser}. Indexes are
+ * absolute (ie. counted from the start of the document) no matter
+ * how much of the document is currently held in memory.
+ * <p>
+ * When a {@link Reader} is used, only a window of characters is
+ * kept. Characters are read in lazily once the parser asks for an
+ * index beyond the window and characters before {@link #release(int)}
+ * are dropped the next time the window slides. Hence, the memory used
+ * is bounded by the window size plus the block being parsed.
+ * <p>
+ * A window which is handed out is never modified afterwards, sliding
+ * always copies the remaining characters into a new array.
+ * <p>
+ * The start of every line is recorded once when the characters are
+ * read in, so that finding the end of a line is a lookup instead of
+ * a scan for '\n'.
+ * <p>
+ * A {@link #slice(int, int)} of the source is used to parse the
+ * content of a list item or a block quote again without copying it.
+ */
+class MarkdownSource {
+    static final int DEFAULT_WINDOW_SIZE = 8192;
+
+    private final Reader reader;
+    private final int windowSize;
+    private final int maxLength; // a Reader with more chars is rejected
+    private final MarkdownSource parent; // non-null for a slice
+    private final int lower; // a slice only covers [lower, upper)
+    private final int upper;
+
+    private char[] buf;
+    private int base = 0;   // absolute index of buf[0]
+    private int filled = 0; // no. of valid chars inside buf
+    private int releasedUntil = 0;
+    private boolean eof;
+
+    // absolute index of the char after each '\n' inside the window, ascending
+    private int[] lineStarts = new int[64];
+    private int lineCount = 0;
+    private int lineCursor = 0; // last lookup, the parser mostly moves forward
+
+    /**
+     * The whole text is kept in memory
+     */
+    MarkdownSource(String text){
+        this.reader = null;
+        this.windowSize = text.length();
+        this.maxLength = Integer.MAX_VALUE;
+        this.parent = null;
+        this.lower = 0;
+        this.upper = Integer.MAX_VALUE;
+        this.buf = text.toCharArray();
+        this.filled = buf.length;
+        this.eof = true;
+        indexLines(0, filled);
+    }
+
+    MarkdownSource(Reader reader, int windowSize){
+        this(reader, windowSize, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxLength a {@link ParseLimitException} is thrown once
+     * more chars are read from {@code reader}
+     */
+    MarkdownSource(Reader reader, int windowSize, int maxLength){
+        if(windowSize <= 0)
+            throw new IllegalArgumentException("Window size must be positive");
+        this.reader = reader;
+        this.windowSize = windowSize;
+        this.maxLength = maxLength;
+        this.parent = null;
+        this.lower = 0;
+        this.upper = Integer.MAX_VALUE;
+        this.buf = new char[windowSize];
+        this.eof = false;
+    }
+
+    private MarkdownSource(MarkdownSource parent, int start, int end){
+        this.reader = null;
+        this.windowSize = parent.windowSize;
+        this.maxLength = parent.maxLength;
+        this.parent = parent;
+        this.lower = start;
+        this.upper = end;
+        this.buf = parent.buf;
+        this.base = parent.base;
+        this.filled = parent.filled;
+        this.eof = true;
+    }
+
+    /**
+     * Another source of the same text which can be used by 
+     * another thread. Nothing is copied, only a text which is
+     * fully in memory (ie. not read from a Reader) can be shared.
+     */
+    MarkdownSource share(){
+        if(reader != null || parent != null)
+            throw new IllegalStateException("Only a text in memory can be shared");
+        return new MarkdownSource(buf, lineStarts, lineCount);
+    }
+
+    private MarkdownSource(char[] buf, int[] lineStarts, int lineCount){
+        this.reader = null;
+        this.windowSize = buf.length;
+        this.maxLength = Integer.MAX_VALUE;
+        this.parent = null;
+        this.lower = 0;
+        this.upper = Integer.MAX_VALUE;
+        this.buf = buf;
+        this.filled = buf.length;
+        this.eof = true;
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * @return the array which the spans of a text in memory are on top of
+     */
+    char[] chars(){
+        if(reader != null)
+            throw new IllegalStateException("Only a text in memory has all of its chars");
+        return buf;
+    }
+
+    /**
+     * @return whether the chars are read from a {@link Reader}
+     */
+    boolean isStreamed(){
+        return reader != null;
+    }
+
+    /**
+     * Same as {@code toString().length()} for a text in memory
+     */
+    int length(){
+        return base + filled;
+    }
+
+    /**
+     * The chars in [start, end) must have been read already. 
+     * Indexes stay absolute, but chars outside of the slice do
+     * not exist, as if the slice was copied into a new String.
+     * @param end exclusive
+     */
+    MarkdownSource slice(int start, int end){
+        if(start > end || start < base || end > base + filled)
+            throw new IndexOutOfBoundsException("slice [" + start + ", " + end + ") is not inside the window");
+        return new MarkdownSource(this, start, end);
+    }
+
+    /**
+     * Reads more characters from the reader if needed
+     * @return whether the char at {@code index} exists
+     */
+    boolean has(int index){
+        if(index < lower || index >= upper)
+            return false;
+        while(index >= base + filled){
+            if(!fill()) return false;
+        }
+        return index >= base;
+    }
+
+    char charAt(int index){
+        if(index < lower || index >= upper)
+            throw new IndexOutOfBoundsException("index " + index + " is outside of [" + lower + ", " + upper + ")");
+        if(index >= base + filled && !has(index))
+            throw new IndexOutOfBoundsException("index " + index + " is beyond eof");
+        return buf[index - base];
+    }
+
+    /**
+     * @param end exclusive
+     */
+    String substring(int start, int end){
+        checkRange(start, end);
+        return new String(buf, start - base, end - start);
+    }
+
+    /**
+     * Same as {@link #substring(int, int)} but nothing is copied
+     * @param joinLines read '\n' as ' '
+     */
+    TextSpan span(int start, int end, boolean joinLines){
+        checkRange(start, end);
+        return new TextSpan(buf, start - base, end - start, joinLines);
+    }
+
+    private void checkRange(int start, int end){
+        if(start < lower || end > upper)
+            throw new IndexOutOfBoundsException("[" + start + ", " + end + ") is outside of [" + lower + ", " + upper + ")");
+        if(end > base + filled && !has(end - 1))
+            throw new IndexOutOfBoundsException("index " + end + " is beyond eof");
+    }
+
+    /**
+     * @return absolute index of the first '\n' at or after {@code index}, 
+     * or the length of the text if the line is the last one
+     */
+    int lineEnd(int index){
+        if(parent != null)
+            return Math.min(parent.lineEnd(index), upper);
+        while(true){
+            int line = findLine(index);
+            if(line < lineCount)
+                return lineStarts[line] - 1;
+            if(!fill())
+                return base + filled;
+        }
+    }
+
+    /**
+     * @return position in lineStarts of the first line start after {@code index}
+     */
+    private int findLine(int index){
+        int line = lineCursor;
+        if(line > lineCount) 
+            line = lineCount;
+        // try the cached line and the one after it before searching
+        for(int i = 0; i < 2 && line <= lineCount; i++, line++){
+            if((line == 0 || lineStarts[line-1] <= index)
+            && (line == lineCount || lineStarts[line] > index)){
+                return lineCursor = line;
+            }
+        }
+        int low = 0, high = lineCount;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(lineStarts[mid] <= index)
+                low = mid + 1;
+            else high = mid;
+        }
+        return lineCursor = low;
+    }
+
+    /**
+     * @param end exclusive, relative to buf
+     */
+    private void indexLines(int start, int end){
+        for(int i = start; i < end; i++){
+            if(buf[i] == '\n'){
+                if(lineCount == lineStarts.length)
+                    lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+                lineStarts[lineCount++] = base + i + 1;
+            }
+        }
+    }
+
+    /**
+     * Characters before {@code index} will not be used by the parser
+     * anymore. They are discarded on the next slide of the window.
+     */
+    void release(int index){
+        if(index > releasedUntil)
+            releasedUntil = index;
+    }
+
+    /**
+     * @return false if eof is reached
+     */
+    private boolean fill(){
+        if(eof) return false;
+        if(filled == buf.length)
+            slide();
+        try{
+            int read = reader.read(buf, filled, buf.length - filled);
+            if(read == -1){
+                eof = true;
+                return false;
+            }
+            indexLines(filled, filled + read);
+            filled += read;
+            if(base + filled > maxLength)
+                throw new ParseLimitException(ParseLimitException.Limit.INPUT_SIZE, "Text is longer than " + maxLength + " chars");
+            return true;
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Drop the released characters and make room for more. The window
+     * only grows when the block being parsed is larger than it.
+     */
+    private void slide(){
+        int keepFrom = Math.max(base, Math.min(releasedUntil, base + filled));
+        int keep = base + filled - keepFrom;
+        char[] newBuf = new char[Math.max(windowSize, keep * 2)];
+        System.arraycopy(buf, keepFrom - base, newBuf, 0, keep);
+        buf = newBuf;
+        base = keepFrom;
+        filled = keep;
+
+        int dropLines = 0;
+        while(dropLines < lineCount && lineStarts[dropLines] <= base)
+            dropLines++;
+        System.arraycopy(lineStarts, dropLines, lineStarts, 0, lineCount - dropLines);
+        lineCount -= dropLines;
+        lineCursor = 0;
+    }
+}
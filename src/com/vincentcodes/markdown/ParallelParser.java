@@ -0,0 +1,203 @@
+package com.vincentcodes.markdown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * <p>
+ * Parses a text with several threads. The renderer gets exactly the
+ * same calls, in the same order, as {@link ParseContext#parseBlocks()}.
+ * <p>
+ * The text is cut into chunks at lines which are likely to start
+ * a block (ie. after an empty line, not indented and outside of
+ * fenced code). Each chunk is parsed on a {@link ForkJoinPool} into
+ * a {@link RecordingRenderer}, then the events are replayed on the
+ * calling thread in document order.
+ * <p>
+ * A guess can be wrong (eg. a list item continues after an empty
+ * line), so a chunk is only trusted from the block where the previous
+ * chunk stopped. If the chunk never started a block there, it is
+ * parsed again on the calling thread.
+ * <p>
+ * The chunks do not report to the {@link ParseListener} or to JFR
+ * themselves. Their recorder keeps the reports next to the events,
+ * and only the reports of the blocks which are used are passed on
+ * by the calling thread, so they are the same as in the normal parse.
+ * <p>
+ * The chunks count their steps apart from the budget (see 
+ * {@link ParseBudget#forChunk()}). Only the steps of the blocks which
+ * are used are charged, so the budget has the same steps as in
+ * {@link ParseContext#parseBlocks()} at the start of each chunk. A
+ * chunk is used if all of its steps are within the max work, then
+ * none of the checks of the normal parse inside it could fail. Else
+ * it is parsed again on the calling thread, going on from the same
+ * count of steps (see {@link ParseContext#setSteps(long)}). That parse
+ * checks the budget at the same points as the normal parse, so it
+ * throws, or falls back to plain text, at the same block.
+ * A chunk which hits a limit on the pool is parsed again too.
+ * <p>
+ * If the calling thread throws (eg. a limit is hit or the renderer
+ * fails), the chunks which are left are cancelled and the ones being
+ * parsed stop at their next check (see {@link ParseBudget#abort()}).
+ */
+final class ParallelParser {
+    private ParallelParser(){}
+
+    /**
+     * @param budget the chunks on the pool always throw when it is used
+     * up, the calling thread may fall back to plain text while parsing
+     * a chunk again
+     * @param listener can be null
+     */
+    static void parse(MarkdownSource text, Renderer renderer, ForkJoinPool pool, int chunkSize, ParseBudget budget, ParseListener listener){
+        int[] starts = findChunks(text, chunkSize);
+        if(starts.length == 1){
+            ParseContext context = new ParseContext(renderer, text, 0, budget);
+            context.setListener(listener);
+            context.parseBlocks();
+            return;
+        }
+
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        long documentId = ParseEvent.nextDocumentId();
+        boolean reports = listener != null || new BlockParseEvent().isEnabled();
+        List<ChunkTask> tasks = new ArrayList<>(starts.length);
+        int position = 0;
+        try{
+            for(int i = 0; i < starts.length; i++){
+                int limit = i + 1 < starts.length? starts[i + 1] : Integer.MAX_VALUE;
+                ChunkTask task = new ChunkTask(text.share(), starts[i], limit, budget.forChunk(), reports);
+                tasks.add(task);
+                pool.execute(task);
+            }
+
+            renderer.body();
+            long steps = 0; // of the normal parse up to position
+            for(ChunkTask task : tasks){
+                if(position >= task.limit){
+                    // the previous chunk ended after this one (eg. a huge code block)
+                    task.join();
+                    continue;
+                }
+                ChunkTask chunk = task.join();
+                int fromBlock = chunk.failed? -1 : chunk.recorder.findBlock(position);
+                long chunkSteps = fromBlock < 0? 0 : chunk.steps - chunk.recorder.blockSteps(fromBlock);
+                boolean finished;
+                if(fromBlock >= 0 && budget.tryCharge(chunkSteps)){
+                    chunk.recorder.replayBlocks(renderer, fromBlock, listener, documentId);
+                    position = chunk.end;
+                    steps += chunkSteps;
+                    finished = chunk.finished;
+                }else{
+                    ParseContext context = new ParseContext(renderer, text.share(), position, budget);
+                    context.setListener(listener);
+                    context.setDocumentId(documentId);
+                    context.setSteps(steps);
+                    context.parseBlocksUntil(chunk.limit);
+                    position = context.position();
+                    steps = context.steps();
+                    finished = context.isFinished();
+                }
+                if(finished){
+                    // eg. a '\0' ends the parse before eof
+                    break;
+                }
+            }
+            RenderDoneEvent.done(renderer, documentId);
+        }finally{
+            // the chunks which are left are not needed, eg. the calling thread
+            // has thrown. cancel() does nothing to a chunk which is done.
+            budget.abort();
+            for(ChunkTask task : tasks)
+                task.cancel(false);
+        }
+        if(event.shouldCommit()){
+            event.documentId = documentId;
+            event.mode = "parallel";
+            event.chars = position;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return start of each chunk, the first one is 0
+     */
+    static int[] findChunks(MarkdownSource text, int chunkSize){
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        int length = text.length();
+        int target = chunkSize;
+        boolean inCode = false;
+        for(int lineStart = 0; lineStart < length; ){
+            int lineEnd = text.lineEnd(lineStart);
+            if(inCode){
+                inCode = !(lineEnd - lineStart == 3 && isFence(text, lineStart));
+            }else if(lineEnd - lineStart >= 3 && isFence(text, lineStart)){
+                inCode = true;
+            }else if(lineStart >= target && lineStart >= 2 && lineEnd > lineStart
+            && text.charAt(lineStart - 1) == '\n' && text.charAt(lineStart - 2) == '\n'
+            && text.charAt(lineStart) > ' '){
+                starts.add(lineStart);
+                target = lineStart + chunkSize;
+            }
+            lineStart = lineEnd + 1;
+        }
+        int[] result = new int[starts.size()];
+        for(int i = 0; i < result.length; i++)
+            result[i] = starts.get(i);
+        return result;
+    }
+
+    private static boolean isFence(MarkdownSource text, int index){
+        return text.charAt(index) == '`' && text.charAt(index + 1) == '`' && text.charAt(index + 2) == '`';
+    }
+
+    private static final class ChunkTask extends RecursiveTask<ChunkTask> {
+        private static final long serialVersionUID = 1L;
+
+        private final MarkdownSource text;
+        private final int start;
+        private final int limit;
+        private final ParseBudget budget;
+        private final boolean reports;
+        private final RecordingRenderer recorder = new RecordingRenderer();
+        private int end;
+        private long steps;
+        private boolean finished;
+        private boolean failed;
+
+        /**
+         * @param reports whether the reports of the blocks are kept
+         */
+        ChunkTask(MarkdownSource text, int start, int limit, ParseBudget budget, boolean reports){
+            this.text = text;
+            this.start = start;
+            this.limit = limit;
+            this.budget = budget;
+            this.reports = reports;
+        }
+
+        @Override
+        protected ChunkTask compute(){
+            try{
+                ParseContext context = new ParseContext(recorder, text, start, budget);
+                if(reports)
+                    context.reportToRecorder();
+                context.parseBlocksUntil(limit);
+                end = context.position();
+                steps = context.steps();
+                finished = context.isFinished();
+            }catch(ParseLimitException e){
+                // the calling thread parses the chunk again if it is needed,
+                // and throws or falls back if the limit is really hit
+                failed = true;
+            }
+            return this;
+        }
+    }
+}
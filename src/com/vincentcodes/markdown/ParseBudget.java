@@ -0,0 +1,158 @@
+package com.vincentcodes.markdown;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.vincentcodes.markdown.ParseLimitException.Limit;
+
+/**
+ * <p>
+ * The limits of one call to {@link MarkdownParser}. It is shared by
+ * the contexts of the call (eg. the chunks of a parallel parse),
+ * which add the steps they made to it from time to time. A step is
+ * about one char looked at.
+ * <p>
+ * The limits are checked when the count of steps reaches the next
+ * multiple of {@link #CHECK_INTERVAL} (see {@link #nextCheck(long)}),
+ * so a parse which goes on from a certain count of steps checks at
+ * the same points as if it had parsed the text before it too.
+ * <p>
+ * The thread which made the call is checked for interruption,
+ * not the thread which does the work.
+ * <p>
+ * A chunk of a parallel parse gets a speculative budget (see
+ * {@link #forChunk()}), which keeps its steps to itself. The calling
+ * thread adds them with {@link #tryCharge(long)} once it knows which
+ * blocks of the chunk are used, so that no step is counted twice.
+ * Once the call is over, the chunks which are still parsing are
+ * stopped at their next check (see {@link #abort()}).
+ */
+final class ParseBudget {
+    static final int CHECK_INTERVAL = 4096;
+
+    private final int maxNestingDepth;
+    private final long maxWork;
+    private final long timeLimit; // in ns, 0 if none
+    private final long startTime;
+    private final boolean plainTextFallback;
+    private final Thread owner;
+    private final AtomicLong work;
+    private final AtomicBoolean aborted;
+    private final boolean speculative;
+    private long ownWork; // steps of a speculative budget, not in work
+
+    /**
+     * @param steps made so far
+     * @return the count of steps at which the limits are checked next,
+     * a parse which starts from 0 steps is checked before its first block
+     */
+    static long nextCheck(long steps){
+        return steps == 0? 0 : (steps / CHECK_INTERVAL + 1) * CHECK_INTERVAL;
+    }
+
+    /**
+     * @param timeLimit in ns, 0 if none
+     */
+    ParseBudget(int maxNestingDepth, long maxWork, long timeLimit, boolean plainTextFallback){
+        this.maxNestingDepth = maxNestingDepth;
+        this.maxWork = maxWork;
+        this.timeLimit = timeLimit;
+        this.startTime = System.nanoTime();
+        this.plainTextFallback = plainTextFallback;
+        this.owner = Thread.currentThread();
+        this.work = new AtomicLong();
+        this.aborted = new AtomicBoolean();
+        this.speculative = false;
+    }
+
+    private ParseBudget(ParseBudget other, boolean speculative){
+        this.maxNestingDepth = other.maxNestingDepth;
+        this.maxWork = other.maxWork;
+        this.timeLimit = other.timeLimit;
+        this.startTime = other.startTime;
+        this.plainTextFallback = false;
+        this.owner = other.owner;
+        this.work = other.work;
+        this.aborted = other.aborted;
+        this.speculative = speculative;
+    }
+
+    /**
+     * @return the same budget, but the contexts using it throw instead
+     * of falling back to plain text (eg. when the output is kept)
+     */
+    ParseBudget failFast(){
+        return plainTextFallback? new ParseBudget(this, false) : this;
+    }
+
+    /**
+     * @return a budget for one chunk of a parallel parse, which throws
+     * instead of falling back. Its steps are checked together with the
+     * steps already charged, but they are not charged.
+     */
+    ParseBudget forChunk(){
+        return new ParseBudget(this, true);
+    }
+
+    /**
+     * Charge {@code steps} unless it goes over the max work
+     * @return false if nothing is charged
+     */
+    boolean tryCharge(long steps){
+        if(work.get() + steps > maxWork)
+            return false;
+        work.addAndGet(steps);
+        return true;
+    }
+
+    /**
+     * Make the speculative budgets (see {@link #forChunk()}) throw at
+     * their next check, eg. when the calling thread has thrown and the
+     * chunks are not needed anymore
+     */
+    void abort(){
+        aborted.set(true);
+    }
+
+    /**
+     * @return true if the rest of the document is given to the renderer
+     * as plain text once a limit (other than input size or interruption) is hit
+     */
+    boolean fallsBack(){
+        return plainTextFallback;
+    }
+
+    void charge(long steps){
+        if(speculative)
+            ownWork += steps;
+        else work.addAndGet(steps);
+    }
+
+    /**
+     * Add {@code steps} to the work done, then check the limits
+     * @throws ParseLimitException
+     */
+    void check(long steps){
+        long total;
+        if(speculative){
+            if(aborted.get())
+                throw new ParseLimitException(Limit.INTERRUPTED, "The parallel parse is over");
+            ownWork += steps;
+            total = work.get() + ownWork;
+        }else total = work.addAndGet(steps);
+        if(owner.isInterrupted())
+            throw new ParseLimitException(Limit.INTERRUPTED, "Parsing is interrupted");
+        if(total > maxWork)
+            throw new ParseLimitException(Limit.WORK, "Parsing takes more than " + maxWork + " steps");
+        if(timeLimit > 0 && System.nanoTime() - startTime > timeLimit)
+            throw new ParseLimitException(Limit.TIME, "Parsing takes more than " + timeLimit / 1000000 + "ms");
+    }
+
+    /**
+     * @throws ParseLimitException
+     */
+    void checkDepth(int depth){
+        if(depth > maxNestingDepth)
+            throw new ParseLimitException(Limit.NESTING_DEPTH, "Nested more than " + maxNestingDepth + " levels");
+    }
+}
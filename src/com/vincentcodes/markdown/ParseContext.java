@@ -0,0 +1,1074 @@
+package com.vincentcodes.markdown;
+
+import java.util.Arrays;
+
+import com.vincentcodes.markdown.ParseLimitException.Limit;
+import com.vincentcodes.markdown.ParseListener.BlockKind;
+import com.vincentcodes.markdown.ParseListener.InlineCounter;
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.inline.TextStyle;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * <p>
+ * Everything which changes during one call to {@link MarkdownParser#parse(String, Renderer)}:
+ * the text, the position of the parser and the scratch objects used
+ * to parse it. A context is used by one thread only and thrown away
+ * afterwards, which makes {@link MarkdownParser} itself safe to share.
+ * <p>
+ * The content of list items and block quotes is parsed by the same
+ * context (see {@link #parseNested(MarkdownSource, int, boolean)})
+ * instead of another parser.
+ * <p>
+ * The steps made (about one per char looked at) are counted and the
+ * {@link ParseBudget} is checked every {@link ParseBudget#CHECK_INTERVAL}
+ * steps (see {@link ParseBudget#nextCheck(long)}). If it falls back
+ * to plain text, the events of each block are held until the block
+ * is complete, so that a block which hits a limit can be dropped and
+ * given as plain text instead.
+ * <p>
+ * If anyone is looking for improving this parser, the 
+ * two important functions are {@link #parseBlocks()} and
+ * {@link #parseText()}.
+ */
+final class ParseContext {
+    private final Renderer target;
+    private final Renderer renderer; // same as target unless the events of a block are pending
+    private final RecordingRenderer pending; // events of the block being parsed, null if they are not held
+    private final RecordingRenderer recorder; // same as target if block starts are recorded
+    private final ParseBudget budget; // null if nothing is checked
+    private long steps;
+    private long chargedSteps; // no. of steps added to the budget
+    private long nextCheck = Long.MAX_VALUE;
+    private int listDepth;
+    private ParseListener listener; // null if nothing is measured
+    private long[] inlineCounts; // since the last report, only if there is a listener
+    private long documentId; // of the JFR events
+    private boolean blockEvents = new BlockParseEvent().isEnabled(); // checked once, a block event is not free
+    private boolean reportEachBlock; // the inline counts too, see reportToRecorder()
+    private String file; // of the JFR parse event, null if the text is not read from a file
+    private MarkdownSource text;
+    private final InlineDelimiters delimiters = new InlineDelimiters();
+    private final LineClassifier thisLine = new LineClassifier(); // line at currentIndex
+    private final LineClassifier nextLine = new LineClassifier(); // look ahead
+    private final TextBuffer buffer = new TextBuffer();
+    private final TextBuffer codeBuffer = new TextBuffer();
+    private TextStyle inEffect = TextStyle.NONE; // styles of the text being parsed
+    private int currentIndex;
+
+    /**
+     * @param renderer can be null if only {@link #parseText()} is used
+     * @param startOffset based on 0
+     */
+    ParseContext(Renderer renderer, MarkdownSource text, int startOffset){
+        this(renderer, text, startOffset, null);
+    }
+
+    /**
+     * @param budget can be null if there are no limits
+     */
+    ParseContext(Renderer renderer, MarkdownSource text, int startOffset, ParseBudget budget){
+        this.target = renderer;
+        this.pending = budget != null && budget.fallsBack()? new RecordingRenderer() : null;
+        this.renderer = pending != null? pending : renderer;
+        this.recorder = renderer instanceof RecordingRenderer? (RecordingRenderer)renderer : null;
+        this.budget = budget;
+        this.currentIndex = startOffset;
+        setSource(text);
+    }
+
+    /**
+     * Report the blocks and the inline counters to {@code listener}
+     */
+    void setListener(ParseListener listener){
+        this.listener = listener;
+        this.inlineCounts = listener == null? null : new long[InlineCounter.values().length];
+    }
+
+    /**
+     * Report the blocks and the inline counts to the recorder instead
+     * of a listener and JFR, one block at a time. They are passed on
+     * only for the blocks which are used, see
+     * {@link RecordingRenderer#replayBlocks(Renderer, int, ParseListener, long)}.
+     */
+    void reportToRecorder(){
+        setListener(recorder);
+        reportEachBlock = true;
+        blockEvents = false;
+    }
+
+    /**
+     * Give the JFR events of the blocks the id of a parse which
+     * is not started by {@link #parseBlocks()}
+     */
+    void setDocumentId(long documentId){
+        this.documentId = documentId;
+    }
+
+    /**
+     * @param file where the text is read from, for the JFR parse event
+     */
+    void setFile(String file){
+        this.file = file;
+    }
+
+    private void count(InlineCounter counter){
+        if(inlineCounts != null)
+            inlineCounts[counter.ordinal()]++;
+    }
+
+    private void reportInlineCounts(){
+        inlineCounts[InlineCounter.LINE_SCANS.ordinal()] += delimiters.takeLineScans();
+        inlineCounts[InlineCounter.RESCANS.ordinal()] += delimiters.takeRescans();
+        inlineCounts[InlineCounter.CHARS_SCANNED.ordinal()] += delimiters.takeCharsScanned();
+        for(InlineCounter counter : InlineCounter.values()){
+            long count = inlineCounts[counter.ordinal()];
+            if(count != 0)
+                listener.inline(counter, count);
+        }
+        Arrays.fill(inlineCounts, 0);
+    }
+
+    private void setSource(MarkdownSource text){
+        this.text = text;
+        delimiters.reset(text);
+        thisLine.reset(text);
+        nextLine.reset(text);
+        buffer.reset(text);
+        codeBuffer.reset(text);
+    }
+
+    // Tokenizing stuff (Put inside parser for easier integration) //
+
+    /**
+     * Includes the current char
+     * @return null if eof is reached
+     */
+    private String getUntilLineEnd(){
+        if(!text.has(currentIndex+1)) 
+            return null;
+        int lineEnd = text.lineEnd(currentIndex);
+        String line = text.substring(currentIndex, lineEnd);
+        step(lineEnd + 1 - currentIndex);
+        currentIndex = lineEnd + 1; // goes pass '\n' (or eof)
+        return line;
+    }
+
+    /**
+     * Includes the current char
+     * @return null if eof is reached
+     */
+    private String peekUntilLineEnd(int startOffset){
+        int startingIndex = currentIndex + startOffset;
+        if(!text.has(startingIndex+1)) 
+            return null;
+        return text.substring(startingIndex, text.lineEnd(startingIndex));
+    }
+
+    /**
+     * @return 0 if eof is reached
+     */
+    private char currentChar(){
+        if(!text.has(currentIndex))
+            return 0;
+        return text.charAt(currentIndex);
+    }
+
+    /**
+     * @return 0 if eof is reached
+     */
+    private char peekCharAt(int offset){
+        if(!text.has(currentIndex + offset))
+            return 0;
+        return text.charAt(currentIndex + offset);
+    }
+
+    /**
+     * @return 0 if eof is reached
+     */
+    private char peekNextChar(){
+        if(!text.has(currentIndex + 1))
+            return 0;
+        return text.charAt(currentIndex + 1);
+    }
+
+    private char peekPreviousChar(){
+        if(!text.has(currentIndex - 1))
+            return 0;
+        return text.charAt(currentIndex - 1);
+    }
+
+    private void next(){
+        currentIndex++;
+    }
+
+    private void step(int n){
+        steps += n;
+        if(steps >= nextCheck)
+            checkBudget();
+    }
+
+    private void checkBudget(){
+        long unchecked = steps - chargedSteps;
+        // charged even if the check throws, the steps must not be charged again
+        chargedSteps = steps;
+        nextCheck = ParseBudget.nextCheck(steps);
+        budget.check(unchecked);
+    }
+
+    private void skipSpaces(){
+        while(text.has(currentIndex) && 
+        (currentChar() == ' ' || currentChar() == '\t')){
+            next();
+        }
+    }
+
+    /**
+     * Exclusive, pointer goes after c
+     */
+    private String readUntilChar(char c){
+        StringBuilder builder = new StringBuilder();
+        while(text.has(currentIndex) && currentChar() != c){
+            builder.append(currentChar());
+            next();
+        }
+        step(builder.length());
+        return builder.toString();
+    }
+
+    /**
+     * Exclusive, pointer goes after str
+     */
+    // private String readUntilString(String str){
+    //     StringBuilder builder = new StringBuilder();
+    //     int matchingChars = 0;
+    //     while(currentIndex < text.length() && matchingChars < str.length()){
+    //         if(currentChar() == str.charAt(matchingChars++));
+    //         else matchingChars = 0;
+    //         builder.append(currentChar());
+    //         next();
+    //     }
+    //     return builder.substring(0, builder.length()-str.length());
+    // }
+
+    private boolean isAlphaNum(char c){
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+    private String repeatChar(String c, int n){
+        return c.repeat(n);
+    }
+
+    // Parsing starts here //
+    void parseBlocks(){
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        int start = currentIndex;
+        documentId = ParseEvent.nextDocumentId();
+        target.body();
+        parseBlocksUntil(Integer.MAX_VALUE);
+        RenderDoneEvent.done(target, documentId);
+        if(event.shouldCommit()){
+            event.documentId = documentId;
+            event.file = file;
+            event.mode = text.isStreamed()? "reader" : "text";
+            event.chars = currentIndex - start;
+            event.commit();
+        }
+    }
+    /**
+     * Parse the blocks which start before {@code limit}. The last 
+     * block may end after it, the parser stops at the start of 
+     * the next block (see {@link #position()}).
+     * @throws ParseLimitException if the budget is used up and
+     * it does not fall back to plain text
+     */
+    void parseBlocksUntil(int limit){
+        if(budget != null)
+            nextCheck = ParseBudget.nextCheck(steps);
+        for(; currentChar() != 0 && currentIndex < limit; ){
+            if(recorder != null)
+                recorder.markBlock(currentIndex, steps);
+            // blocks only look back at most 2 chars (eg. line breaks by "  ")
+            text.release(currentIndex - 2);
+            if(pending == null){
+                parseBlock();
+                continue;
+            }
+            int blockStart = currentIndex;
+            try{
+                parseBlock();
+            }catch(ParseLimitException e){
+                if(e.getLimit() == Limit.INPUT_SIZE || e.getLimit() == Limit.INTERRUPTED)
+                    throw e;
+                pending.clear();
+                parsePlainText(blockStart);
+                break;
+            }
+            pending.replay(target, 0);
+            pending.clear();
+        }
+        if(budget != null){
+            budget.charge(steps - chargedSteps);
+            chargedSteps = steps;
+        }
+        if(listener != null)
+            reportInlineCounts();
+    }
+    private void parseBlock(){
+        step(1);
+        if(listener == null && !blockEvents)
+            parseAnyBlock();
+        else parseMeasuredBlock();
+    }
+    /**
+     * Kept apart from {@link #parseBlock()}, so that the usual path stays small
+     */
+    private void parseMeasuredBlock(){
+        int start = currentIndex;
+        BlockParseEvent event = null;
+        if(blockEvents){
+            event = new BlockParseEvent();
+            event.begin();
+        }
+        long startTime = System.nanoTime();
+        BlockKind kind = parseAnyBlock();
+        long nanos = System.nanoTime() - startTime;
+        if(listener != null){
+            listener.block(kind, currentIndex - start, nanos);
+            if(reportEachBlock)
+                reportInlineCounts();
+        }
+        if(event != null && event.shouldCommit()){
+            event.documentId = documentId;
+            event.kind = kind.name();
+            event.offset = start;
+            event.chars = currentIndex - start;
+            event.parseTime = nanos;
+            event.commit();
+        }
+    }
+    private BlockKind parseAnyBlock(){
+        if(parseHrLine()) return BlockKind.THEMATIC_BREAK;
+        if(parseHeading()) return BlockKind.HEADING;
+        if(parseQuoteBlock()) return BlockKind.QUOTE;
+        if(parseOrderedList()) return BlockKind.ORDERED_LIST;
+        if(parseUnorderedList()) return BlockKind.UNORDERED_LIST;
+        if(parseTable()) return BlockKind.TABLE;
+        if(parseCodeBlock()) return BlockKind.CODE_BLOCK;
+
+        renderer.p(parseText());
+        next();
+        return BlockKind.PARAGRAPH;
+    }
+    /**
+     * Give the rest of the text as paragraphs of plain text, which
+     * are separated by blank lines
+     */
+    private void parsePlainText(int start){
+        currentIndex = start;
+        StringBuilder paragraph = new StringBuilder();
+        while(text.has(currentIndex)){
+            int lineEnd = text.lineEnd(currentIndex);
+            String line = text.substring(currentIndex, lineEnd);
+            steps += lineEnd + 1 - currentIndex; // not checked, the limit is hit already
+            currentIndex = lineEnd + 1;
+            text.release(currentIndex);
+            if(!line.isBlank()){
+                if(paragraph.length() > 0)
+                    paragraph.append('\n');
+                paragraph.append(line);
+            }else addPlainText(paragraph);
+        }
+        addPlainText(paragraph);
+    }
+    private void addPlainText(StringBuilder paragraph){
+        if(paragraph.length() == 0)
+            return;
+        TextNode node = new TextNode();
+        node.add(TextStyle.NONE, paragraph.toString());
+        target.p(node);
+        paragraph.setLength(0);
+    }
+
+    /**
+     * @return no. of steps made so far, all of them are charged
+     * after {@link #parseBlocksUntil(int)}
+     */
+    long steps(){
+        return steps;
+    }
+
+    /**
+     * Go on from the steps of a parse which stopped where this context
+     * starts, they are charged already. The budget is then checked at
+     * the same points as in that parse.
+     */
+    void setSteps(long steps){
+        this.steps = steps;
+        this.chargedSteps = steps;
+    }
+
+    /**
+     * @return where the parser is, which is the start of a block
+     * after {@link #parseBlocksUntil(int)}
+     */
+    int position(){
+        return currentIndex;
+    }
+
+    /**
+     * @return true if there is nothing left to parse
+     */
+    boolean isFinished(){
+        return currentChar() == 0;
+    }
+    private boolean parseHrLine(){
+        if(thisLine.classify(currentIndex).thematicBreak){
+            renderer.hr();
+            next();next();next();next();
+            return true;
+        }
+        return false;
+    }
+    private boolean parseHeading(){
+        if(currentChar() == '#'){
+            int numOfHash = 1;
+            while(peekNextChar() == '#'){
+                numOfHash++;
+                next();
+            }
+            next();
+            skipSpaces();
+            switch(numOfHash){
+                case 1: renderer.h1(parseText(true)); break;
+                case 2: renderer.h2(parseText(true)); break;
+                case 3: renderer.h3(parseText(true)); break;
+                case 4: renderer.h4(parseText(true)); break;
+                case 5: renderer.h5(parseText(true)); break;
+                case 6: renderer.h6(parseText(true)); break;
+                default: renderer.append(repeatChar("#", numOfHash)); break;
+            }
+            next();
+            LineClassifier line = thisLine.classify(currentIndex);
+            if(line.exists && line.end == currentIndex){
+                getUntilLineEnd();
+            }
+            return true;
+        }
+        return false;
+    }
+    private boolean parseQuoteBlock(){
+        if(currentChar() == '>'){
+            renderer.startBlockQuote();
+            while(currentChar() == '>'){
+                int numOfArrow = 1;
+                while(peekNextChar() == '>'){
+                    numOfArrow++;
+                    next();
+                }
+                if(budget != null)
+                    budget.checkDepth(numOfArrow);
+                next(); // skip '>'
+                skipSpaces();
+
+                // the lines are parsed in place as long as no arrows are stripped after the first line
+                int linesStart = currentIndex;
+                int linesEnd = currentIndex;
+                StringBuilder lines = null;
+                LineClassifier line;
+                // combine same level block quotes into one line
+                while((line = thisLine.classify(currentIndex)).exists){
+                    int contentStart = currentIndex;
+                    // same level, strip the arrows
+                    if(line.quoteDepth == numOfArrow && !line.arrowAfterQuote)
+                        contentStart += numOfArrow;
+                    else if(line.quoteDepth > 0)
+                        break;
+                    if(line.lastNonBlank < contentStart){
+                        break;
+                    }
+                    if(linesEnd == linesStart)
+                        linesStart = contentStart;
+                    else if(lines == null && contentStart != currentIndex)
+                        lines = new StringBuilder(text.substring(linesStart, linesEnd));
+                    if(lines != null)
+                        lines.append('\n').append(text.substring(contentStart, line.end));
+                    linesEnd = line.end;
+                    getUntilLineEnd(); // completed this line
+                }
+                // provide specific lines to be parsed
+                if(lines == null){
+                    renderer.blockquote(parseNested(text.slice(linesStart, linesEnd), linesStart, false), numOfArrow);
+                }else{
+                    renderer.blockquote(parseNested(new MarkdownSource(lines.toString()), 0, false), numOfArrow);
+                }
+            }
+            renderer.endBlockQuote();
+            next(); // skip '\n'
+            return true;
+        }
+        return false;
+    }
+
+    // ----------------- Start of List Parsing ----------------- //
+    private boolean parseOrderedList(){
+        if(incomingOlItem()){
+            renderer.ol();
+            listDepth = 1;
+            boolean indentedOl = false;
+            int previousLeadingSpaces = 0;
+            while(incomingOlItem() || incomingIndentedOlItem() || incomingIndentedUlItem()){
+                // create new list / end a list if indentation is changed
+                /**
+                 * This is fine:
+                 * (ol)
+                 * 1. asd
+                 *     - asd  (ul)
+                 *     - asd  (ul) same level do nothing
+                 *   2. feqwe (endul) 
+                 * (endol)
+                 */
+                int cLineLeadingSpaces = 0;
+                if((cLineLeadingSpaces = thisLine.classify(currentIndex).indent) > previousLeadingSpaces){
+                    previousLeadingSpaces = cLineLeadingSpaces;
+                    if(incomingIndentedOlItem()){
+                        renderer.ol();
+                        indentedOl = true;
+                        enterList();
+                    }else if(incomingIndentedUlItem()){
+                       renderer.ul();
+                       indentedOl = false;
+                       enterList();
+                    }
+                }else if(cLineLeadingSpaces < previousLeadingSpaces){
+                    previousLeadingSpaces = cLineLeadingSpaces;
+                    if(previousLeadingSpaces < 0){
+                        previousLeadingSpaces = 0;
+                    }
+                    if(indentedOl){
+                        renderer.endol();
+                    }else{
+                       renderer.endul();
+                    }
+                    listDepth--;
+                }
+                parseListItem();
+            }
+            // close the opened ones because of this pattern
+            /**
+             * 1. asdasd
+             *    - something
+             */
+            if(previousLeadingSpaces > 0){
+                if(indentedOl){
+                    renderer.endol();
+                }else{
+                   renderer.endul();
+                }
+            }
+            renderer.endol();
+            return true;
+        }
+        return false;
+    }
+    private boolean parseUnorderedList(){
+        if(incomingUlItem()){
+            renderer.ul();
+            listDepth = 1;
+            boolean indentedOl = false;
+            int previousLeadingSpaces = 0;
+            while(incomingUlItem() || incomingIndentedOlItem() || incomingIndentedUlItem()){
+                // create new list / end a list if indentation is changed
+                // see #parseOrderedList()
+                int cLineLeadingSpaces = 0;
+                if((cLineLeadingSpaces = thisLine.classify(currentIndex).indent) > previousLeadingSpaces){
+                    previousLeadingSpaces = cLineLeadingSpaces;
+                    if(incomingIndentedOlItem()){
+                        renderer.ol();
+                        indentedOl = true;
+                        enterList();
+                    }else if(incomingIndentedUlItem()){
+                       renderer.ul();
+                       indentedOl = false;
+                       enterList();
+                    }
+                }else if(cLineLeadingSpaces < previousLeadingSpaces){
+                    previousLeadingSpaces = cLineLeadingSpaces;
+                    if(previousLeadingSpaces < 0){
+                        previousLeadingSpaces = 0;
+                    }
+                    if(indentedOl){
+                        renderer.endol();
+                    }else{
+                       renderer.endul();
+                    }
+                    listDepth--;
+                }
+                parseListItem();
+            }
+            // close the opened ones
+            if(previousLeadingSpaces > 0){
+                if(indentedOl){
+                    renderer.endol();
+                }else{
+                   renderer.endul();
+                }
+            }
+            renderer.endul();
+            return true;
+        }
+        return false;
+    }
+    /**
+     * For double line feed to terminate a list item, the 
+     * parser expects minimal indentation on the next line 
+     * (2 spaces to be exact).
+     * <p>
+     * Will invoke {@code renderer.li()}. Hence, it's void
+     */
+    private void parseListItem(){
+        LineClassifier itemLine = thisLine.classify(currentIndex);
+        if(!itemLine.exists)
+            return;
+        int offsetLeadingSpaces = itemLine.indent;
+        // stip leading num / bullet
+        int contentStart = currentIndex;
+        for(int i = currentIndex + offsetLeadingSpaces; i < itemLine.end; i++){
+            if(text.charAt(i) == ' '){
+                contentStart = i + 1;
+                break;
+            }
+        }
+        getUntilLineEnd();
+
+        boolean hasIndentation = false;
+        while(true){
+            LineClassifier nextItemLine = thisLine.classify(currentIndex);
+            if(!nextItemLine.exists){
+                break;
+            }else{
+                // expects 2 spaces or more
+                if(!hasIndentation && nextItemLine.indent > 1)
+                    hasIndentation = true;
+                if(!hasIndentation && nextItemLine.blank){
+                    break;
+                }
+                if(matchesPatternsForNewParagraph(nextItemLine)
+                || nextItemLine.indentedOrderedItem || nextItemLine.indentedBulletItem){
+                    break;
+                }
+            }
+            getUntilLineEnd();
+        }
+        // the item is parsed in place, from the content to the end of the last line (without '\n')
+        renderer.li(parseNested(text.slice(contentStart, currentIndex - 1), contentStart, true));
+    }
+    /**
+     * Called when a list is opened inside a list
+     */
+    private void enterList(){
+        listDepth++;
+        if(budget != null)
+            budget.checkDepth(listDepth);
+    }
+    private boolean incomingOlItem(){
+        return thisLine.classify(currentIndex).orderedItem;
+    }
+    private boolean incomingIndentedOlItem(){
+        return thisLine.classify(currentIndex).indentedOrderedItem;
+    }
+    private boolean incomingUlItem(){
+        return thisLine.classify(currentIndex).bulletItem;
+    }
+    private boolean incomingIndentedUlItem(){
+        return thisLine.classify(currentIndex).indentedBulletItem;
+    }
+    // ----------------- End of List Parsing ----------------- //
+
+    private boolean parseTable(){
+        LineClassifier currentLine = thisLine.classify(currentIndex);
+        if(!currentLine.exists) 
+            return false;
+        
+        if(currentChar() == '|' || 
+        (currentLine.tableRow && nextLine.classify(currentLine.end + 1).delimiterRow)){
+            return parseNormalTable(currentLine);
+        }
+        return false;
+    }
+    private boolean parseNormalTable(LineClassifier currentLine){
+        boolean stripPipes = false;
+
+        // No trailing noise are allowed, ie. "|a|b|asd12346?" is not allowed
+        if(currentLine.startsWithPipe && currentLine.endsWithPipe){
+            stripPipes = true;
+        }
+
+        // Parse headings
+        int numOfCells = currentLine.numOfPipes + 1;
+        if(stripPipes){
+            // ie. "|a|b|" has 2 cells. The char before the last '|' is ignored
+            numOfCells -= 2;
+            if(currentLine.end - 2 > currentIndex && text.charAt(currentLine.end - 2) == '|')
+                numOfCells--;
+        }
+        TextNode[] headings = parseTableRow(currentLine, stripPipes, numOfCells);
+        renderer.table(headings);
+        getUntilLineEnd(); // skip "|-|-|-...|" or "-|-|-|-..."
+
+        LineClassifier row;
+        while((row = thisLine.classify(currentIndex)).exists && ((row.startsWithPipe && row.numOfPipes-1 >= numOfCells) 
+        || row.tableRow)){
+            TextNode[] trCells = parseTableRow(row, stripPipes, numOfCells);
+            renderer.tr(trCells);
+        }
+        renderer.endTable();
+        return true;
+    }
+    private TextNode[] parseTableRow(LineClassifier row, boolean stripPipes, int noOfCells){
+        // To be a little bit more flexible
+        if(stripPipes && row.startsWithPipe)
+            next(); // skip '|' in real pointer
+        
+        TextNode[] cellsValue = new TextNode[Math.max(noOfCells, 0)];
+        for(int i = 0; i < cellsValue.length; i++){
+            cellsValue[i] = parseText('|', true, false);
+            if(cellsValue[i].size() > 0){
+                cellsValue[i].trimValue(0);
+            }
+            if(i < cellsValue.length-1){
+                next(); next(); // move forward to '|' then go pass '|' (go to next cell)
+            }
+        }
+        getUntilLineEnd(); // skip the rest of the line
+        return cellsValue;
+    }
+    private boolean parseCodeBlock(){
+        if(thisLine.classify(currentIndex).isFence(currentIndex)){
+            next(); next(); next();
+            String lang = readUntilChar('\n');
+            next(); // skip '\n'
+
+            StringBuilder codeBlock = new StringBuilder();
+            String line;
+            while((line = getUntilLineEnd()) != null && !line.equals("```")){
+                codeBlock.append(line).append("\n");
+            }
+            codeBlock.deleteCharAt(codeBlock.length()-1); // delete '\n'
+            renderer.codeblock(codeBlock.toString(), lang);
+            if(currentChar() == '\n')
+                next();
+            return true;
+        }
+        return false;
+    }
+
+
+    // Parse Inline Text //
+    /**
+     * Parse the content of a list item or a block quote as inline text
+     * (eg. a {@link MarkdownSource#slice(int, int)} of the text) with
+     * this context, then continue where it was left
+     */
+    private TextNode parseNested(MarkdownSource source, int start, boolean allowDoubleLineFeeds){
+        MarkdownSource outerText = text;
+        int outerIndex = currentIndex;
+        setSource(source);
+        currentIndex = start;
+        try{
+            return parseText('\0', false, allowDoubleLineFeeds);
+        }finally{
+            setSource(outerText);
+            currentIndex = outerIndex;
+        }
+    }
+
+    private boolean matchesPatternsForNewParagraph(LineClassifier line){
+        return line.orderedItem || line.bulletItem || line.heading || line.quote || line.fence;
+    }
+
+    TextNode parseText(){
+        return parseText('\0', false, false);
+    }
+    TextNode parseText(boolean terminateOnOneNewLine){
+        return parseText('\0', terminateOnOneNewLine, false);
+    }
+    TextNode parseText(char additionalTerminator, boolean terminateOnOneNewLine, boolean allowDoubleLineFeeds){
+        TextNode node = new TextNode();
+        inEffect = TextStyle.NONE;
+        TextBuffer builder = buffer;
+        builder.clear();
+        for(; text.has(currentIndex); next()){
+            step(1);
+            // Return if a newline and the next newline is empty is reached
+            if(currentChar() == '\\'){
+                switch(peekNextChar()){
+                    case '!': case '"': case '\'': case '#': case '$': case '%':
+                    case '&': case '(': case ')': case '*': case '+': case '-':
+                    case ',': case '.': case '/': case ':': case ';': case '<':
+                    case '>': case '=': case '?': case '@': case '[': case ']':
+                    case '^': case '_': case '`': case '{': case '}': case '|':
+                    case '~': case '\\':
+                        next();
+                        builder.appendSource(currentIndex);
+                        continue;
+                }
+            }
+
+            if(currentChar() == '\n'){
+                //// Specific to parse() because parse() has next() itself
+                if(terminateOnOneNewLine) 
+                    break;
+                
+                // offset 1 to skip '\n'
+                LineClassifier followingLine = nextLine.classify(currentIndex + 1);
+                if(followingLine.exists){
+                    if(matchesPatternsForNewParagraph(followingLine))
+                        break;
+
+                    // next line is empty
+                    if(followingLine.blank){
+                        if(!allowDoubleLineFeeds){
+                            next(); // add 1 to skip '\n' (used for parseText() exit)
+                            break;
+                        }else{
+                            /**
+                             * This is allowed:
+                             * asd asd
+                             * asd
+                             * 
+                             * asd
+                             * To become: 
+                             * asd asd asd
+                             * asd
+                             */
+                            inEffect = TextStyle.NONE; // reset styles
+                            builder.appendSource(currentIndex);
+                            continue;
+                        }
+                    }
+                }
+                // line breaks by "  " (2 space)
+                if(text.charAt(currentIndex-1) == ' ' && text.charAt(currentIndex-2) == ' '){
+                    // I could have use trim() in the end, but anyways
+                    builder.deleteLast(2);
+                    break;
+                }
+
+                inEffect = TextStyle.NONE; // reset styles
+                builder.appendNewLineAsSpace(currentIndex);
+                continue;
+            }
+
+            // don't forget '_' and '__'
+            if(parseSingleAsterisk(node, builder))
+                continue; // do not add char to buffer
+            if(parseDoubleAsterisk(node, builder))
+                continue;
+            if(parseSingleUnderscore(node, builder))
+                continue;
+            if(parseDoubleUnderscore(node, builder))
+                continue;
+            if(parseDoubleTilde(node, builder))
+                continue;
+            if(parseInlineCode(node, builder))
+                continue;
+            if(parseInlineLink(node, builder))
+                continue;
+            if(parseInlineImage(node, builder))
+                continue;
+            
+            // Just in case pointer lands on `additionalTerminator` after some parsing the above functions
+            if(additionalTerminator != '\0' && currentChar() == additionalTerminator){
+                currentIndex--; // promised to not include the current char
+                break;
+            }
+            
+            builder.appendSource(currentIndex);
+
+            //// Specific to parse()
+            // Additional term is used: Do not next() into the terminator
+            if(additionalTerminator != '\0' && peekNextChar() == additionalTerminator){
+                break;
+            }
+        }
+        createGroupToNode(node, inEffect, builder);
+        return node;
+    }
+    /**
+     * @return successful or not
+     */
+    private boolean parseSingleAsterisk(TextNode node, TextBuffer builder){
+        boolean isSurroundedBySpaces = peekPreviousChar() == ' ' && peekNextChar() == ' ';
+        if(currentChar() == '*' && peekNextChar() != '*' && !isSurroundedBySpaces){
+            if((!inEffect.isEmphasis() && delimiters.canReach(InlineDelimiters.ASTERISK, currentIndex, true))){
+                createGroupToNode(node, inEffect, builder); // before setting
+                inEffect = inEffect.with(TextStyle.EMPHASIS);
+                count(InlineCounter.EMPHASIS_OPENED);
+                return true;
+            }else if(inEffect.isEmphasis()){
+                // turn it off
+                createGroupToNode(node, inEffect, builder);
+                inEffect = inEffect.without(TextStyle.EMPHASIS);
+                count(InlineCounter.EMPHASIS_CLOSED);
+                return true;
+            }
+            count(InlineCounter.EMPHASIS_UNPAIRED);
+        }
+        return false;
+    }
+    private boolean parseDoubleAsterisk(TextNode node, TextBuffer builder){
+        boolean isSurroundedWithSpaces = peekPreviousChar() == ' ' && peekCharAt(2) == ' ';
+        if(currentChar() == '*' && peekNextChar() == '*' && !isSurroundedWithSpaces){
+            if(!inEffect.isStrong() && delimiters.canReach(InlineDelimiters.DOUBLE_ASTERISK, currentIndex, true)){
+                createGroupToNode(node, inEffect, builder);
+                inEffect = inEffect.with(TextStyle.STRONG);
+                count(InlineCounter.EMPHASIS_OPENED);
+                next(); // goto 2nd '*'
+                return true;
+            }else if(inEffect.isStrong()){
+                createGroupToNode(node, inEffect, builder);
+                inEffect = inEffect.without(TextStyle.STRONG);
+                count(InlineCounter.EMPHASIS_CLOSED);
+                next();
+                return true;
+            }
+            count(InlineCounter.EMPHASIS_UNPAIRED);
+        }
+        return false;
+    }
+    private boolean parseSingleUnderscore(TextNode node, TextBuffer builder){
+        boolean isSurroundedBySpaces = peekPreviousChar() == ' ' && peekNextChar() == ' ';
+        boolean isSurroundedByAlphaNum = (isAlphaNum(peekPreviousChar()) || peekPreviousChar() == '_') 
+            && (isAlphaNum(peekNextChar()) || peekNextChar() == '_');
+        if(currentChar() == '_' && peekNextChar() != '_' && !(isSurroundedBySpaces || isSurroundedByAlphaNum)){
+            if(!inEffect.isEmphasis() && delimiters.canReach(InlineDelimiters.UNDERSCORE, currentIndex, true)){
+                createGroupToNode(node, inEffect, builder); // before setting
+                inEffect = inEffect.with(TextStyle.EMPHASIS);
+                count(InlineCounter.EMPHASIS_OPENED);
+                return true;
+            }else if(inEffect.isEmphasis()){
+                createGroupToNode(node, inEffect, builder);
+                inEffect = inEffect.without(TextStyle.EMPHASIS);
+                count(InlineCounter.EMPHASIS_CLOSED);
+                return true;
+            }
+            count(InlineCounter.EMPHASIS_UNPAIRED);
+        }
+        return false;
+    }
+    private boolean parseDoubleUnderscore(TextNode node, TextBuffer builder){
+        boolean isSurroundedBySpaces = peekPreviousChar() == ' ' && peekCharAt(2) == ' ';
+        boolean isSurroundedByAlphaNum = isAlphaNum(peekPreviousChar()) && isAlphaNum(peekCharAt(2));
+        if(currentChar() == '_' && peekNextChar() == '_' && !(isSurroundedBySpaces || isSurroundedByAlphaNum)){
+            if(!inEffect.isStrong() && delimiters.canReach(InlineDelimiters.DOUBLE_UNDERSCORE, currentIndex, false)){
+                createGroupToNode(node, inEffect, builder);
+                inEffect = inEffect.with(TextStyle.STRONG);
+                count(InlineCounter.EMPHASIS_OPENED);
+                next(); // goto 2nd '_'
+                return true;
+            }else if(inEffect.isStrong()){
+                createGroupToNode(node, inEffect, builder);
+                inEffect = inEffect.without(TextStyle.STRONG);
+                count(InlineCounter.EMPHASIS_CLOSED);
+                next();
+                return true;
+            }
+            count(InlineCounter.EMPHASIS_UNPAIRED);
+        }
+        return false;
+    }
+    private boolean parseDoubleTilde(TextNode node, TextBuffer builder){
+        boolean isSurroundedBySpaces = peekPreviousChar() == ' ' && peekCharAt(2) == ' ';
+        if(currentChar() == '~' && peekNextChar() == '~' && !isSurroundedBySpaces){
+            if(!inEffect.isStrikeThrough() && delimiters.canReach(InlineDelimiters.DOUBLE_TILDE, currentIndex, true)){
+                createGroupToNode(node, inEffect, builder);
+                inEffect = inEffect.with(TextStyle.STRIKE_THROUGH);
+                count(InlineCounter.EMPHASIS_OPENED);
+                next(); // goto 2nd '~'
+                return true;
+            }else if(inEffect.isStrikeThrough()){
+                createGroupToNode(node, inEffect, builder);
+                inEffect = inEffect.without(TextStyle.STRIKE_THROUGH);
+                count(InlineCounter.EMPHASIS_CLOSED);
+                next();
+                return true;
+            }
+            count(InlineCounter.EMPHASIS_UNPAIRED);
+        }
+        return false;
+    }
+    private boolean parseInlineCode(TextNode node, TextBuffer builder){
+        if(currentChar() == '`'){
+            int closingPos = delimiters.findOnSameLine(InlineDelimiters.BACKTICK, currentIndex + 1);
+            if(closingPos != -1){
+                createGroupToNode(node, inEffect, builder);
+                if(closingPos > currentIndex + 1){
+                    codeBuffer.clear();
+                    codeBuffer.appendSource(currentIndex + 1, closingPos);
+                    createGroupToNode(node, TextStyle.of(TextStyle.CODE), codeBuffer); // other styles do not apply
+                }else{
+                    builder.appendSource(currentIndex, closingPos + 1); // "``"
+                }
+                currentIndex = closingPos;
+                count(InlineCounter.CODE_SPANS);
+                return true;
+            }
+        }
+        return false;
+    }
+    private boolean parseInlineLink(TextNode node, TextBuffer builder){
+        return parseInlineLink(node, builder, false);
+    }
+    private boolean parseInlineLink(TextNode node, TextBuffer builder, boolean toImage){
+        // crude way of searching for [...](...)
+        // I could have used Regex for that
+        if(currentChar() == '[' || currentChar() == ']'
+        || currentChar() == '(' || currentChar() == ')'){
+            if(currentChar() == '[' && !inEffect.isLink()){
+                createGroupToNode(node, inEffect, builder);
+                if(toImage)
+                    inEffect = inEffect.with(TextStyle.IMAGE);
+                else 
+                    inEffect = inEffect.with(TextStyle.LINK);
+                return true;
+            }else if(currentChar() == ']' && (inEffect.isLink() || inEffect.isImage())){
+                // turn it off if '*' is alone without a pair
+                if(peekNextChar() == '('){
+                    next(); // now on '('
+                    if(delimiters.findOnSameLine(InlineDelimiters.CLOSING_PARENTHESIS, currentIndex + 1) != -1){
+                        String desc = builder.toString().trim();
+                        next(); // skip '('
+                        node.addLink(inEffect, desc, readUntilChar(')'));
+                        builder.clear();
+                        count(InlineCounter.LINKS);
+                    }
+                }
+                inEffect = inEffect.without(TextStyle.LINK | TextStyle.IMAGE);
+                return true;
+            }
+        }
+        return false;
+    }
+    private boolean parseInlineImage(TextNode node, TextBuffer builder){
+        // crude way of searching for [...](...)
+        // I could have used Regex for that
+        if(currentChar() == '!' && peekNextChar() == '['){
+            next();
+            return parseInlineLink(node, builder, true);
+        }
+        return false;
+    }
+
+    /**
+     * Add new group to node and resets the buffer 
+     */
+    private void createGroupToNode(TextNode node, TextStyle stylesInEffect, TextBuffer builder){
+        if(builder.isBlank()) return;
+        
+        node.add(stylesInEffect, builder.toValue());
+
+        builder.clear(); // reset buffer
+    }
+    
+}
@@ -0,0 +1,41 @@
+package com.vincentcodes.markdown;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of a whole parse, from {@link com.vincentcodes.markdown.renderer.Renderer#body()}
+ * until {@link com.vincentcodes.markdown.renderer.Renderer#done()} returns. The
+ * {@link BlockParseEvent}s and the {@link RenderDoneEvent} of the parse have 
+ * the same document id.
+ */
+@Name("com.vincentcodes.markdown.Parse")
+@Label("Markdown Parse")
+@Category("JMarkdown")
+final class ParseEvent extends Event {
+    private static final AtomicLong lastDocumentId = new AtomicLong();
+
+    @Label("Document Id")
+    @Description("Unique for each parse within the JVM")
+    long documentId;
+
+    @Label("File")
+    @Description("Null if the text is not read from a file")
+    String file;
+
+    @Label("Mode")
+    @Description("text, reader, parallel or cache")
+    String mode;
+
+    @Label("Chars")
+    long chars;
+
+    static long nextDocumentId(){
+        return lastDocumentId.incrementAndGet();
+    }
+}
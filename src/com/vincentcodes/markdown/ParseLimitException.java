@@ -0,0 +1,30 @@
+package com.vincentcodes.markdown;
+
+/**
+ * Thrown when a document goes over one of the limits of
+ * {@link MarkdownParser} (eg. {@link MarkdownParser#setMaxWork(long)})
+ * or the parsing thread is interrupted. {@link #getLimit()} tells
+ * which one. The renderer may have got some of the events already.
+ */
+public class ParseLimitException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public enum Limit {
+        INPUT_SIZE,
+        NESTING_DEPTH,
+        WORK,
+        TIME,
+        INTERRUPTED
+    }
+
+    private final Limit limit;
+
+    public ParseLimitException(Limit limit, String message){
+        super(message);
+        this.limit = limit;
+    }
+
+    public Limit getLimit(){
+        return limit;
+    }
+}
@@ -0,0 +1,69 @@
+package com.vincentcodes.markdown;
+
+/**
+ * <p>
+ * Told about the work of the parser, to find out which constructs
+ * make a document slow. Install it with {@link MarkdownParser#setParseListener(ParseListener)},
+ * {@link ParseMetrics} adds everything up.
+ * <p>
+ * The listener of a parser is shared by every call, so it must be
+ * thread-safe. The blocks of
+ * {@link MarkdownParser#parseParallel(String, com.vincentcodes.markdown.renderer.Renderer)}
+ * are reported by the calling thread, once they are given to the
+ * renderer, and only the blocks which are used.
+ * Nothing is measured if no listener is installed.
+ */
+public interface ParseListener {
+    enum BlockKind {
+        THEMATIC_BREAK,
+        HEADING,
+        QUOTE,
+        ORDERED_LIST,
+        UNORDERED_LIST,
+        TABLE,
+        CODE_BLOCK,
+        PARAGRAPH
+    }
+
+    enum InlineCounter {
+        /**
+         * A delimiter (eg. '*', "**", "~~") which found its pair and starts a style
+         */
+        EMPHASIS_OPENED,
+        /**
+         * A delimiter which ends a style
+         */
+        EMPHASIS_CLOSED,
+        /**
+         * A delimiter without a pair, which stays as text
+         */
+        EMPHASIS_UNPAIRED,
+        CODE_SPANS,
+        LINKS,
+        /**
+         * Lines scanned for delimiters, once per line unless the parser goes back
+         */
+        LINE_SCANS,
+        /**
+         * Lines scanned again because the parser went back
+         */
+        RESCANS,
+        /**
+         * Chars read by the line scans
+         */
+        CHARS_SCANNED
+    }
+
+    /**
+     * Called after each block (eg. a whole list with its items)
+     * @param chars no. of chars consumed
+     * @param nanos time taken, including the renderer
+     */
+    void block(BlockKind kind, int chars, long nanos);
+
+    /**
+     * Called once in a while (eg. at the end of a parse) with the
+     * counts since the last call, only if {@code count} is not 0
+     */
+    void inline(InlineCounter counter, long count);
+}
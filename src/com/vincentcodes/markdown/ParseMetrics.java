@@ -0,0 +1,84 @@
+package com.vincentcodes.markdown;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adds up what a {@link ParseListener} is told, per block kind and
+ * per inline counter. Can be shared by many threads.
+ * <pre>
+ * ParseMetrics metrics = new ParseMetrics();
+ * parser.setParseListener(metrics);
+ * ...
+ * System.out.println(metrics);
+ * </pre>
+ */
+public final class ParseMetrics implements ParseListener {
+    private static final int NUM_OF_KINDS = BlockKind.values().length;
+
+    private final LongAdder[] counts = newAdders(NUM_OF_KINDS);
+    private final LongAdder[] chars = newAdders(NUM_OF_KINDS);
+    private final LongAdder[] nanos = newAdders(NUM_OF_KINDS);
+    private final LongAdder[] inlineCounts = newAdders(InlineCounter.values().length);
+
+    private static LongAdder[] newAdders(int size){
+        LongAdder[] adders = new LongAdder[size];
+        for(int i = 0; i < size; i++)
+            adders[i] = new LongAdder();
+        return adders;
+    }
+
+    @Override
+    public void block(BlockKind kind, int chars, long nanos){
+        this.counts[kind.ordinal()].increment();
+        this.chars[kind.ordinal()].add(chars);
+        this.nanos[kind.ordinal()].add(nanos);
+    }
+
+    @Override
+    public void inline(InlineCounter counter, long count){
+        inlineCounts[counter.ordinal()].add(count);
+    }
+
+    public long getCount(BlockKind kind){
+        return counts[kind.ordinal()].sum();
+    }
+
+    public long getChars(BlockKind kind){
+        return chars[kind.ordinal()].sum();
+    }
+
+    public long getNanos(BlockKind kind){
+        return nanos[kind.ordinal()].sum();
+    }
+
+    public long getCount(InlineCounter counter){
+        return inlineCounts[counter.ordinal()].sum();
+    }
+
+    public void reset(){
+        for(int i = 0; i < NUM_OF_KINDS; i++){
+            counts[i].reset();
+            chars[i].reset();
+            nanos[i].reset();
+        }
+        for(LongAdder count : inlineCounts)
+            count.reset();
+    }
+
+    /**
+     * @return a table of the blocks and the inline counters
+     */
+    @Override
+    public String toString(){
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "%-18s %10s %12s %10s%n", "block", "count", "chars", "ms"));
+        for(BlockKind kind : BlockKind.values()){
+            builder.append(String.format(Locale.ROOT, "%-18s %10d %12d %10.2f%n", 
+                kind, getCount(kind), getChars(kind), getNanos(kind) / 1e6));
+        }
+        for(InlineCounter counter : InlineCounter.values())
+            builder.append(String.format(Locale.ROOT, "%-18s %10d%n", counter, getCount(counter)));
+        return builder.toString();
+    }
+}
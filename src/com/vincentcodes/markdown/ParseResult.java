@@ -0,0 +1,128 @@
+package com.vincentcodes.markdown;
+
+import com.vincentcodes.markdown.ast.Document;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * <p>
+ * The events of a parse kept together with the text and the start
+ * of each block. It is created by {@link MarkdownParser#parseIncremental(String)}
+ * and can be given back to {@link MarkdownParser#reparse(ParseResult, int, int, String)}
+ * after the text is edited, which only parses the blocks touched by
+ * the edit again.
+ * <p>
+ * A result never changes after it is created. The blocks given by
+ * {@link #getFirstChangedBlock()} and {@link #getNumOfChangedBlocks()}
+ * replace {@link #getNumOfReplacedBlocks()} blocks of the previous
+ * result, the other blocks share their TextNodes with it.
+ */
+public final class ParseResult {
+    private final String text;
+    private final char[] source;            // spans of the latest parse are on top of it
+    private final RecordingRenderer events; // body(), the blocks then done()
+    private final int end;                  // where the parser stopped
+    private final int firstChangedBlock;
+    private final int numOfChangedBlocks;
+    private final int numOfReplacedBlocks;
+
+    ParseResult(String text, char[] source, RecordingRenderer events, int end, int firstChangedBlock, int numOfChangedBlocks, int numOfReplacedBlocks){
+        this.text = text;
+        this.source = source;
+        this.events = events;
+        this.end = Math.min(end, text.length()); // the parser may step past the last char
+        this.firstChangedBlock = firstChangedBlock;
+        this.numOfChangedBlocks = numOfChangedBlocks;
+        this.numOfReplacedBlocks = numOfReplacedBlocks;
+    }
+
+    public String getText(){
+        return text;
+    }
+
+    public int getNumOfBlocks(){
+        return events.numOfBlocks();
+    }
+
+    /**
+     * @return index of the first char of {@code block} in the text
+     */
+    public int getBlockStart(int block){
+        return events.blockStart(block);
+    }
+
+    /**
+     * @return index after the last char of {@code block} in the text
+     */
+    public int getBlockEnd(int block){
+        return block + 1 < events.numOfBlocks()? events.blockStart(block + 1) : end;
+    }
+
+    /**
+     * @return the first block which is parsed again
+     */
+    public int getFirstChangedBlock(){
+        return firstChangedBlock;
+    }
+
+    /**
+     * @return no. of blocks from {@link #getFirstChangedBlock()} which are parsed again
+     */
+    public int getNumOfChangedBlocks(){
+        return numOfChangedBlocks;
+    }
+
+    /**
+     * @return no. of blocks of the previous result which are replaced
+     * by the changed blocks
+     */
+    public int getNumOfReplacedBlocks(){
+        return numOfReplacedBlocks;
+    }
+
+    /**
+     * Give all events of the parse to {@code renderer}, the same
+     * as {@link MarkdownParser#parse(String, Renderer)} does
+     */
+    public void replay(Renderer renderer){
+        events.replay(renderer, 0, events.size());
+    }
+
+    /**
+     * Give the events of blocks [fromBlock, toBlock) to {@code renderer},
+     * without {@link Renderer#body()} and {@link Renderer#done()}
+     */
+    public void replayBlocks(int fromBlock, int toBlock, Renderer renderer){
+        if(fromBlock < 0 || toBlock > getNumOfBlocks() || fromBlock > toBlock)
+            throw new IndexOutOfBoundsException("blocks [" + fromBlock + ", " + toBlock + ") out of " + getNumOfBlocks());
+        if(fromBlock == toBlock)
+            return;
+        events.replay(renderer, events.blockEvent(fromBlock), eventsEnd(toBlock));
+    }
+
+    /**
+     * @return the blocks as a tree, which shares the TextNodes with this result
+     */
+    public Document toDocument(){
+        return DocumentBuilder.build(events, eventsEnd(getNumOfBlocks()));
+    }
+
+    RecordingRenderer events(){
+        return events;
+    }
+
+    char[] source(){
+        return source;
+    }
+
+    int end(){
+        return end;
+    }
+
+    /**
+     * @return the event after the blocks before {@code block}
+     */
+    int eventsEnd(int block){
+        // the last event is done()
+        return block < getNumOfBlocks()? events.blockEvent(block) : events.size() - 1;
+    }
+}
@@ -0,0 +1,382 @@
+package com.vincentcodes.markdown;
+
+import java.util.Arrays;
+
+import com.vincentcodes.markdown.ParseListener.BlockKind;
+import com.vincentcodes.markdown.ParseListener.InlineCounter;
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * <p>
+ * Keeps the events of a parse in order, so that they can be
+ * given to another {@link Renderer} later (see {@link #replay(Renderer, int)}).
+ * <p>
+ * {@link ParseContext} also marks where each block starts in the
+ * source, which tells from which event the replay can begin if
+ * only the blocks from a certain index are wanted.
+ * <p>
+ * It can also keep what is reported about each block, when it is
+ * given to a context as its {@link ParseListener} (see
+ * {@link ParseContext#reportToRecorder()}), and pass it on when the
+ * blocks are replayed (see {@link #replayBlocks(Renderer, int, ParseListener, long)}).
+ */
+final class RecordingRenderer implements Renderer, ParseListener {
+    private static final int NUM_OF_COUNTERS = InlineCounter.values().length;
+
+    private static final int BODY = 0;
+    private static final int DONE = 1;
+    private static final int HR = 2;
+    private static final int H1 = 3; // up to H6 = 8
+    private static final int P = 9;
+    private static final int APPEND = 10;
+    private static final int OL = 11;
+    private static final int UL = 12;
+    private static final int LI = 13;
+    private static final int ENDOL = 14;
+    private static final int ENDUL = 15;
+    private static final int TABLE = 16;
+    private static final int TR = 17;
+    private static final int END_TABLE = 18;
+    private static final int CODEBLOCK = 19;
+    private static final int START_BLOCK_QUOTE = 20;
+    private static final int BLOCKQUOTE = 21;
+    private static final int END_BLOCK_QUOTE = 22;
+
+    private int size;
+    private byte[] ops = new byte[16];
+    private Object[] args = new Object[16];  // TextNode, TextNode[] or String
+    private Object[] langs;                  // codeblock only
+    private int[] levels;                    // blockquote only
+
+    private int numOfBlocks;
+    private int[] blockStarts = new int[16]; // index in source, ascending
+    private int[] blockEvents = new int[16]; // no. of events before the block
+    private long[] blockSteps = new long[16]; // steps of the parse before the block
+
+    // reported about each block, null until something is reported
+    private BlockKind[] blockKinds;
+    private int[] blockChars;
+    private long[] blockNanos;
+    private long[] blockCounts; // NUM_OF_COUNTERS per block
+
+    /**
+     * Called by {@link ParseContext} before a block is parsed
+     * @param steps made by the context so far
+     */
+    void markBlock(int index, long steps){
+        if(numOfBlocks == blockStarts.length){
+            blockStarts = Arrays.copyOf(blockStarts, numOfBlocks * 2);
+            blockEvents = Arrays.copyOf(blockEvents, numOfBlocks * 2);
+            blockSteps = Arrays.copyOf(blockSteps, numOfBlocks * 2);
+            if(blockKinds != null){
+                blockKinds = Arrays.copyOf(blockKinds, numOfBlocks * 2);
+                blockChars = Arrays.copyOf(blockChars, numOfBlocks * 2);
+                blockNanos = Arrays.copyOf(blockNanos, numOfBlocks * 2);
+                blockCounts = Arrays.copyOf(blockCounts, numOfBlocks * 2 * NUM_OF_COUNTERS);
+            }
+        }
+        blockStarts[numOfBlocks] = index;
+        blockSteps[numOfBlocks] = steps;
+        blockEvents[numOfBlocks++] = size;
+    }
+
+    /**
+     * @return the block starting at {@code index}, or 
+     * {@code -(insertion point) - 1} like {@link Arrays#binarySearch(int[], int)}
+     */
+    int findBlock(int index){
+        return Arrays.binarySearch(blockStarts, 0, numOfBlocks, index);
+    }
+
+    int size(){
+        return size;
+    }
+
+    int numOfBlocks(){
+        return numOfBlocks;
+    }
+
+    int blockStart(int block){
+        return blockStarts[block];
+    }
+
+    /**
+     * @return the first event of {@code block}
+     */
+    int blockEvent(int block){
+        return blockEvents[block];
+    }
+
+    /**
+     * @return steps of the parse before {@code block}
+     */
+    long blockSteps(int block){
+        return blockSteps[block];
+    }
+
+    /**
+     * Forget the events and the marks, the arrays are kept
+     */
+    void clear(){
+        Arrays.fill(args, 0, size, null);
+        if(langs != null)
+            Arrays.fill(langs, 0, Math.min(size, langs.length), null);
+        if(blockKinds != null){
+            Arrays.fill(blockKinds, 0, numOfBlocks, null);
+            Arrays.fill(blockCounts, 0, numOfBlocks * NUM_OF_COUNTERS, 0);
+        }
+        size = 0;
+        numOfBlocks = 0;
+    }
+
+    /**
+     * Append the events and the marks of blocks [fromBlock, toBlock) of 
+     * {@code other}. The TextNodes are shared, not copied.
+     * @param eventsEnd the event after the last block of {@code other}
+     * @param shift added to the start of each block
+     */
+    void copyBlocks(RecordingRenderer other, int fromBlock, int toBlock, int eventsEnd, int shift){
+        for(int block = fromBlock; block < toBlock; block++){
+            markBlock(other.blockStarts[block] + shift, other.blockSteps[block]);
+            int end = block + 1 < other.numOfBlocks? other.blockEvents[block + 1] : eventsEnd;
+            for(int i = other.blockEvents[block]; i < end; i++){
+                int event = add(other.ops[i], other.args[i]);
+                if(other.ops[i] == CODEBLOCK)
+                    setLang(event, (String)other.langs[i]);
+                else if(other.ops[i] == BLOCKQUOTE)
+                    setLevel(event, other.levels[i]);
+            }
+        }
+    }
+
+    /**
+     * Invoke the events of the blocks from {@code fromBlock} on {@code renderer}.
+     * What is reported about each block is passed on after its events,
+     * to {@code listener} and as a JFR {@link BlockParseEvent}, whose
+     * duration is the time taken by the renderer.
+     * @param listener can be null
+     * @param documentId of the JFR events
+     */
+    void replayBlocks(Renderer renderer, int fromBlock, ParseListener listener, long documentId){
+        if(blockKinds == null){
+            replay(renderer, blockEvents[fromBlock]);
+            return;
+        }
+        boolean jfr = new BlockParseEvent().isEnabled();
+        long[] counts = new long[NUM_OF_COUNTERS];
+        for(int block = fromBlock; block < numOfBlocks; block++){
+            BlockParseEvent event = null;
+            if(jfr){
+                event = new BlockParseEvent();
+                event.begin();
+            }
+            replay(renderer, blockEvents[block], block + 1 < numOfBlocks? blockEvents[block + 1] : size);
+            if(listener != null)
+                listener.block(blockKinds[block], blockChars[block], blockNanos[block]);
+            if(event != null && event.shouldCommit()){
+                event.documentId = documentId;
+                event.kind = blockKinds[block].name();
+                event.offset = blockStarts[block];
+                event.chars = blockChars[block];
+                event.parseTime = blockNanos[block];
+                event.commit();
+            }
+            for(int counter = 0; counter < NUM_OF_COUNTERS; counter++)
+                counts[counter] += blockCounts[block * NUM_OF_COUNTERS + counter];
+        }
+        if(listener == null)
+            return;
+        for(InlineCounter counter : InlineCounter.values()){
+            if(counts[counter.ordinal()] != 0)
+                listener.inline(counter, counts[counter.ordinal()]);
+        }
+    }
+
+    /**
+     * Invoke the events from {@code fromEvent} (inclusive) on {@code renderer}
+     */
+    void replay(Renderer renderer, int fromEvent){
+        replay(renderer, fromEvent, size);
+    }
+
+    /**
+     * Invoke the events in [fromEvent, toEvent) on {@code renderer}
+     */
+    void replay(Renderer renderer, int fromEvent, int toEvent){
+        for(int i = fromEvent; i < toEvent; i++){
+            Object arg = args[i];
+            switch(ops[i]){
+                case BODY: renderer.body(); break;
+                case DONE: RenderDoneEvent.done(renderer, 0); break;
+                case HR: renderer.hr(); break;
+                case H1: renderer.h1((TextNode)arg); break;
+                case H1 + 1: renderer.h2((TextNode)arg); break;
+                case H1 + 2: renderer.h3((TextNode)arg); break;
+                case H1 + 3: renderer.h4((TextNode)arg); break;
+                case H1 + 4: renderer.h5((TextNode)arg); break;
+                case H1 + 5: renderer.h6((TextNode)arg); break;
+                case P: renderer.p((TextNode)arg); break;
+                case APPEND: renderer.append((String)arg); break;
+                case OL: renderer.ol(); break;
+                case UL: renderer.ul(); break;
+                case LI: renderer.li((TextNode)arg); break;
+                case ENDOL: renderer.endol(); break;
+                case ENDUL: renderer.endul(); break;
+                case TABLE: renderer.table((TextNode[])arg); break;
+                case TR: renderer.tr((TextNode[])arg); break;
+                case END_TABLE: renderer.endTable(); break;
+                case CODEBLOCK: renderer.codeblock((String)arg, (String)langs[i]); break;
+                case START_BLOCK_QUOTE: renderer.startBlockQuote(); break;
+                case BLOCKQUOTE: renderer.blockquote((TextNode)arg, levels[i]); break;
+                case END_BLOCK_QUOTE: renderer.endBlockQuote(); break;
+            }
+        }
+    }
+
+    private void allocateReports(){
+        if(blockKinds != null)
+            return;
+        blockKinds = new BlockKind[blockStarts.length];
+        blockChars = new int[blockStarts.length];
+        blockNanos = new long[blockStarts.length];
+        blockCounts = new long[blockStarts.length * NUM_OF_COUNTERS];
+    }
+
+    /**
+     * Keep the report of the last block which is marked
+     */
+    @Override
+    public void block(BlockKind kind, int chars, long nanos){
+        allocateReports();
+        blockKinds[numOfBlocks - 1] = kind;
+        blockChars[numOfBlocks - 1] = chars;
+        blockNanos[numOfBlocks - 1] = nanos;
+    }
+
+    /**
+     * Add the counts to the last block which is marked
+     */
+    @Override
+    public void inline(InlineCounter counter, long count){
+        allocateReports();
+        blockCounts[(numOfBlocks - 1) * NUM_OF_COUNTERS + counter.ordinal()] += count;
+    }
+
+    private int add(int op, Object arg){
+        if(size == ops.length){
+            ops = Arrays.copyOf(ops, size * 2);
+            args = Arrays.copyOf(args, size * 2);
+        }
+        ops[size] = (byte)op;
+        args[size] = arg;
+        return size++;
+    }
+
+    @Override
+    public void body(){
+        add(BODY, null);
+    }
+    @Override
+    public void done(){
+        add(DONE, null);
+    }
+    @Override
+    public void hr(){
+        add(HR, null);
+    }
+    @Override
+    public void h1(TextNode texts){
+        add(H1, texts);
+    }
+    @Override
+    public void h2(TextNode texts){
+        add(H1 + 1, texts);
+    }
+    @Override
+    public void h3(TextNode texts){
+        add(H1 + 2, texts);
+    }
+    @Override
+    public void h4(TextNode texts){
+        add(H1 + 3, texts);
+    }
+    @Override
+    public void h5(TextNode texts){
+        add(H1 + 4, texts);
+    }
+    @Override
+    public void h6(TextNode texts){
+        add(H1 + 5, texts);
+    }
+    @Override
+    public void p(TextNode texts){
+        add(P, texts);
+    }
+    @Override
+    public void append(String text){
+        add(APPEND, text);
+    }
+    @Override
+    public void ol(){
+        add(OL, null);
+    }
+    @Override
+    public void ul(){
+        add(UL, null);
+    }
+    @Override
+    public void li(TextNode text){
+        add(LI, text);
+    }
+    @Override
+    public void endol(){
+        add(ENDOL, null);
+    }
+    @Override
+    public void endul(){
+        add(ENDUL, null);
+    }
+    @Override
+    public void table(TextNode[] headings){
+        add(TABLE, headings);
+    }
+    @Override
+    public void tr(TextNode[] rowEntries){
+        add(TR, rowEntries);
+    }
+    @Override
+    public void endTable(){
+        add(END_TABLE, null);
+    }
+    @Override
+    public void codeblock(String text, String lang){
+        setLang(add(CODEBLOCK, text), lang);
+    }
+    private void setLang(int event, String lang){
+        if(langs == null)
+            langs = new Object[ops.length];
+        else if(langs.length < ops.length)
+            langs = Arrays.copyOf(langs, ops.length);
+        langs[event] = lang;
+    }
+    @Override
+    public void startBlockQuote(){
+        add(START_BLOCK_QUOTE, null);
+    }
+    @Override
+    public void blockquote(TextNode text, int level){
+        setLevel(add(BLOCKQUOTE, text), level);
+    }
+    private void setLevel(int event, int level){
+        if(levels == null)
+            levels = new int[ops.length];
+        else if(levels.length < ops.length)
+            levels = Arrays.copyOf(levels, ops.length);
+        levels[event] = level;
+    }
+    @Override
+    public void endBlockQuote(){
+        add(END_BLOCK_QUOTE, null);
+    }
+}
@@ -0,0 +1,40 @@
+package com.vincentcodes.markdown;
+
+import com.vincentcodes.markdown.renderer.Renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of {@link Renderer#done()}, where most renderers
+ * write their output (eg. a Word document)
+ */
+@Name("com.vincentcodes.markdown.RenderDone")
+@Label("Markdown Renderer Done")
+@Category("JMarkdown")
+final class RenderDoneEvent extends Event {
+    @Label("Document Id")
+    @Description("0 if the events are replayed")
+    long documentId;
+
+    @Label("Renderer")
+    Class<?> renderer;
+
+    /**
+     * Call {@code renderer.done()} within the event
+     * @param documentId 0 if it is not known
+     */
+    static void done(Renderer renderer, long documentId){
+        RenderDoneEvent event = new RenderDoneEvent();
+        event.begin();
+        renderer.done();
+        if(event.shouldCommit()){
+            event.documentId = documentId;
+            event.renderer = renderer.getClass();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.vincentcodes.markdown;
+
+import com.vincentcodes.markdown.inline.TextSpan;
+
+/**
+ * <p>
+ * Collects the chars of one {@link com.vincentcodes.markdown.inline.TextGroup}
+ * during {@link ParseContext#parseText()}.
+ * <p>
+ * Most of the time the chars are just a piece of the source (with
+ * lines joined by a space), so only the start and the end are
+ * recorded and the value becomes a {@link TextSpan} without any
+ * copying. The chars are copied into a StringBuilder once they stop
+ * being contiguous, eg. after an escaped char.
+ */
+class TextBuffer {
+    private MarkdownSource text;
+
+    // [start, end) of the source while nothing is copied, start is -1 if empty
+    private int start = -1;
+    private int end = -1;
+    private boolean joinsLines;   // a '\n' is read as ' '
+    private boolean keepsNewLine; // a '\n' is kept as is
+
+    private final StringBuilder copy = new StringBuilder();
+    private boolean copied;
+
+    void reset(MarkdownSource text){
+        this.text = text;
+        clear();
+    }
+
+    void clear(){
+        start = end = -1;
+        joinsLines = keepsNewLine = false;
+        copy.setLength(0);
+        copied = false;
+    }
+
+    /**
+     * Append the char at {@code index} of the source
+     */
+    void appendSource(int index){
+        char c = text.charAt(index);
+        if(!copied){
+            boolean newLine = c == '\n';
+            if(start == -1){
+                start = index;
+                end = index + 1;
+                keepsNewLine = newLine;
+                return;
+            }
+            if(index == end && !(newLine && joinsLines)){
+                end++;
+                keepsNewLine |= newLine;
+                return;
+            }
+            copyOut();
+        }
+        copy.append(c);
+    }
+
+    /**
+     * Append [start, end) of the source
+     */
+    void appendSource(int start, int end){
+        for(int i = start; i < end; i++)
+            appendSource(i);
+    }
+
+    /**
+     * Append the '\n' at {@code index} of the source as ' '
+     */
+    void appendNewLineAsSpace(int index){
+        if(!copied){
+            if(start == -1){
+                start = index;
+                end = index + 1;
+                joinsLines = true;
+                return;
+            }
+            if(index == end && !keepsNewLine){
+                end++;
+                joinsLines = true;
+                return;
+            }
+            copyOut();
+        }
+        copy.append(' ');
+    }
+
+    /**
+     * Remove the last {@code n} chars
+     */
+    void deleteLast(int n){
+        if(n > length())
+            throw new StringIndexOutOfBoundsException("cannot delete " + n + " chars out of " + length());
+        if(copied){
+            copy.setLength(copy.length() - n);
+            return;
+        }
+        end -= n;
+        if(end == start)
+            clear();
+    }
+
+    int length(){
+        if(copied)
+            return copy.length();
+        return start == -1? 0 : end - start;
+    }
+
+    /**
+     * Same as {@code toString().trim().isEmpty()}
+     */
+    boolean isBlank(){
+        if(copied){
+            for(int i = 0; i < copy.length(); i++){
+                if(copy.charAt(i) > ' ')
+                    return false;
+            }
+            return true;
+        }
+        for(int i = start; i < end && start != -1; i++){
+            if(text.charAt(i) > ' ')
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return a span of the source if possible, otherwise a String
+     */
+    CharSequence toValue(){
+        if(copied)
+            return copy.toString();
+        if(start == -1)
+            return "";
+        return text.span(start, end, joinsLines);
+    }
+
+    @Override
+    public String toString(){
+        return toValue().toString();
+    }
+
+    private void copyOut(){
+        for(int i = start; i < end && start != -1; i++){
+            char c = text.charAt(i);
+            copy.append(joinsLines && c == '\n'? ' ' : c);
+        }
+        copied = true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.vincentcodes.markdown.ast;
+
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * A node of a {@link Document}. Each block gives the same 
+ * {@link Renderer} calls as the parser did when it was parsed.
+ */
+public abstract class Block {
+    Block(){}
+
+    public abstract void replay(Renderer renderer);
+}
@@ -0,0 +1,63 @@
+package com.vincentcodes.markdown.ast;
+
+import java.util.List;
+
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * Consecutive lines starting with '&gt;'. Lines of the
+ * same level are combined into one {@link Line}.
+ */
+public final class BlockQuote extends Block {
+    public static final class Line {
+        private final TextNode text;
+        private final int level;
+
+        /**
+         * @param level no. of '&gt;', starting from 1
+         * @param text is frozen, see {@link TextNode#freeze()}
+         */
+        public Line(TextNode text, int level){
+            text.freeze();
+            this.text = text;
+            this.level = level;
+        }
+
+        public TextNode getText(){
+            return text;
+        }
+
+        public int getLevel(){
+            return level;
+        }
+
+        @Override
+        public String toString(){
+            return "(" + level + "): " + text;
+        }
+    }
+
+    private final List<Line> lines;
+
+    public BlockQuote(List<Line> lines){
+        this.lines = List.copyOf(lines);
+    }
+
+    public List<Line> getLines(){
+        return lines;
+    }
+
+    @Override
+    public void replay(Renderer renderer){
+        renderer.startBlockQuote();
+        for(Line line : lines)
+            renderer.blockquote(line.text, line.level);
+        renderer.endBlockQuote();
+    }
+
+    @Override
+    public String toString(){
+        return "BlockQuote" + lines;
+    }
+}
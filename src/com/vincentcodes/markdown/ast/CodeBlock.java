@@ -0,0 +1,34 @@
+package com.vincentcodes.markdown.ast;
+
+import com.vincentcodes.markdown.renderer.Renderer;
+
+public final class CodeBlock extends Block {
+    private final String code;
+    private final String lang;
+
+    /**
+     * @param lang empty if it is not given
+     */
+    public CodeBlock(String code, String lang){
+        this.code = code;
+        this.lang = lang;
+    }
+
+    public String getCode(){
+        return code;
+    }
+
+    public String getLang(){
+        return lang;
+    }
+
+    @Override
+    public void replay(Renderer renderer){
+        renderer.codeblock(code, lang);
+    }
+
+    @Override
+    public String toString(){
+        return "CodeBlock(" + lang + "): " + code;
+    }
+}
@@ -0,0 +1,46 @@
+package com.vincentcodes.markdown.ast;
+
+import java.util.List;
+
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * <p>
+ * A parsed markdown text as a list of blocks, see 
+ * {@link com.vincentcodes.markdown.MarkdownParser#parseDocument(String)}.
+ * It can be rendered as many times as needed, by any
+ * {@link Renderer}, without parsing the text again.
+ * <p>
+ * The document and its blocks cannot be changed, their TextNodes
+ * are frozen (see {@link com.vincentcodes.markdown.inline.TextNode#freeze()}).
+ * So one document can be replayed by many threads at the same time.
+ * A {@link com.vincentcodes.markdown.inline.TextGroup} read from a
+ * node is a copy, changing it does not change the document.
+ */
+public final class Document {
+    private final List<Block> blocks;
+
+    public Document(List<? extends Block> blocks){
+        this.blocks = List.copyOf(blocks);
+    }
+
+    public List<Block> getBlocks(){
+        return blocks;
+    }
+
+    /**
+     * Give {@code renderer} the same calls as 
+     * {@link com.vincentcodes.markdown.MarkdownParser#parse(String, Renderer)}
+     */
+    public void replay(Renderer renderer){
+        renderer.body();
+        for(Block block : blocks)
+            block.replay(renderer);
+        renderer.done();
+    }
+
+    @Override
+    public String toString(){
+        return "Document" + blocks;
+    }
+}
@@ -0,0 +1,46 @@
+package com.vincentcodes.markdown.ast;
+
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+public final class Heading extends Block {
+    private final int level;
+    private final TextNode text;
+
+    /**
+     * @param level 1 to 6
+     * @param text is frozen, see {@link TextNode#freeze()}
+     */
+    public Heading(int level, TextNode text){
+        if(level < 1 || level > 6)
+            throw new IllegalArgumentException("Heading level must be within 1 to 6, got " + level);
+        text.freeze();
+        this.level = level;
+        this.text = text;
+    }
+
+    public int getLevel(){
+        return level;
+    }
+
+    public TextNode getText(){
+        return text;
+    }
+
+    @Override
+    public void replay(Renderer renderer){
+        switch(level){
+            case 1: renderer.h1(text); break;
+            case 2: renderer.h2(text); break;
+            case 3: renderer.h3(text); break;
+            case 4: renderer.h4(text); break;
+            case 5: renderer.h5(text); break;
+            default: renderer.h6(text); break;
+        }
+    }
+
+    @Override
+    public String toString(){
+        return "Heading(" + level + "): " + text;
+    }
+}
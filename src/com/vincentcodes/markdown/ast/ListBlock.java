@@ -0,0 +1,88 @@
+package com.vincentcodes.markdown.ast;
+
+import java.util.List;
+
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * <p>
+ * An ordered or unordered list. The items are {@link ListItem}s,
+ * a nested list follows the item it belongs to.
+ * <p>
+ * The parser closes a nested list by the kind of the last opened 
+ * one, so it may be closed as the other kind, not at all (eg. the
+ * indent is increased twice then dropped once) or more than once.
+ * It may even go on with items after the list is closed, which
+ * become a list that is not opened (see {@link #isOpened()}).
+ * These are kept, so that a replay gives the same calls.
+ */
+public final class ListBlock extends Block {
+    public enum End {
+        ORDERED, UNORDERED
+    }
+
+    private final boolean ordered;
+    private final List<Block> items;
+    private final List<End> ends;
+    private final boolean opened;
+
+    public ListBlock(boolean ordered, List<? extends Block> items){
+        this(ordered, items, List.of(ordered? End.ORDERED : End.UNORDERED), true);
+    }
+
+    /**
+     * @param ends the calls to close the list after the items
+     * @param opened false if the list is not started by {@link Renderer#ol()} or {@link Renderer#ul()}
+     */
+    public ListBlock(boolean ordered, List<? extends Block> items, List<End> ends, boolean opened){
+        for(Block item : items){
+            if(!(item instanceof ListItem || item instanceof ListBlock))
+                throw new IllegalArgumentException("A list can only contain items and lists, got " + item);
+        }
+        this.ordered = ordered;
+        this.items = List.copyOf(items);
+        this.ends = List.copyOf(ends);
+        this.opened = opened;
+    }
+
+    public boolean isOrdered(){
+        return ordered;
+    }
+
+    /**
+     * @return {@link ListItem}s and nested {@link ListBlock}s in order
+     */
+    public List<Block> getItems(){
+        return items;
+    }
+
+    public boolean isOpened(){
+        return opened;
+    }
+
+    /**
+     * @return usually one end of the same kind as the list
+     */
+    public List<End> getEnds(){
+        return ends;
+    }
+
+    @Override
+    public void replay(Renderer renderer){
+        if(opened){
+            if(ordered) renderer.ol();
+            else renderer.ul();
+        }
+        for(Block item : items)
+            item.replay(renderer);
+        for(End end : ends){
+            if(end == End.ORDERED) renderer.endol();
+            else renderer.endul();
+        }
+    }
+
+    @Override
+    public String toString(){
+        return (ordered? "OrderedList" : "UnorderedList") + items;
+    }
+}
@@ -0,0 +1,33 @@
+package com.vincentcodes.markdown.ast;
+
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * Only found inside a {@link ListBlock}
+ */
+public final class ListItem extends Block {
+    private final TextNode text;
+
+    /**
+     * @param text is frozen, see {@link TextNode#freeze()}
+     */
+    public ListItem(TextNode text){
+        text.freeze();
+        this.text = text;
+    }
+
+    public TextNode getText(){
+        return text;
+    }
+
+    @Override
+    public void replay(Renderer renderer){
+        renderer.li(text);
+    }
+
+    @Override
+    public String toString(){
+        return "ListItem: " + text;
+    }
+}
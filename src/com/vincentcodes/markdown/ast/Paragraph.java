@@ -0,0 +1,30 @@
+package com.vincentcodes.markdown.ast;
+
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+public final class Paragraph extends Block {
+    private final TextNode text;
+
+    /**
+     * @param text is frozen, see {@link TextNode#freeze()}
+     */
+    public Paragraph(TextNode text){
+        text.freeze();
+        this.text = text;
+    }
+
+    public TextNode getText(){
+        return text;
+    }
+
+    @Override
+    public void replay(Renderer renderer){
+        renderer.p(text);
+    }
+
+    @Override
+    public String toString(){
+        return "Paragraph: " + text;
+    }
+}
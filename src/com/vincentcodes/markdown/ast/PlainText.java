@@ -0,0 +1,29 @@
+package com.vincentcodes.markdown.ast;
+
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * Text given to {@link Renderer#append(String)}, eg. a line
+ * of more than 6 '#'
+ */
+public final class PlainText extends Block {
+    private final String text;
+
+    public PlainText(String text){
+        this.text = text;
+    }
+
+    public String getText(){
+        return text;
+    }
+
+    @Override
+    public void replay(Renderer renderer){
+        renderer.append(text);
+    }
+
+    @Override
+    public String toString(){
+        return "PlainText: " + text;
+    }
+}
@@ -0,0 +1,48 @@
+package com.vincentcodes.markdown.ast;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+public final class Table extends Block {
+    private final List<TextNode> headings;
+    private final List<List<TextNode>> rows;
+
+    /**
+     * The cells are frozen, see {@link TextNode#freeze()}
+     */
+    public Table(List<TextNode> headings, List<? extends List<TextNode>> rows){
+        this.headings = List.copyOf(headings);
+        headings.forEach(TextNode::freeze);
+        List<List<TextNode>> copy = new ArrayList<>(rows.size());
+        for(List<TextNode> row : rows){
+            copy.add(List.copyOf(row));
+            row.forEach(TextNode::freeze);
+        }
+        this.rows = List.copyOf(copy);
+    }
+
+    public List<TextNode> getHeadings(){
+        return headings;
+    }
+
+    public List<List<TextNode>> getRows(){
+        return rows;
+    }
+
+    @Override
+    public void replay(Renderer renderer){
+        // arrays are given to the renderer, a new one for each call
+        renderer.table(headings.toArray(new TextNode[0]));
+        for(List<TextNode> row : rows)
+            renderer.tr(row.toArray(new TextNode[0]));
+        renderer.endTable();
+    }
+
+    @Override
+    public String toString(){
+        return "Table" + headings + rows;
+    }
+}
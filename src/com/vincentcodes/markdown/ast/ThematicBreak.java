@@ -0,0 +1,22 @@
+package com.vincentcodes.markdown.ast;
+
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * {@code ---}
+ */
+public final class ThematicBreak extends Block {
+    public static final ThematicBreak INSTANCE = new ThematicBreak();
+
+    private ThematicBreak(){}
+
+    @Override
+    public void replay(Renderer renderer){
+        renderer.hr();
+    }
+
+    @Override
+    public String toString(){
+        return "ThematicBreak";
+    }
+}
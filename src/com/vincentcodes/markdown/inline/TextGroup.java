@@ -10,39 +10,91 @@ package com.vincentcodes.markdown.inline;
  * </pre>
  */
 public class TextGroup {
-    // I can create some properties class and a List<Prop> to make it scale better
-    public boolean isStrong = false;
-    public boolean isEmphasis = false;
-    public boolean isStrikeThrough = false;
-    
-    public boolean isCode = false;
-    public boolean isLink = false;
-    public boolean isImage = false;
+    // shared instance, see TextStyle.of()
+    private TextStyle style = TextStyle.NONE;
 
-    public String value;
+    // either a String or a span of the markdown source (see TextSpan)
+    private CharSequence value;
     
     public String desc; // for link / image
     public String url; // for link / image
 
+    public TextGroup(){}
+
+    public TextGroup(TextStyle style, CharSequence value){
+        this.style = style;
+        this.value = value;
+    }
+
+    public TextStyle getStyle(){
+        return style;
+    }
+
+    public void setStyle(TextStyle style){
+        this.style = style;
+    }
+
+    public boolean isStrong(){
+        return style.isStrong();
+    }
+    public boolean isEmphasis(){
+        return style.isEmphasis();
+    }
+    public boolean isStrikeThrough(){
+        return style.isStrikeThrough();
+    }
+    public boolean isCode(){
+        return style.isCode();
+    }
+    public boolean isLink(){
+        return style.isLink();
+    }
+    public boolean isImage(){
+        return style.isImage();
+    }
+
+    /**
+     * The String is created on the first call, if the 
+     * value is still a span of the markdown source.
+     * Renderers which only write the chars out should
+     * use {@link #getText()} instead.
+     */
+    public String getValue(){
+        if(value == null || value instanceof String)
+            return (String)value;
+        String str = value.toString();
+        value = str;
+        return str;
+    }
+
+    /**
+     * @return the value without copying, null if there is none
+     */
+    public CharSequence getText(){
+        return value;
+    }
+
+    public void setValue(CharSequence value){
+        this.value = value;
+    }
+
+    /**
+     * Same as {@code setValue(getValue().trim())}, but a span
+     * stays a span
+     */
+    public void trimValue(){
+        if(value instanceof TextSpan)
+            value = ((TextSpan)value).trim();
+        else if(value != null)
+            value = value.toString().trim();
+    }
+
     public void resetStyles(){
-        this.isStrong = false;
-        this.isEmphasis = false;
-        this.isStrikeThrough = false;
-        this.isCode = false;
-        this.isLink = false;
-        this.isImage = false;
+        this.style = TextStyle.NONE;
     }
 
     public TextGroup copy(){
-        TextGroup newGroup = new TextGroup();
-        newGroup.isStrong = this.isStrong;
-        newGroup.isEmphasis = this.isEmphasis;
-        newGroup.isStrikeThrough = this.isStrikeThrough;
-        newGroup.isCode = this.isCode;
-        newGroup.isLink = this.isLink;
-        newGroup.isImage = this.isImage;
-        newGroup.value = this.value;
-        return newGroup;
+        return new TextGroup(style, value);
     }
 
     public String toString(){
@@ -51,17 +103,12 @@ public class TextGroup {
 
     public static String toString(TextGroup group){
         StringBuilder str = new StringBuilder("{TextGroup ");
-        if(group.isStrong) str.append("strong ");
-        if(group.isEmphasis) str.append("em ");
-        if(group.isStrikeThrough) str.append("strike ");
-        if(group.isCode) str.append("code ");
-        if(group.isLink) str.append("link ");
-        if(group.isImage) str.append("image ");
+        str.append(group.style);
         if(group.desc != null)
             str.append("desc:'" + group.desc + "' ");
         if(group.url != null)
             str.append("url:'" + group.url + "' ");
-        str.append("value:'" + group.value + "'}");
+        str.append("value:'" + group.getValue() + "'}");
         return str.toString();
     }
 }
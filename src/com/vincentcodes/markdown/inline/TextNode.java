@@ -1,7 +1,9 @@
 package com.vincentcodes.markdown.inline;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * <p>
@@ -10,19 +12,256 @@ import java.util.List;
  * TextNode.groups[TextGroup, TextGroup, TextGroup]
  * <p>
  * // Props:       em       ; em,strong; strong
+ * <p>
+ * The groups are stored in parallel arrays (style bits, start and end
+ * of the value inside the markdown source, index of the link) instead
+ * of one object per group. Renderers should read them by index, eg.
+ * {@link #getStyle(int)} and {@link #getText(int)}. {@link #groups} is
+ * still there for existing code, a {@link TextGroup} is only created
+ * when it is read from the list.
+ * <p>
+ * A node can be made read-only with {@link #freeze()}, eg. the nodes
+ * of a {@link com.vincentcodes.markdown.ast.Document}. A frozen node 
+ * is safe to read from many threads.
  */
 public class TextNode {
-    public List<TextGroup> groups;
+    private static final int STYLE_MASK = TextStyle.NUM_OF_STYLES - 1;
+    private static final int VALUE_SPAN = 1 << 8;  // value is [start, end) of source
+    private static final int VALUE_REF = 1 << 9;   // value is refs[start]
+    private static final int JOINS_LINES = 1 << 10;
+    private static final int[] NO_INTS = new int[0];
 
-    public TextNode(){
-        groups = new ArrayList<>();
-    }
+    /**
+     * Object view of the groups. Changes made to a TextGroup
+     * read from it are seen by the index based getters too.
+     */
+    public final List<TextGroup> groups = new GroupList();
+
+    private int size;
+    private int[] flags = NO_INTS; // style bits | VALUE_SPAN / VALUE_REF | JOINS_LINES
+    private int[] starts = NO_INTS;
+    private int[] ends = NO_INTS;
+    private int[] links = NO_INTS; // index of desc inside refs (url is right after it), -1 if none
+    private char[] source;         // shared by all spans of this node
+    private Object[] refs;         // values which are not spans of source, desc and url
+    private int refCount;
+    private TextGroup[] views;     // groups which have been read as objects
+    private boolean frozen;
+
+    public TextNode(){}
 
     public void add(TextGroup group){
-        groups.add(group);
+        int i = add(group.getStyle(), group.getText());
+        if(group.desc != null || group.url != null){
+            links[i] = addRef(group.desc);
+            addRef(group.url);
+        }
+        view(i, group);
+    }
+
+    /**
+     * @return index of the new group
+     */
+    public int add(TextStyle style, CharSequence value){
+        checkNotFrozen();
+        int i = grow();
+        int flag = style.bits();
+        if(value instanceof TextSpan && (source == null || ((TextSpan)value).source() == source)){
+            TextSpan span = (TextSpan)value;
+            source = span.source();
+            starts[i] = span.getOffset();
+            ends[i] = span.getOffset() + span.length();
+            flag |= VALUE_SPAN | (span.isJoiningLines()? JOINS_LINES : 0);
+        }else if(value != null){
+            starts[i] = addRef(value);
+            flag |= VALUE_REF;
+        }
+        flags[i] = flag;
+        links[i] = -1;
+        return i;
+    }
+
+    /**
+     * A link or an image, which has no value
+     * @return index of the new group
+     */
+    public int addLink(TextStyle style, String desc, String url){
+        int i = add(style, null);
+        links[i] = addRef(desc);
+        addRef(url);
+        return i;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public TextStyle getStyle(int index){
+        TextGroup view = view(index);
+        if(view != null)
+            return view.getStyle();
+        return TextStyle.of(flags[index] & STYLE_MASK);
+    }
+
+    /**
+     * @return the value without copying, null if there is none
+     * @see TextGroup#getText()
+     */
+    public CharSequence getText(int index){
+        TextGroup view = view(index);
+        if(view != null)
+            return view.getText();
+        int flag = flags[index];
+        if((flag & VALUE_SPAN) != 0)
+            return new TextSpan(source, starts[index], ends[index] - starts[index], (flag & JOINS_LINES) != 0);
+        if((flag & VALUE_REF) != 0)
+            return (CharSequence)refs[starts[index]];
+        return null;
+    }
+
+    public String getDesc(int index){
+        TextGroup view = view(index);
+        if(view != null)
+            return view.desc;
+        return links[index] == -1? null : (String)refs[links[index]];
+    }
+
+    public String getUrl(int index){
+        TextGroup view = view(index);
+        if(view != null)
+            return view.url;
+        return links[index] == -1? null : (String)refs[links[index] + 1];
+    }
+
+    /**
+     * @see TextGroup#trimValue()
+     */
+    public void trimValue(int index){
+        checkNotFrozen();
+        TextGroup view = view(index);
+        if(view != null){
+            view.trimValue();
+            return;
+        }
+        int flag = flags[index];
+        if((flag & VALUE_SPAN) != 0){
+            while(starts[index] < ends[index] && source[starts[index]] <= ' ')
+                starts[index]++;
+            while(ends[index] > starts[index] && source[ends[index] - 1] <= ' ')
+                ends[index]--;
+        }else if((flag & VALUE_REF) != 0){
+            CharSequence value = (CharSequence)refs[starts[index]];
+            refs[starts[index]] = value instanceof TextSpan? ((TextSpan)value).trim() : value.toString().trim();
+        }
+    }
+
+    /**
+     * Creates the TextGroup once, the same object is returned afterwards.
+     * If the node is frozen, a new copy is returned each time instead.
+     */
+    public TextGroup get(int index){
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        TextGroup view = view(index);
+        if(view == null){
+            view = new TextGroup(getStyle(index), getText(index));
+            view.desc = getDesc(index);
+            view.url = getUrl(index);
+            if(!frozen)
+                view(index, view);
+        }
+        return view;
+    }
+
+    /**
+     * Make the node read-only. Adding or trimming a group throws
+     * {@link UnsupportedOperationException} afterwards, and changes
+     * made to a group read by {@link #get(int)} are not seen by the node.
+     */
+    public void freeze(){
+        if(frozen)
+            return;
+        if(views != null){
+            // the groups read as objects may have been changed, their state goes into the arrays
+            for(int i = 0; i < size; i++){
+                TextGroup view = views[i];
+                if(view == null)
+                    continue;
+                CharSequence value = view.getText();
+                flags[i] = view.getStyle().bits() | (value != null? VALUE_REF : 0);
+                if(value != null)
+                    starts[i] = addRef(value);
+                links[i] = -1;
+                if(view.desc != null || view.url != null){
+                    links[i] = addRef(view.desc);
+                    addRef(view.url);
+                }
+            }
+            views = null;
+        }
+        frozen = true;
+    }
+
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    private void checkNotFrozen(){
+        if(frozen)
+            throw new UnsupportedOperationException("The text node is frozen");
+    }
+
+    private TextGroup view(int index){
+        return views == null? null : views[index];
+    }
+
+    private void view(int index, TextGroup group){
+        if(views == null)
+            views = new TextGroup[flags.length];
+        else if(views.length < flags.length)
+            views = Arrays.copyOf(views, flags.length);
+        views[index] = group;
+    }
+
+    private int grow(){
+        if(size == flags.length){
+            int newLength = Math.max(4, size * 2);
+            flags = Arrays.copyOf(flags, newLength);
+            starts = Arrays.copyOf(starts, newLength);
+            ends = Arrays.copyOf(ends, newLength);
+            links = Arrays.copyOf(links, newLength);
+        }
+        return size++;
+    }
+
+    private int addRef(Object ref){
+        if(refs == null)
+            refs = new Object[4];
+        else if(refCount == refs.length)
+            refs = Arrays.copyOf(refs, refCount * 2);
+        refs[refCount] = ref;
+        return refCount++;
     }
 
     public String toString(){
         return groups.toString();
     }
+
+    private class GroupList extends AbstractList<TextGroup> implements RandomAccess {
+        @Override
+        public TextGroup get(int index){
+            return TextNode.this.get(index);
+        }
+
+        @Override
+        public int size(){
+            return size;
+        }
+
+        @Override
+        public boolean add(TextGroup group){
+            TextNode.this.add(group);
+            return true;
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package com.vincentcodes.markdown.inline;
+
+/**
+ * <p>
+ * A piece of the markdown source used as the value of a
+ * {@link TextGroup} without copying it. The chars are only
+ * turned into a String when {@link #toString()} is called.
+ * <p>
+ * Lines of a paragraph are joined by a space, so a span can
+ * be told to read every '\n' as ' ' (see {@link #isJoiningLines()}).
+ * <p>
+ * The array must not be modified after a span is created
+ * on top of it.
+ */
+public final class TextSpan implements CharSequence {
+    private final char[] source;
+    private final int offset;
+    private final int length;
+    private final boolean joinLines;
+
+    /**
+     * @param joinLines read '\n' as ' '
+     */
+    public TextSpan(char[] source, int offset, int length, boolean joinLines){
+        if(offset < 0 || length < 0 || offset + length > source.length)
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", source " + source.length);
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        this.joinLines = joinLines;
+    }
+
+    public boolean isJoiningLines(){
+        return joinLines;
+    }
+
+    // for TextNode, which stores spans as offsets
+    char[] source(){
+        return source;
+    }
+
+    /**
+     * @return index of the first char inside the array of the span
+     */
+    public int getOffset(){
+        return offset;
+    }
+
+    /**
+     * @return true if the span is on top of {@code array}
+     */
+    public boolean isPieceOf(char[] array){
+        return source == array;
+    }
+
+    @Override
+    public int length(){
+        return length;
+    }
+
+    @Override
+    public char charAt(int index){
+        if(index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        char c = source[offset + index];
+        return joinLines && c == '\n'? ' ' : c;
+    }
+
+    @Override
+    public TextSpan subSequence(int start, int end){
+        if(start < 0 || end > length || start > end)
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        return new TextSpan(source, offset + start, end - start, joinLines);
+    }
+
+    /**
+     * Same as {@code String.trim()}
+     */
+    public TextSpan trim(){
+        int start = 0, end = length;
+        while(start < end && source[offset + start] <= ' ')
+            start++;
+        while(end > start && source[offset + end - 1] <= ' ')
+            end--;
+        return start == 0 && end == length? this : subSequence(start, end);
+    }
+
+    /**
+     * @return true if every char is removed by {@code String.trim()}
+     */
+    public boolean isBlank(){
+        for(int i = offset; i < offset + length; i++){
+            if(source[i] > ' ')
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Copies [start, end) in bulk, without creating a String
+     */
+    public void appendTo(StringBuilder builder, int start, int end){
+        if(start < 0 || end > length || start > end)
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        if(!joinLines){
+            builder.append(source, offset + start, end - start);
+            return;
+        }
+        int runStart = offset + start;
+        for(int i = runStart; i < offset + end; i++){
+            if(source[i] == '\n'){
+                builder.append(source, runStart, i - runStart).append(' ');
+                runStart = i + 1;
+            }
+        }
+        builder.append(source, runStart, offset + end - runStart);
+    }
+
+    @Override
+    public String toString(){
+        String str = new String(source, offset, length);
+        return joinLines? str.replace('\n', ' ') : str;
+    }
+}
@@ -0,0 +1,91 @@
+package com.vincentcodes.markdown.inline;
+
+/**
+ * <p>
+ * Styles of a {@link TextGroup} packed into an int. There are only
+ * 64 combinations, so every combination has one shared instance
+ * (see {@link #of(int)}) and changing a style never allocates.
+ * <p>
+ * Renderers can diff two styles with bit operations, eg.
+ * <pre>
+ * int toClose = current.bits() &amp; ~next.bits();
+ * int toOpen  = next.bits() &amp; ~current.bits();
+ * </pre>
+ */
+public final class TextStyle {
+    public static final int STRONG = 1;
+    public static final int EMPHASIS = 1 << 1;
+    public static final int STRIKE_THROUGH = 1 << 2;
+    public static final int CODE = 1 << 3;
+    public static final int LINK = 1 << 4;
+    public static final int IMAGE = 1 << 5;
+    public static final int NUM_OF_STYLES = 1 << 6;
+
+    private static final TextStyle[] STYLES = new TextStyle[NUM_OF_STYLES];
+    static{
+        for(int i = 0; i < NUM_OF_STYLES; i++)
+            STYLES[i] = new TextStyle(i);
+    }
+    public static final TextStyle NONE = STYLES[0];
+
+    private final int bits;
+
+    private TextStyle(int bits){
+        this.bits = bits;
+    }
+
+    /**
+     * @return the shared instance of the combination
+     */
+    public static TextStyle of(int bits){
+        if(bits < 0 || bits >= NUM_OF_STYLES)
+            throw new IllegalArgumentException("Invalid style bits: " + bits);
+        return STYLES[bits];
+    }
+
+    public int bits(){
+        return bits;
+    }
+
+    public boolean has(int style){
+        return (bits & style) != 0;
+    }
+
+    public TextStyle with(int style){
+        return STYLES[bits | style];
+    }
+
+    public TextStyle without(int style){
+        return STYLES[bits & ~style];
+    }
+
+    public boolean isStrong(){
+        return has(STRONG);
+    }
+    public boolean isEmphasis(){
+        return has(EMPHASIS);
+    }
+    public boolean isStrikeThrough(){
+        return has(STRIKE_THROUGH);
+    }
+    public boolean isCode(){
+        return has(CODE);
+    }
+    public boolean isLink(){
+        return has(LINK);
+    }
+    public boolean isImage(){
+        return has(IMAGE);
+    }
+
+    public String toString(){
+        StringBuilder str = new StringBuilder();
+        if(isStrong()) str.append("strong ");
+        if(isEmphasis()) str.append("em ");
+        if(isStrikeThrough()) str.append("strike ");
+        if(isCode()) str.append("code ");
+        if(isLink()) str.append("link ");
+        if(isImage()) str.append("image ");
+        return str.toString();
+    }
+}
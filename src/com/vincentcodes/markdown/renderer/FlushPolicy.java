@@ -0,0 +1,41 @@
+package com.vincentcodes.markdown.renderer;
+
+/**
+ * When a streaming {@link HtmlRenderer} flushes its output. The 
+ * output is written out every few KB whatever the policy is, so 
+ * the memory used stays the same, but it may be held by the stream 
+ * until it is flushed.
+ */
+public final class FlushPolicy {
+    /**
+     * Flush once, in {@link HtmlRenderer#done()}
+     */
+    public static final FlushPolicy AT_END = new FlushPolicy(false, Long.MAX_VALUE);
+    /**
+     * Flush after each block, list item and table row
+     */
+    public static final FlushPolicy EACH_BLOCK = new FlushPolicy(true, 0);
+
+    private final boolean eachBlock;
+    private final long chars;
+
+    private FlushPolicy(boolean eachBlock, long chars){
+        this.eachBlock = eachBlock;
+        this.chars = chars;
+    }
+
+    /**
+     * Flush at the end of the first block after {@code chars} chars
+     * (about the same no. of bytes for mostly ASCII text) are written
+     * since the last flush
+     */
+    public static FlushPolicy everyChars(long chars){
+        if(chars <= 0)
+            throw new IllegalArgumentException("No. of chars must be positive");
+        return new FlushPolicy(false, chars);
+    }
+
+    boolean shouldFlush(long unflushedChars){
+        return eachBlock || unflushedChars >= chars;
+    }
+}
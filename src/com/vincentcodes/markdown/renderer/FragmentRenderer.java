@@ -0,0 +1,29 @@
+package com.vincentcodes.markdown.renderer;
+
+/**
+ * A renderer whose output of a block can be kept and written
+ * again later without rendering the block, see 
+ * {@link com.vincentcodes.markdown.BlockRenderCache}.
+ */
+public interface FragmentRenderer extends Renderer {
+    /**
+     * Called before a block is rendered
+     * @return where the output of the block starts, -1 if the
+     * block may depend on what is rendered before it
+     */
+    int startFragment();
+
+    /**
+     * Called after a block is rendered
+     * @param start returned by {@link #startFragment()}
+     * @return the output since {@code start}, null if it cannot be
+     * written somewhere else (eg. a list is left open)
+     */
+    String endFragment(int start);
+
+    /**
+     * Write the output returned by {@link #endFragment(int)} 
+     * in place of rendering the block
+     */
+    void appendFragment(String fragment);
+}
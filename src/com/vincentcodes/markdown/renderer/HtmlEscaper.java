@@ -0,0 +1,92 @@
+package com.vincentcodes.markdown.renderer;
+
+import com.vincentcodes.markdown.inline.TextSpan;
+
+/**
+ * <p>
+ * Escapes a value for one place in a html page (eg. an attribute)
+ * while it is appended to the output, nothing is allocated. Each 
+ * ASCII char has its replacement in a table, the runs of chars 
+ * between two replacements are copied as a whole.
+ * <p>
+ * A null value is appended as "null", like {@link StringBuilder#append(String)}.
+ */
+final class HtmlEscaper {
+    /**
+     * Content of an element, a line break becomes {@code <br>}.
+     * '&amp;' is kept, so that entities written in markdown still work.
+     */
+    static final HtmlEscaper TEXT = new HtmlEscaper()
+        .replace('<', "&lt;")
+        .replace('\n', "<br>");
+    /**
+     * Content of {@code <pre>}, line breaks are kept
+     */
+    static final HtmlEscaper CODE = new HtmlEscaper()
+        .replace('<', "&lt;");
+    /**
+     * Value of an attribute in single or double quotes
+     */
+    static final HtmlEscaper ATTRIBUTE = new HtmlEscaper()
+        .replace('&', "&amp;")
+        .replace('<', "&lt;")
+        .replace('>', "&gt;")
+        .replace('"', "&quot;")
+        .replace('\'', "&#39;");
+    /**
+     * A url as the value of an attribute. Chars which cannot be in
+     * a url (eg. spaces, quotes) are percent-encoded.
+     */
+    static final HtmlEscaper URL = new HtmlEscaper()
+        .percentEncode(0, ' ')
+        .percentEncode('"', '"')
+        .percentEncode('\'', '\'')
+        .percentEncode('<', '<')
+        .percentEncode('>', '>')
+        .percentEncode(0x7F, 0x7F)
+        .replace('&', "&amp;");
+
+    private final String[] replacements = new String[128]; // null if the char is kept
+
+    private HtmlEscaper(){}
+
+    private HtmlEscaper replace(char c, String replacement){
+        replacements[c] = replacement;
+        return this;
+    }
+
+    private HtmlEscaper percentEncode(int from, int to){
+        for(int c = from; c <= to; c++)
+            replacements[c] = String.format("%%%02X", c);
+        return this;
+    }
+
+    void append(StringBuilder builder, CharSequence value){
+        if(value == null)
+            builder.append("null");
+        else append(builder, value, 0, value.length());
+    }
+
+    void append(StringBuilder builder, CharSequence value, int start, int end){
+        String[] replacements = this.replacements;
+        int runStart = start;
+        for(int i = start; i < end; i++){
+            char c = value.charAt(i);
+            String replacement;
+            if(c < 128 && (replacement = replacements[c]) != null){
+                copy(builder, value, runStart, i);
+                builder.append(replacement);
+                runStart = i + 1;
+            }
+        }
+        copy(builder, value, runStart, end);
+    }
+
+    private static void copy(StringBuilder builder, CharSequence value, int start, int end){
+        if(start == end)
+            return;
+        if(value instanceof TextSpan)
+            ((TextSpan)value).appendTo(builder, start, end);
+        else builder.append(value, start, end);
+    }
+}
@@ -1,271 +1,497 @@
 package com.vincentcodes.markdown.renderer;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
-import com.vincentcodes.markdown.inline.TextGroup;
 import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.inline.TextStyle;
+
+/**
+ * Renders the html into a String (see {@link #getRenderedHtml()}),
+ * or writes it to a stream while it is rendered (see 
+ * {@link #HtmlRenderer(Writer, boolean, FlushPolicy)}).
+ */
+public class HtmlRenderer implements FragmentRenderer {
+    private static final int BUFFER_SIZE = 8192; // chars held before they are written to the stream
+
+    // the css is built once, a page either has it in a <style> tag or links to it
+    private static final String STYLESHEET = "/* Pre-defined Markdown Styles */"
+        + "/* Style provided by https://github.com/sindresorhus/github-markdown-css */"
+        + createPreDefinedCss();
+    private static final byte[] STYLESHEET_BYTES = STYLESHEET.getBytes(StandardCharsets.UTF_8);
+    private static final String STYLESHEET_FILE_NAME = "markdown-" + hash(STYLESHEET_BYTES) + ".css";
 
-public class HtmlRenderer implements Renderer {
     private StringBuilder builder = new StringBuilder();
-    private TextGroup currentStyle = new TextGroup();
+    private int currentStyle = 0; // bits of TextStyle
 
     private boolean includeStyleTag = true;
+    private String stylesheetDirectory; // links to the stylesheet file instead of the <style> tag, if not null
+    private final String[] openTags = HtmlTag.openTags(); // by ordinal of HtmlTag
+    private final String[] closeTags = HtmlTag.closeTags();
+    private StyleTransitions styleTransitions = StyleTransitions.DEFAULT; // built again once a style tag is changed
+
+    // streaming only
+    private final Writer out;
+    private final FlushPolicy flushPolicy;
+    private char[] chunk;
+    private long written; // no. of chars written to out
+    private long flushedUntil; // written when out was last flushed
+    private long fragmentStart = -1; // kept in the builder until the fragment ends
 
-    public HtmlRenderer(){}
+    public HtmlRenderer(){
+        this(true);
+    }
 
     public HtmlRenderer(boolean includeStyleTag){
         this.includeStyleTag = includeStyleTag;
+        this.out = null;
+        this.flushPolicy = null;
+    }
+
+    /**
+     * Write the html to {@code out} while it is rendered, instead of
+     * keeping the whole page in memory. It is flushed according to 
+     * {@code flushPolicy} and in {@link #done()}, but not closed.
+     * An {@link IOException} is thrown as an {@link UncheckedIOException}.
+     */
+    public HtmlRenderer(Writer out, boolean includeStyleTag, FlushPolicy flushPolicy){
+        if(out == null || flushPolicy == null)
+            throw new IllegalArgumentException("Writer and flush policy must not be null");
+        this.includeStyleTag = includeStyleTag;
+        this.out = out;
+        this.flushPolicy = flushPolicy;
     }
 
+    /**
+     * Same as {@link #HtmlRenderer(Writer, boolean, FlushPolicy)},
+     * the html is encoded in UTF-8
+     */
+    public HtmlRenderer(OutputStream out, boolean includeStyleTag, FlushPolicy flushPolicy){
+        this(new OutputStreamWriter(out, StandardCharsets.UTF_8), includeStyleTag, flushPolicy);
+    }
+
+    /**
+     * Same as {@link #HtmlRenderer(Writer, boolean, FlushPolicy)},
+     * the html is encoded in UTF-8
+     */
+    public HtmlRenderer(WritableByteChannel out, boolean includeStyleTag, FlushPolicy flushPolicy){
+        this(Channels.newWriter(out, StandardCharsets.UTF_8), includeStyleTag, flushPolicy);
+    }
+
+    /**
+     * @throws IllegalStateException if the html is written to a stream
+     */
     public String getRenderedHtml(){
+        if(out != null)
+            throw new IllegalStateException("The html is written to a stream");
         return builder.toString();
     }
 
     /**
-     * Any differences toward what we have now means something changed.
-     * Using this mechanism, we can add / close the tags based on the
-     * current state. (eg. !Bold -> Bold, Bold -> !Bold)
-     * @param group
+     * Write {@code open} and {@code close} around each element of the
+     * kind {@code tag}, instead of {@link HtmlTag#getOpen()} and 
+     * {@link HtmlTag#getClose()}. They are written as they are.
      */
-    private void addStyleTags(TextGroup group){
-        if(group.isStrong == !currentStyle.isStrong){
-            if(!currentStyle.isStrong){
-                builder.append("<strong>");
-                currentStyle.isStrong = !currentStyle.isStrong;
-            }
-        }
-        if(group.isEmphasis == !currentStyle.isEmphasis){
-            if(!currentStyle.isEmphasis){
-                builder.append("<em>");
-                currentStyle.isEmphasis = !currentStyle.isEmphasis;
-            }
-        }
-        if(group.isStrikeThrough == !currentStyle.isStrikeThrough){
-            if(!currentStyle.isStrikeThrough){
-                builder.append("<s>");
-                currentStyle.isStrikeThrough = !currentStyle.isStrikeThrough;
-            }
-        }
-        if(group.isCode == !currentStyle.isCode){
-            if(!currentStyle.isCode){
-                builder.append("<code>");
-                currentStyle.isCode = !currentStyle.isCode;
-            }
+    public void setTag(HtmlTag tag, String open, String close){
+        if(tag == null || open == null || close == null)
+            throw new IllegalArgumentException("Tag must not be null");
+        openTags[tag.ordinal()] = open;
+        closeTags[tag.ordinal()] = close;
+        if(StyleTransitions.uses(tag))
+            styleTransitions = null;
+    }
+
+    /**
+     * Link to the stylesheet file (see {@link #writeStylesheet(Path)})
+     * instead of putting the whole css into each page
+     * @param directoryUrl where the file is served, eg. "/css/", the
+     * file name is appended to it. null puts the css into the page.
+     */
+    public void setStylesheetDirectory(String directoryUrl){
+        this.stylesheetDirectory = directoryUrl;
+    }
+
+    /**
+     * @return name of the stylesheet file, eg. "markdown-0123456789abcdef.css".
+     * It has the hash of the css in it, so it changes whenever the css does.
+     */
+    public static String getStylesheetFileName(){
+        return STYLESHEET_FILE_NAME;
+    }
+
+    /**
+     * Write the stylesheet file into {@code directory}, unless it is there already
+     * @return the file
+     */
+    public static Path writeStylesheet(Path directory) throws IOException{
+        Path file = directory.resolve(STYLESHEET_FILE_NAME);
+        if(Files.exists(file))
+            return file;
+        // another process may write it at the same time, with the same content
+        Path temp = Files.createTempFile(directory, STYLESHEET_FILE_NAME, ".tmp");
+        try{
+            Files.write(temp, STYLESHEET_BYTES);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        }finally{
+            Files.deleteIfExists(temp);
         }
-        if(group.isLink == !currentStyle.isLink){
-            if(!currentStyle.isLink){
-                builder.append("<a href='").append(group.url).append("'>");
-                currentStyle.isLink = !currentStyle.isLink;
-            }
+        return file;
+    }
+
+    private static String hash(byte[] content){
+        try{
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder();
+            for(int i = 0; i < 8; i++)
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            return hex.toString();
+        }catch(NoSuchAlgorithmException e){
+            throw new IllegalStateException(e); // every JVM has SHA-256
         }
-        if(group.isImage == !currentStyle.isImage){
-            if(!currentStyle.isImage){
-                builder.append("<img src='").append(group.url).append("' alt='").append(group.desc).append("'>");
-            }
+    }
+
+    private void open(HtmlTag tag){
+        builder.append(openTags[tag.ordinal()]);
+    }
+
+    private void close(HtmlTag tag){
+        builder.append(closeTags[tag.ordinal()]);
+    }
+
+    /**
+     * Called after each block, list item and table row. Writes the
+     * html to the stream once there is enough of it, or if it should
+     * be flushed.
+     */
+    private void endBlock(){
+        if(out == null)
+            return;
+        boolean flush = flushPolicy.shouldFlush(written + builder.length() - flushedUntil);
+        if(flush || builder.length() >= BUFFER_SIZE){
+            int end = builder.length();
+            if(fragmentStart >= 0)
+                end = (int)Math.min(end, fragmentStart - written);
+            writeOut(end, flush);
         }
     }
-    private void closeStyleTags(TextGroup group){
-        if(group.isStrong == !currentStyle.isStrong){
-            if(currentStyle.isStrong){
-                builder.append("</strong>");
-                currentStyle.isStrong = !currentStyle.isStrong;
+    /**
+     * Write the first {@code end} chars of the builder to the stream
+     */
+    private void writeOut(int end, boolean flush){
+        try{
+            if(end > 0){
+                if(chunk == null)
+                    chunk = new char[BUFFER_SIZE];
+                for(int i = 0; i < end; i += chunk.length){
+                    int length = Math.min(chunk.length, end - i);
+                    builder.getChars(i, i + length, chunk, 0);
+                    out.write(chunk, 0, length);
+                }
+                builder.delete(0, end);
+                written += end;
             }
-        }
-        if(group.isEmphasis == !currentStyle.isEmphasis){
-            if(currentStyle.isEmphasis){
-                builder.append("</em>");
-                currentStyle.isEmphasis = !currentStyle.isEmphasis;
+            if(flush){
+                out.flush();
+                flushedUntil = written;
             }
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
         }
-        if(group.isStrikeThrough == !currentStyle.isStrikeThrough){
-            if(currentStyle.isStrikeThrough){
-                builder.append("</s>");
-                currentStyle.isStrikeThrough = !currentStyle.isStrikeThrough;
-            }
+    }
+
+    /**
+     * Close and open the style tags, from the current style to the
+     * style of the group {@code index} (see {@link StyleTransitions})
+     * @param style bits of the style of the group
+     */
+    private void changeStyle(TextNode texts, int index, int style){
+        int next = style & StyleTransitions.NESTED;
+        int from = currentStyle;
+        if((next & from & TextStyle.LINK) != 0){
+            // each group is a link of its own, the link is the innermost tag
+            builder.append("</a>");
+            from &= ~TextStyle.LINK;
         }
-        if(group.isCode == !currentStyle.isCode){
-            if(currentStyle.isCode){
-                builder.append("</code>");
-                currentStyle.isCode = !currentStyle.isCode;
-            }
+        if(from != next)
+            builder.append(styleTransitions().get(from, next));
+        if((next & TextStyle.LINK) != 0){
+            builder.append("<a href='");
+            HtmlEscaper.URL.append(builder, texts.getUrl(index));
+            builder.append("'>");
         }
-        if(group.isLink == !currentStyle.isLink){
-            if(currentStyle.isLink){
-                builder.append("</a>");
-                currentStyle.isLink = !currentStyle.isLink;
-            }
+        if((style & TextStyle.IMAGE) != 0){
+            // an image is a single tag, nothing to close
+            builder.append("<img src='");
+            HtmlEscaper.URL.append(builder, texts.getUrl(index));
+            builder.append("' alt='");
+            HtmlEscaper.ATTRIBUTE.append(builder, texts.getDesc(index));
+            builder.append("'>");
         }
+        currentStyle = next;
+    }
+    private void closeStyles(){
+        if(currentStyle != 0)
+            builder.append(styleTransitions().get(currentStyle, 0));
+        currentStyle = 0;
+    }
+    private StyleTransitions styleTransitions(){
+        if(styleTransitions == null)
+            styleTransitions = new StyleTransitions(openTags, closeTags);
+        return styleTransitions;
     }
     /**
      * Appends texts directly into StringBuilder
      * @param texts
      */
     private void renderInnerText(TextNode texts){
-        for(TextGroup group : texts.groups){
-            closeStyleTags(group);
-            addStyleTags(group);
-            if(group.value != null)
-                builder.append(group.value.replace("<", "&lt;").replaceAll("\n", "<br>"));
-            if(group.isLink)
-                builder.append(group.desc);
+        for(int i = 0; i < texts.size(); i++){
+            TextStyle style = texts.getStyle(i);
+            changeStyle(texts, i, style.bits());
+            CharSequence value = texts.getText(i);
+            if(value != null)
+                HtmlEscaper.TEXT.append(builder, value);
+            if(style.isLink())
+                HtmlEscaper.TEXT.append(builder, texts.getDesc(i));
         }
-        closeStyleTags(new TextGroup()); // reset style with an empty style
+        closeStyles();
     }
     
-    
     // init
     @Override
     public void body(){
         builder.append("<html>");
-        if(includeStyleTag){
-            builder.append("<style>");
-            builder.append("/* Pre-defined Markdown Styles */");
-            builder.append("/* Style provided by https://github.com/sindresorhus/github-markdown-css */");
-            builder.append(getPreDefinedCss());
-            builder.append("</style>");
+        if(stylesheetDirectory != null){
+            builder.append("<link rel='stylesheet' href='");
+            HtmlEscaper.URL.append(builder, stylesheetDirectory);
+            builder.append(STYLESHEET_FILE_NAME).append("'>");
+        }else if(includeStyleTag){
+            builder.append("<style>").append(STYLESHEET).append("</style>");
         }
         builder.append("<body class='markdown-body'>");
+        endBlock();
     }
 
     // close
     @Override
     public void done(){
+        closeAll();
         builder.append("</body></html>");
-        currentStyle = new TextGroup();
+        currentStyle = 0;
+        if(out != null){
+            fragmentStart = -1;
+            writeOut(builder.length(), true);
+        }
     }
 
     // Horizontal line
     @Override
     public void hr(){
-        builder.append("<hr>");
+        closeItem();
+        open(HtmlTag.HORIZONTAL_RULE);
+        close(HtmlTag.HORIZONTAL_RULE);
+        endBlock();
     }
 
     // Headings
     @Override
     public void h1(TextNode texts){
-        builder.append("<h1>");
+        closeItem();
+        open(HtmlTag.H1);
         renderInnerText(texts);
-        builder.append("</h1>");
+        close(HtmlTag.H1);
+        endBlock();
     }
     @Override
     public void h2(TextNode texts){
-        builder.append("<h2>");
+        closeItem();
+        open(HtmlTag.H2);
         renderInnerText(texts);
-        builder.append("</h2>");
+        close(HtmlTag.H2);
+        endBlock();
     }
     @Override
     public void h3(TextNode texts){
-        builder.append("<h3>");
+        closeItem();
+        open(HtmlTag.H3);
         renderInnerText(texts);
-        builder.append("</h3>");
+        close(HtmlTag.H3);
+        endBlock();
     }
     @Override
     public void h4(TextNode texts){
-        builder.append("<h4>");
+        closeItem();
+        open(HtmlTag.H4);
         renderInnerText(texts);
-        builder.append("</h4>");
+        close(HtmlTag.H4);
+        endBlock();
     }
     @Override
     public void h5(TextNode texts){
-        builder.append("<h5>");
+        closeItem();
+        open(HtmlTag.H5);
         renderInnerText(texts);
-        builder.append("</h5>");
+        close(HtmlTag.H5);
+        endBlock();
     }
     @Override
     public void h6(TextNode texts){
-        builder.append("<h6>");
+        closeItem();
+        open(HtmlTag.H6);
         renderInnerText(texts);
-        builder.append("</h6>");
+        close(HtmlTag.H6);
+        endBlock();
     }
 
     // Normal texts
     @Override
     public void p(TextNode texts){
-        builder.append("<div class='para'>");
+        closeItem();
+        open(HtmlTag.PARAGRAPH);
         renderInnerText(texts);
-        builder.append("</div>");
+        close(HtmlTag.PARAGRAPH);
+        endBlock();
     }
     @Override
     public void append(String text){
-        builder.append("<div class='appended-text'>");
+        closeItem();
+        open(HtmlTag.APPENDED_TEXT);
         builder.append(text);
-        builder.append("</div>");
+        close(HtmlTag.APPENDED_TEXT);
+        endBlock();
     }
 
     
     /**
      * Tools to create your own list (optional)
+     * <p>
+     * The lists and items which are not closed yet are kept on a stack.
+     * An item is closed by the next event which is not a list, so that
+     * a list right after it goes inside of it. Nothing which is written
+     * is looked at again, which lets the html be streamed.
+     */
+    private static final byte OL = (byte)HtmlTag.ORDERED_LIST.ordinal();
+    private static final byte UL = (byte)HtmlTag.UNORDERED_LIST.ordinal();
+    private static final byte LI = (byte)HtmlTag.LIST_ITEM.ordinal();
+    private byte[] openElements = new byte[8];
+    private int numOfOpenElements;
+
+    private void push(byte element){
+        if(numOfOpenElements == openElements.length)
+            openElements = Arrays.copyOf(openElements, numOfOpenElements * 2);
+        openElements[numOfOpenElements++] = element;
+    }
+    private boolean isItemOpen(){
+        return numOfOpenElements > 0 && openElements[numOfOpenElements - 1] == LI;
+    }
+    /**
+     * Close the item on top of the stack, if there is one
+     */
+    private void closeItem(){
+        if(isItemOpen()){
+            close(HtmlTag.LIST_ITEM);
+            numOfOpenElements--;
+        }
+    }
+    /**
+     * Close everything which is left open, the parser does not
+     * always end its lists
      */
-    private Deque<Integer> unclosedLi = new ArrayDeque<>();
+    private void closeAll(){
+        while(numOfOpenElements > 0)
+            closeElement();
+    }
+    /**
+     * Close the open item and the list on top of the stack, whichever
+     * kind it is. Any item which the list is inside is left open.
+     */
+    private void endList(){
+        closeItem();
+        if(numOfOpenElements > 0)
+            closeElement();
+    }
+    private void closeElement(){
+        builder.append(closeTags[openElements[--numOfOpenElements]]);
+    }
     // ordered list
     public void ol() {
-        if(builder.substring(builder.length()-5, builder.length()).equals("</li>")){
-            builder.delete(builder.length()-5, builder.length()); // delete 4 chars
-            unclosedLi.push(1);
-        }
-        builder.append("<ol>");
+        push(OL);
+        open(HtmlTag.ORDERED_LIST);
     }
     // unordered list
     public void ul() {
-        if(builder.substring(builder.length()-5, builder.length()).equals("</li>")){
-            builder.delete(builder.length()-5, builder.length()); // delete 4 chars
-            unclosedLi.push(1);
-        }
-        builder.append("<ul>");
+        push(UL);
+        open(HtmlTag.UNORDERED_LIST);
     }
     public void li(TextNode text) {
-        builder.append("<li>");
+        closeItem();
+        open(HtmlTag.LIST_ITEM);
         renderInnerText(text);
-        builder.append("</li>");
+        push(LI);
+        endBlock();
     }
     public void endol() {
-        builder.append("</ol>");
-        if(unclosedLi.size() > 0){
-            builder.append("</li>");
-            unclosedLi.pop();
-        }
+        endList();
+        endBlock();
     }
     public void endul() {
-        builder.append("</ul>");
-        if(unclosedLi.size() > 0){
-            builder.append("</li>");
-            unclosedLi.pop();
-        }
+        endList();
+        endBlock();
     }
 
     // Table
     @Override
     public void table(TextNode[] headings){
-        builder.append("<table>");
-        builder.append("<tr>");
+        closeItem();
+        open(HtmlTag.TABLE);
+        open(HtmlTag.TABLE_ROW);
         for(TextNode node : headings){
-            builder.append("<th>");
+            open(HtmlTag.TABLE_HEADER);
             renderInnerText(node);
-            builder.append("</th>");
+            close(HtmlTag.TABLE_HEADER);
         }
-        builder.append("</tr>");
+        close(HtmlTag.TABLE_ROW);
+        endBlock();
     }
     @Override
     public void tr(TextNode[] rowEntries){
-        builder.append("<tr>");
+        closeItem();
+        open(HtmlTag.TABLE_ROW);
         for(TextNode node : rowEntries){
-            builder.append("<td>");
+            open(HtmlTag.TABLE_CELL);
             renderInnerText(node);
-            builder.append("</td>");
+            close(HtmlTag.TABLE_CELL);
         }
-        builder.append("</tr>");
+        close(HtmlTag.TABLE_ROW);
+        endBlock();
     }
     @Override
     public void endTable(){
-        builder.append("</table>");
+        closeItem();
+        close(HtmlTag.TABLE);
+        endBlock();
     }
 
     @Override
     public void codeblock(String text, String lang){
-        builder.append("<pre><code class='language-").append(lang).append("'>");
-        builder.append(text.replace("<", "&lt;"));
+        closeItem();
+        builder.append("<pre><code class='language-");
+        HtmlEscaper.ATTRIBUTE.append(builder, lang);
+        builder.append("'>");
+        HtmlEscaper.CODE.append(builder, text);
         builder.append("</code></pre>");
+        endBlock();
     }
 
     /**
@@ -274,34 +500,68 @@ public class HtmlRenderer implements Renderer {
     private int previousLevel = 1;
     @Override
     public void startBlockQuote(){
+        closeItem();
         previousLevel = 1;
-        builder.append("<blockquote>");
+        open(HtmlTag.BLOCK_QUOTE);
     }
     @Override
     public void blockquote(TextNode text, int level){
+        closeItem();
         if(level > previousLevel){
-            builder.append("<blockquote>");
+            open(HtmlTag.BLOCK_QUOTE);
             previousLevel = level;
         }else if(level < previousLevel){
             for(int i = 0; i < (previousLevel - level); i++)
-                builder.append("</blockquote>");
+                close(HtmlTag.BLOCK_QUOTE);
             previousLevel = level;
         }
         builder.append("<p style='--lvl:").append(level).append("'>");
         renderInnerText(text);
         builder.append("</p>");
+        endBlock();
     }
     @Override
     public void endBlockQuote(){
+        closeItem();
         // at least once because previousLevel starts with 1
         for(int i = 0; i < previousLevel; i++)
-            builder.append("</blockquote>");
+            close(HtmlTag.BLOCK_QUOTE);
+        endBlock();
+    }
+
+    // Fragments //
+    @Override
+    public int startFragment(){
+        // the block could go inside of an open list or item
+        if(numOfOpenElements > 0)
+            return -1;
+        if(out == null)
+            return builder.length();
+        // a fragment is not written out until it ends, start is counted from the first char of the page
+        long start = written + builder.length();
+        if(start > Integer.MAX_VALUE)
+            return -1;
+        fragmentStart = start;
+        return (int)start;
+    }
+    @Override
+    public String endFragment(int start){
+        fragmentStart = -1;
+        if(numOfOpenElements > 0)
+            return null;
+        return builder.substring((int)(start - written));
+    }
+    @Override
+    public void appendFragment(String fragment){
+        closeItem();
+        builder.append(fragment);
+        endBlock();
     }
 
     /**
      * Style is provided by https://github.com/sindresorhus/github-markdown-css
      */
-    private String getPreDefinedCss(){
+    private static String createPreDefinedCss(){
         StringBuilder builder = new StringBuilder();
         builder.append(".markdown-body {    font-family: Lato,Helvetica Neue,Helvetica,sans-serif;}.markdown-body h1,.markdown-body h2,.markdown-body h3,.markdown-body h4,.markdown-body h5,.markdown-body h6 {  margin-top: 0;  margin-bottom: 0;}");
         builder.append(".markdown-body h1 {  font-size: 32px;}.markdown-body h1,.markdown-body h2 {  font-weight: 600;}.markdown-body h2 {  font-size: 24px;}.markdown-body h3 {  font-size: 20px;}.markdown-body h3,.markdown-body h4 {  font-weight: 600;}");
@@ -0,0 +1,69 @@
+package com.vincentcodes.markdown.renderer;
+
+/**
+ * The tags written by {@link HtmlRenderer} around each kind of element.
+ * They can be changed for one renderer with {@link HtmlRenderer#setTag(HtmlTag, String, String)},
+ * eg. to add a class. Tags with attributes which come from the
+ * markdown (links, images, code blocks, block quote lines) are fixed.
+ */
+public enum HtmlTag {
+    H1("<h1>", "</h1>"),
+    H2("<h2>", "</h2>"),
+    H3("<h3>", "</h3>"),
+    H4("<h4>", "</h4>"),
+    H5("<h5>", "</h5>"),
+    H6("<h6>", "</h6>"),
+    PARAGRAPH("<div class='para'>", "</div>"),
+    APPENDED_TEXT("<div class='appended-text'>", "</div>"),
+    HORIZONTAL_RULE("<hr>", ""),
+    ORDERED_LIST("<ol>", "</ol>"),
+    UNORDERED_LIST("<ul>", "</ul>"),
+    LIST_ITEM("<li>", "</li>"),
+    TABLE("<table>", "</table>"),
+    TABLE_ROW("<tr>", "</tr>"),
+    TABLE_HEADER("<th>", "</th>"),
+    TABLE_CELL("<td>", "</td>"),
+    BLOCK_QUOTE("<blockquote>", "</blockquote>"),
+    STRONG("<strong>", "</strong>"),
+    EMPHASIS("<em>", "</em>"),
+    STRIKE_THROUGH("<s>", "</s>"),
+    CODE("<code>", "</code>");
+
+    private static final HtmlTag[] TAGS = values();
+
+    private final String open;
+    private final String close;
+
+    HtmlTag(String open, String close){
+        this.open = open;
+        this.close = close;
+    }
+
+    public String getOpen(){
+        return open;
+    }
+
+    public String getClose(){
+        return close;
+    }
+
+    /**
+     * @return a new array of the default opening tags, by ordinal
+     */
+    static String[] openTags(){
+        String[] tags = new String[TAGS.length];
+        for(HtmlTag tag : TAGS)
+            tags[tag.ordinal()] = tag.open;
+        return tags;
+    }
+
+    /**
+     * @return a new array of the default closing tags, by ordinal
+     */
+    static String[] closeTags(){
+        String[] tags = new String[TAGS.length];
+        for(HtmlTag tag : TAGS)
+            tags[tag.ordinal()] = tag.close;
+        return tags;
+    }
+}
@@ -0,0 +1,35 @@
+package com.vincentcodes.markdown.renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of an image which {@link OoxmlWordRenderer} loads into the document
+ */
+@Name("com.vincentcodes.markdown.ImageLoad")
+@Label("Markdown Word Image Load")
+@Category("JMarkdown")
+final class ImageLoadEvent extends Event {
+    @Label("Document")
+    @Description("The output file, null if there is none")
+    String document;
+
+    @Label("Origin")
+    @Description("data, file or remote")
+    String origin;
+
+    @Label("URL")
+    @Description("Only the media type of a data URL")
+    String url;
+
+    @Label("Size")
+    @DataAmount
+    long size;
+
+    @Label("Loaded")
+    boolean loaded;
+}
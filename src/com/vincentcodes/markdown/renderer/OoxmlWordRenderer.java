@@ -14,6 +14,7 @@ import java.util.stream.Stream;
 
 import com.vincentcodes.markdown.inline.TextGroup;
 import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.inline.TextStyle;
 import com.vincentcodes.ooxml.word.WordDocument;
 import com.vincentcodes.ooxml.word.WordList;
 import com.vincentcodes.ooxml.word.WordParagraph;
@@ -57,17 +58,18 @@ public class OoxmlWordRenderer implements Renderer{
     private String textNodeToString(TextNode text){
         StringBuilder builder = new StringBuilder();
         for(TextGroup g : text.groups){
-            builder.append(g.value);
+            builder.append(g.getText());
         }
         return builder.toString();
     }
 
     private WordTextStyles getTextStyles(TextGroup group){
         WordTextStyles styles = new WordTextStyles();
-        if(group.isStrong) styles.addBold();
-        if(group.isEmphasis) styles.addItalic();
-        if(group.isStrikeThrough) styles.addStrikeThrough();
-        if(group.isCode) {
+        int bits = group.getStyle().bits();
+        if((bits & TextStyle.STRONG) != 0) styles.addBold();
+        if((bits & TextStyle.EMPHASIS) != 0) styles.addItalic();
+        if((bits & TextStyle.STRIKE_THROUGH) != 0) styles.addStrikeThrough();
+        if((bits & TextStyle.CODE) != 0) {
             styles.addFontFamily("Consolas");
             styles.addColor("C00000"); // dark red
         }
@@ -78,28 +80,34 @@ public class OoxmlWordRenderer implements Renderer{
     private void addTextToParagraph(TextNode texts, WordParagraph para){
         for(TextGroup g : texts.groups){
             // do not fully support images yet
-            if(g.isImage){
+            if(g.isImage()){
+                ImageLoadEvent event = new ImageLoadEvent();
+                event.begin();
                 try{
-                    if(!addImageFromDataUriScheme(g, para)){
-                        if(!addImageFromLocal(g, para)){
-                            addImageFromRemote(g, para);
+                    if(!addImageFromDataUriScheme(g, para, event)){
+                        if(!addImageFromLocal(g, para, event)){
+                            addImageFromRemote(g, para, event);
                         }
                     }
                 }catch(IOException e){
                     throw new UncheckedIOException(e);
                 }
+                if(event.shouldCommit()){
+                    event.document = getOutputPath();
+                    event.commit();
+                }
             }
             
-            if(g.isLink){
+            if(g.isLink()){
                 WordTextStyles linkStyle = getTextStyles(g);
                 linkStyle.addColor("0000ff"); // blue only
                 linkStyle.addUnderline("0000ff");
                 para.insertLink(g.url, g.desc, linkStyle);
             }else
-                para.insertText(g.value, getTextStyles(g));
+                para.insertText(g.getValue(), getTextStyles(g));
         }
     }
-    private boolean addImageFromLocal(TextGroup g, WordParagraph para) throws IOException{
+    private boolean addImageFromLocal(TextGroup g, WordParagraph para, ImageLoadEvent event) throws IOException{
         if(g.url.startsWith("http") || g.url.startsWith("https"))
             return false;
         File img = new File(g.url);
@@ -108,6 +116,10 @@ public class OoxmlWordRenderer implements Renderer{
         String imageName = img.getName();
         if(imageName.endsWith("png") || imageName.endsWith("jpeg")
         || imageName.endsWith("jpg") || imageName.endsWith("gif")){
+            event.origin = "file";
+            event.url = g.url;
+            event.size = img.length();
+            event.loaded = true;
             FileInputStream fis = new FileInputStream(img);
             if(imageName.endsWith("png")){
                 para.insertPng(fis, "", 150);
@@ -120,10 +132,12 @@ public class OoxmlWordRenderer implements Renderer{
         }
         return false;
     }
-    private boolean addImageFromRemote(TextGroup g, WordParagraph para) throws IOException{
+    private boolean addImageFromRemote(TextGroup g, WordParagraph para, ImageLoadEvent event) throws IOException{
         if(!g.url.startsWith("http") || !g.url.startsWith("https"))
             return false;
 
+        event.origin = "remote";
+        event.url = g.url;
         if(disableExternalResources){
             System.out.println("[*] Fetching external resources is disabled. Skipping image");
             return false;
@@ -132,16 +146,18 @@ public class OoxmlWordRenderer implements Renderer{
         URLConnection connection = remoteImage.openConnection();
         connection.setReadTimeout(30 * 1000); // wait for 30s for the connection
         String imageType = connection.getContentType();
+        event.size = connection.getContentLengthLong();
         if(imageType.endsWith("png")){
             para.insertPng(connection.getInputStream(), "", 150);
         }else if(imageType.endsWith("jpeg")){
             para.insertJpeg(connection.getInputStream(), "", 150);
         }else if(imageType.endsWith("gif")){
             para.insertGif(connection.getInputStream(), "", 150);
-        }
+        }else return true;
+        event.loaded = true;
         return true;
     }
-    private boolean addImageFromDataUriScheme(TextGroup g, WordParagraph para) throws IOException{
+    private boolean addImageFromDataUriScheme(TextGroup g, WordParagraph para, ImageLoadEvent event) throws IOException{
         if(!g.url.startsWith("data:"))
             return false;
         int colonIndex = g.url.indexOf(':');
@@ -150,14 +166,19 @@ public class OoxmlWordRenderer implements Renderer{
         if(colonIndex == -1 || semicolonIndex == -1 || comma == -1)
             return false;
         String imageName = g.url.substring(colonIndex+1, semicolonIndex).toLowerCase();
-        ByteArrayInputStream bais = new ByteArrayInputStream(Base64.getDecoder().decode(g.url.substring(comma+1)));
+        byte[] image = Base64.getDecoder().decode(g.url.substring(comma+1));
+        ByteArrayInputStream bais = new ByteArrayInputStream(image);
+        event.origin = "data";
+        event.url = g.url.substring(0, semicolonIndex);
+        event.size = image.length;
         if(imageName.endsWith("png")){
             para.insertPng(bais, "", 150);
         }else if(imageName.endsWith("jpeg")){
             para.insertJpeg(bais, "", 150);
         }else if(imageName.endsWith("gif")){
             para.insertGif(bais, "", 150);
-        }
+        }else return true;
+        event.loaded = true;
         return true;
     }
 
@@ -181,11 +202,22 @@ public class OoxmlWordRenderer implements Renderer{
 
     @Override
     public void done() {
+        WordExportEvent event = new WordExportEvent();
+        event.begin();
         try{
             document.export();
         }catch(IOException e){
             throw new UncheckedIOException(e);
         }
+        if(event.shouldCommit()){
+            event.document = getOutputPath();
+            event.size = outputFile == null? 0 : outputFile.length();
+            event.commit();
+        }
+    }
+
+    private String getOutputPath(){
+        return outputFile == null? null : outputFile.getPath();
     }
 
     @Override
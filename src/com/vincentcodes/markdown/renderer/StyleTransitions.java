@@ -0,0 +1,81 @@
+package com.vincentcodes.markdown.renderer;
+
+import com.vincentcodes.markdown.inline.TextStyle;
+
+/**
+ * <p>
+ * The tags which change the inline styles of {@link HtmlRenderer}
+ * from one combination to another. There are only 32 combinations
+ * which are kept open, so the tags of every pair are joined once
+ * and each text run writes them in one append.
+ * <p>
+ * The tags are always nested in the order of the style bits: strong
+ * outermost, then emphasis, strike through, code and link innermost.
+ * To change a style, the tags inside it are closed first and opened
+ * again after it, so that the html is properly nested, eg. from strong
+ * and emphasis to emphasis is {@code </em></strong><em>}.
+ * <p>
+ * The opening tag of a link has its url, so it is not in the table.
+ * Being innermost, it is always the last tag to open. An image is a
+ * single tag, it is never kept open.
+ */
+final class StyleTransitions {
+    /**
+     * Bits of the styles which are kept open
+     */
+    static final int NESTED = TextStyle.IMAGE - 1;
+    private static final int NUM_OF_STATES = NESTED + 1;
+    private static final HtmlTag[] TAGS = {HtmlTag.STRONG, HtmlTag.EMPHASIS, HtmlTag.STRIKE_THROUGH, HtmlTag.CODE}; // by bit
+    private static final int LINK_BIT = Integer.numberOfTrailingZeros(TextStyle.LINK);
+    private static final String CLOSE_LINK = "</a>";
+
+    static final StyleTransitions DEFAULT = new StyleTransitions(HtmlTag.openTags(), HtmlTag.closeTags());
+
+    private final String[] transitions = new String[NUM_OF_STATES * NUM_OF_STATES];
+
+    /**
+     * @param openTags by ordinal of {@link HtmlTag}
+     * @param closeTags by ordinal of {@link HtmlTag}
+     */
+    StyleTransitions(String[] openTags, String[] closeTags){
+        StringBuilder tags = new StringBuilder();
+        for(int from = 0; from < NUM_OF_STATES; from++){
+            for(int to = 0; to < NUM_OF_STATES; to++){
+                tags.setLength(0);
+                int changed = from ^ to;
+                if(changed != 0){
+                    int outermost = Integer.numberOfTrailingZeros(changed);
+                    for(int bit = LINK_BIT; bit >= outermost; bit--){
+                        if((from & (1 << bit)) != 0)
+                            tags.append(bit == LINK_BIT? CLOSE_LINK : closeTags[TAGS[bit].ordinal()]);
+                    }
+                    for(int bit = outermost; bit < LINK_BIT; bit++){
+                        if((to & (1 << bit)) != 0)
+                            tags.append(openTags[TAGS[bit].ordinal()]);
+                    }
+                }
+                transitions[from * NUM_OF_STATES + to] = tags.toString();
+            }
+        }
+    }
+
+    /**
+     * @return whether the table has the tags of {@code tag}
+     */
+    static boolean uses(HtmlTag tag){
+        for(HtmlTag used : TAGS){
+            if(used == tag)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param from bits of the open styles, within {@link #NESTED}
+     * @param to bits of the next styles, within {@link #NESTED}
+     * @return the tags to write, without the opening tag of a link
+     */
+    String get(int from, int to){
+        return transitions[from * NUM_OF_STATES + to];
+    }
+}
@@ -0,0 +1,25 @@
+package com.vincentcodes.markdown.renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of {@code WordDocument.export()} in {@link OoxmlWordRenderer#done()}
+ */
+@Name("com.vincentcodes.markdown.WordExport")
+@Label("Markdown Word Export")
+@Category("JMarkdown")
+final class WordExportEvent extends Event {
+    @Label("Document")
+    @Description("The output file, null if there is none")
+    String document;
+
+    @Label("Size")
+    @Description("Size of the output file")
+    @DataAmount
+    long size;
+}
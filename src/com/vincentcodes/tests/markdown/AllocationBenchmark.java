@@ -0,0 +1,91 @@
+package com.vincentcodes.tests.markdown;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.markdown.renderer.Renderer;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator.Block;
+import com.vincentcodes.tests.markdown.mock.NoOpRenderer;
+
+/**
+ * <p>
+ * Reports the no. of bytes allocated per KB of markdown by the parser
+ * alone ({@link NoOpRenderer}) and with {@link HtmlRenderer}, for a mixed
+ * document and for documents made of one construct only. The bytes are
+ * taken from {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)},
+ * the output (eg. the HTML) is included.
+ * <pre>
+ * AllocationBenchmark [size, eg. 64k, 1m] [seed]
+ * </pre>
+ * {@link MarkdownParserAllocationTest} keeps each construct within a budget.
+ */
+public class AllocationBenchmark {
+    public enum Construct {
+        MIXED(null),
+        PARAGRAPH(Block.PARAGRAPH),
+        LIST(Block.LIST),
+        TABLE(Block.TABLE),
+        CODE_BLOCK(Block.CODE);
+
+        private final Block block; // the only kind of block, null for all of them
+
+        Construct(Block block){
+            this.block = block;
+        }
+    }
+
+    public static final long SEED = 20240101;
+    private static final int WARMUP_RUNS = 30;
+    private static final int RUNS = 10;
+
+    private static final com.sun.management.ThreadMXBean THREADS = 
+        (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args){
+        int size = args.length > 0? (int)CorpusGenerator.parseSize(args[0]) : 1024 * 1024;
+        long seed = args.length > 1? Long.parseLong(args[1]) : SEED;
+
+        System.out.printf("%-12s %14s %14s%n", "construct", "no-op B/KB", "html B/KB");
+        for(Construct construct : Construct.values()){
+            String document = document(construct, size, seed);
+            System.out.printf("%-12s %14.0f %14.0f%n", construct,
+                bytesPerKb(document, NoOpRenderer::new),
+                bytesPerKb(document, HtmlRenderer::new));
+        }
+    }
+
+    /**
+     * @return a document of exactly {@code size} chars
+     */
+    public static String document(Construct construct, int size, long seed){
+        CorpusGenerator generator = new CorpusGenerator(seed);
+        if(construct.block != null){
+            for(Block block : Block.values())
+                generator.setWeight(block, block == construct.block? 1 : 0);
+        }
+        return generator.generate(size);
+    }
+
+    /**
+     * Parse {@code document} until the JIT has compiled the parser,
+     * then take the least allocation of a few runs. Each run gets a 
+     * new renderer, which is counted too.
+     */
+    public static double bytesPerKb(String document, Supplier<Renderer> renderers){
+        MarkdownParser parser = new MarkdownParser();
+        for(int i = 0; i < WARMUP_RUNS; i++)
+            parser.parse(document, renderers.get());
+
+        long thread = Thread.currentThread().getId();
+        long least = Long.MAX_VALUE;
+        for(int i = 0; i < RUNS; i++){
+            long allocated = THREADS.getThreadAllocatedBytes(thread);
+            parser.parse(document, renderers.get());
+            least = Math.min(least, THREADS.getThreadAllocatedBytes(thread) - allocated);
+        }
+        return least * 1024.0 / document.length();
+    }
+}
@@ -0,0 +1,47 @@
+package com.vincentcodes.tests.markdown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.vincentcodes.markdown.BinaryDocument;
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+import com.vincentcodes.tests.markdown.mock.NoOpRenderer;
+
+/**
+ * Compares parsing a document against loading it from a file 
+ * written by {@link BinaryDocument}. Both give the events to a 
+ * renderer which does nothing.
+ */
+public class BinaryDocumentBenchmark {
+    private static final long SEED = 42;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws IOException{
+        MarkdownParser parser = new MarkdownParser();
+        NoOpRenderer renderer = new NoOpRenderer();
+        Path file = Files.createTempFile("document", ".bin");
+        try{
+            for(int size = 100 * 1024; size <= 10 * 1024 * 1024; size *= 10){
+                String document = new CorpusGenerator(SEED).generate(size);
+                BinaryDocument.write(parser.parseIncremental(document), file);
+
+                long parseTime = Long.MAX_VALUE, loadTime = Long.MAX_VALUE;
+                for(int i = 0; i < ROUNDS; i++){
+                    long startingTime = System.nanoTime();
+                    parser.parse(document, renderer);
+                    parseTime = Math.min(parseTime, System.nanoTime() - startingTime);
+
+                    startingTime = System.nanoTime();
+                    BinaryDocument.load(file).replay(renderer);
+                    loadTime = Math.min(loadTime, System.nanoTime() - startingTime);
+                }
+                System.out.printf("%8d KB (%8d KB on disk): parse %8.2f ms, load + replay %8.2f ms%n",
+                    size / 1024, Files.size(file) / 1024, parseTime / 1e6, loadTime / 1e6);
+            }
+        }finally{
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import com.vincentcodes.markdown.BinaryDocument;
+import com.vincentcodes.markdown.IncompatibleFormatException;
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.ParseResult;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BinaryDocumentTest {
+    private static final String DOCUMENT = """
+        # Title with `code`
+
+        A paragraph with *emphasis*, **strong**, ~~strike~~, \\*escaped\\*
+        and a [link](https://example.com) over two lines. ![image](a.png)
+
+        - item 1
+          1. nested 中文
+
+        |a|b|
+        |-|-|
+        |1|2|
+
+        ```java
+        int a = 0;
+        ```
+        > quote
+        >> deeper
+        """;
+
+    @Test
+    void testLoad_sameAsParse(@TempDir Path dir) throws IOException {
+        var parser = new MarkdownParser();
+        Path file = dir.resolve("document.bin");
+        BinaryDocument.write(parser.parseIncremental(DOCUMENT), file);
+
+        var expected = new HtmlRenderer(false);
+        parser.parse(DOCUMENT, expected);
+        BinaryDocument document = BinaryDocument.load(file);
+        for(int i = 0; i < 2; i++){
+            var renderer = new HtmlRenderer(false);
+            document.replay(renderer);
+            assertEquals(expected.getRenderedHtml(), renderer.getRenderedHtml());
+        }
+    }
+
+    @Test
+    void testLoad_afterReparse() throws IOException {
+        var parser = new MarkdownParser();
+        ParseResult result = parser.parseIncremental(DOCUMENT);
+        result = parser.reparse(result, DOCUMENT.indexOf("deeper"), 6, "changed");
+
+        var expected = new HtmlRenderer(false);
+        parser.parse(result.getText(), expected);
+        var renderer = new HtmlRenderer(false);
+        BinaryDocument.load(ByteBuffer.wrap(toBytes(result))).replay(renderer);
+        assertEquals(expected.getRenderedHtml(), renderer.getRenderedHtml());
+    }
+
+    @Test
+    void testLoad_otherVersionIsRejected() throws IOException {
+        byte[] bytes = toBytes(new MarkdownParser().parseIncremental(DOCUMENT));
+        bytes[7]++; // version
+        assertThrows(IncompatibleFormatException.class, () -> BinaryDocument.load(ByteBuffer.wrap(bytes)));
+        assertThrows(IncompatibleFormatException.class, () -> BinaryDocument.load(ByteBuffer.wrap(new byte[]{1, 2, 3})));
+    }
+
+    private static byte[] toBytes(ParseResult result) throws IOException {
+        var out = new ByteArrayOutputStream();
+        BinaryDocument.write(result, out);
+        return out.toByteArray();
+    }
+}
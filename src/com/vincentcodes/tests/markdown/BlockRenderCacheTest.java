@@ -0,0 +1,77 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.vincentcodes.markdown.BlockRenderCache;
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+
+import org.junit.jupiter.api.Test;
+
+public class BlockRenderCacheTest {
+    private static final String DOCUMENT = """
+        # Title
+
+        first *paragraph*
+
+        - item
+          - nested
+
+        |a|b|
+        |-|-|
+        |1|2|
+
+        ```
+        code
+
+        more code
+        ```
+
+        > quote
+        """;
+
+    @Test
+    void testParse_unchangedBlocksAreCached() {
+        var parser = new MarkdownParser();
+        var cache = new BlockRenderCache(100);
+        assertEquals(render(DOCUMENT), render(parser, DOCUMENT, cache));
+        assertEquals(0, cache.getHits());
+        // eg. the list goes on into the empty line after it, which is not cached
+        int cached = cache.size();
+
+        assertEquals(render(DOCUMENT), render(parser, DOCUMENT, cache));
+        assertEquals(cached, cache.getHits());
+
+        String edited = DOCUMENT.replace("first", "second");
+        assertEquals(render(edited), render(parser, edited, cache));
+        // the title looks at the line after it, so it is parsed again as well
+        assertEquals(cached * 2 - 2, cache.getHits());
+    }
+
+    @Test
+    void testParse_leastRecentlyUsedIsDropped() {
+        var parser = new MarkdownParser();
+        var cache = new BlockRenderCache(2);
+        render(parser, "a", cache);
+        render(parser, "b", cache);
+        render(parser, "a", cache); // hit, "b" is the least recently used now
+        render(parser, "c", cache); // drops "b"
+        assertEquals(2, cache.size());
+        render(parser, "a", cache); // hit
+        render(parser, "b", cache); // miss
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    private static String render(String text){
+        var renderer = new HtmlRenderer(false);
+        new MarkdownParser().parse(text, renderer);
+        return renderer.getRenderedHtml();
+    }
+
+    private static String render(MarkdownParser parser, String text, BlockRenderCache cache){
+        var renderer = new HtmlRenderer(false);
+        parser.parse(text, renderer, cache);
+        return renderer.getRenderedHtml();
+    }
+}
@@ -0,0 +1,60 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator.Block;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator.Profile;
+import com.vincentcodes.tests.markdown.mock.NoOpRenderer;
+
+import org.junit.jupiter.api.Test;
+
+public class CorpusGeneratorTest {
+    @Test
+    void testGenerate_sameSeedSameDocument() {
+        assertEquals(new CorpusGenerator(42).generate(100000), new CorpusGenerator(42).generate(100000));
+        assertNotEquals(new CorpusGenerator(42).generate(100000), new CorpusGenerator(43).generate(100000));
+    }
+
+    @Test
+    void testGenerate_exactSizeAndParsable() {
+        var parser = new MarkdownParser();
+        for(Profile profile : Profile.values()){
+            for(int size : new int[]{1, 2, 1000, 1 << 20}){
+                String document = new CorpusGenerator(7, profile).generate(size);
+                assertEquals(size, document.length(), profile + " of " + size);
+                parser.parse(document, new NoOpRenderer());
+            }
+        }
+    }
+
+    @Test
+    void testGenerate_shortFiller() {
+        for(Profile profile : Profile.values()){
+            for(long seed : new long[]{0, 42, 20240101}){
+                for(int size : new int[]{1024, 64 * 1024}){
+                    String document = new CorpusGenerator(seed, profile).generate(size);
+                    // every block ends with a blank line, the filler does not
+                    int filler = size - (document.lastIndexOf("\n\n") + 2);
+                    assertTrue(filler < CorpusGenerator.MAX_FILLER, profile + " " + seed + " of " + size + ": " + filler);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testGenerate_weights() {
+        var generator = new CorpusGenerator(1);
+        for(Block block : Block.values())
+            generator.setWeight(block, 0);
+        generator.setWeight(Block.CODE, 1);
+        String document = generator.generate(10000);
+        assertTrue(document.startsWith("```"));
+        assertTrue(document.contains("```\n\n```"));
+        assertEquals(1L << 30, CorpusGenerator.parseSize("1g"));
+        assertEquals(64L << 10, CorpusGenerator.parseSize("64K"));
+    }
+}
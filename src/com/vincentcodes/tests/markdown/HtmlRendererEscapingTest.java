@@ -0,0 +1,36 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+
+import org.junit.jupiter.api.Test;
+
+public class HtmlRendererEscapingTest {
+    private static String render(String text){
+        var renderer = new HtmlRenderer(false);
+        new MarkdownParser().parse(text, renderer);
+        String html = renderer.getRenderedHtml();
+        return html.substring("<html><body class='markdown-body'>".length(), html.length() - "</body></html>".length());
+    }
+
+    @Test
+    void testEscape_text() {
+        assertEquals("<div class='para'>a &lt;b> &amp; &copy;</div>", render("a <b> &amp; &copy;"));
+    }
+
+    @Test
+    void testEscape_linkAndImage() {
+        assertEquals("<div class='para'><a href='http://a.b/c%20d?e=%271%27&amp;f=%3C%3E'>x&lt;y</a></div>", 
+            render("[x<y](http://a.b/c d?e='1'&f=<>)"));
+        assertEquals("<div class='para'><img src='a.png?b&amp;c' alt='it&#39;s &lt;b&gt; &quot;&amp;&quot;'></div>", 
+            render("![it's <b> \"&\"](a.png?b&c)"));
+    }
+
+    @Test
+    void testEscape_codeBlock() {
+        assertEquals("<pre><code class='language-a&#39;b'>&lt;tag> &amp; \"q\"</code></pre>", 
+            render("```a'b\n<tag> &amp; \"q\"\n```\n"));
+    }
+}
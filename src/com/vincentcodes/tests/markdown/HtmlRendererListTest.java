@@ -0,0 +1,78 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.inline.TextStyle;
+import com.vincentcodes.markdown.renderer.FlushPolicy;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+
+import org.junit.jupiter.api.Test;
+
+public class HtmlRendererListTest {
+    private static final String START = "<html><body class='markdown-body'>";
+    private static final String END = "</body></html>";
+
+    private static TextNode text(String value){
+        TextNode node = new TextNode();
+        node.add(TextStyle.NONE, value);
+        return node;
+    }
+
+    private static String body(String html){
+        return html.substring(START.length(), html.length() - END.length());
+    }
+
+    @Test
+    void testList_nested() {
+        var renderer = new HtmlRenderer(false);
+        new MarkdownParser().parse("- a\n  1. b\n  2. c\n- d\n", renderer);
+        assertEquals("<ul><li>a<ol><li>b</li><li>c</li></ol></li><li>d</li></ul>", body(renderer.getRenderedHtml()));
+    }
+
+    @Test
+    void testList_nestedWithoutItem() {
+        // a list which starts two levels deeper is closed before the item it is in
+        var renderer = new HtmlRenderer(false);
+        renderer.body();
+        renderer.ul();
+        renderer.li(text("a"));
+        renderer.ul();
+        renderer.ul();
+        renderer.li(text("b"));
+        renderer.endul();
+        renderer.endul();
+        renderer.endul();
+        renderer.done();
+        assertEquals("<ul><li>a<ul><ul><li>b</li></ul></ul></li></ul>", body(renderer.getRenderedHtml()));
+    }
+
+    @Test
+    void testList_unbalancedEvents() {
+        var renderer = new HtmlRenderer(false);
+        renderer.body();
+        renderer.endul(); // nothing is open
+        renderer.ol();
+        renderer.li(text("a"));
+        renderer.ul();
+        renderer.li(text("b"));
+        renderer.endol(); // closes the <ul> which is open
+        renderer.p(text("c"));
+        renderer.done(); // the <ol> is left open
+        assertEquals("<ol><li>a<ul><li>b</li></ul></li><div class='para'>c</div></ol>", body(renderer.getRenderedHtml()));
+    }
+
+    @Test
+    void testList_streamed() {
+        String text = "- a\n  - b\n    - c\n\ntext\n\n1. d\n   - e\n";
+        var renderer = new HtmlRenderer(false);
+        var parser = new MarkdownParser();
+        parser.parse(text, renderer);
+        var writer = new StringWriter();
+        parser.parse(text, new HtmlRenderer(writer, false, FlushPolicy.EACH_BLOCK));
+        assertEquals(renderer.getRenderedHtml(), writer.toString());
+    }
+}
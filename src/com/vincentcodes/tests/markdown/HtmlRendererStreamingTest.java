@@ -0,0 +1,99 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import com.vincentcodes.markdown.BlockRenderCache;
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.renderer.FlushPolicy;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.tests.markdown.AllocationBenchmark.Construct;
+
+import org.junit.jupiter.api.Test;
+
+public class HtmlRendererStreamingTest {
+    private static final String DOCUMENT = AllocationBenchmark.document(Construct.MIXED, 256 * 1024, 7) 
+        + "\n\n- a\n  - b ünïcödé\n- c\n\n1. d\n   - e\n";
+
+    private static String render(String text){
+        var renderer = new HtmlRenderer();
+        new MarkdownParser().parse(text, renderer);
+        return renderer.getRenderedHtml();
+    }
+
+    /**
+     * Counts the flushes, the html is only complete once it is flushed
+     */
+    private static class FlushCountingWriter extends StringWriter {
+        int flushes;
+        int flushedLength;
+
+        @Override
+        public void flush(){
+            flushes++;
+            flushedLength = getBuffer().length();
+        }
+    }
+
+    @Test
+    void testRender_writerOutputStreamAndChannel() {
+        var parser = new MarkdownParser();
+        String expected = render(DOCUMENT);
+
+        var writer = new StringWriter();
+        parser.parse(DOCUMENT, new HtmlRenderer(writer, true, FlushPolicy.AT_END));
+        assertEquals(expected, writer.toString());
+
+        var bytes = new ByteArrayOutputStream();
+        parser.parse(DOCUMENT, new HtmlRenderer(bytes, true, FlushPolicy.everyChars(1000)));
+        assertEquals(expected, bytes.toString(StandardCharsets.UTF_8));
+
+        bytes.reset();
+        parser.parse(DOCUMENT, new HtmlRenderer(Channels.newChannel(bytes), true, FlushPolicy.EACH_BLOCK));
+        assertEquals(expected, bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testRender_flushPolicy() {
+        var parser = new MarkdownParser();
+        var writer = new FlushCountingWriter();
+        parser.parse("# a\n\nb\n\nc\n", new HtmlRenderer(writer, false, FlushPolicy.AT_END));
+        assertEquals(1, writer.flushes);
+
+        writer = new FlushCountingWriter();
+        parser.parse("# a\n\nb\n\nc\n", new HtmlRenderer(writer, false, FlushPolicy.EACH_BLOCK));
+        // after the <body> tag, each block and done()
+        assertEquals(5, writer.flushes);
+
+        writer = new FlushCountingWriter();
+        parser.parse(DOCUMENT, new HtmlRenderer(writer, false, FlushPolicy.everyChars(10000)));
+        int length = writer.getBuffer().length();
+        assertTrue(writer.flushes >= length / 20000 && writer.flushes <= length / 10000 + 1, writer.flushes + " flushes");
+        assertEquals(length, writer.flushedLength);
+    }
+
+    @Test
+    void testRender_withCache() {
+        var parser = new MarkdownParser();
+        var cache = new BlockRenderCache(1000);
+        String expected = render(DOCUMENT);
+        for(int i = 0; i < 2; i++){
+            var writer = new StringWriter();
+            parser.parse(DOCUMENT, new HtmlRenderer(writer, true, FlushPolicy.EACH_BLOCK), cache);
+            assertEquals(expected, writer.toString());
+        }
+        assertTrue(cache.getHits() > 0);
+    }
+
+    @Test
+    void testRender_noRenderedHtml() {
+        var renderer = new HtmlRenderer(new StringWriter(), true, FlushPolicy.AT_END);
+        assertThrows(IllegalStateException.class, renderer::getRenderedHtml);
+    }
+}
@@ -0,0 +1,94 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.inline.TextStyle;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.markdown.renderer.HtmlTag;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator.Profile;
+
+import org.junit.jupiter.api.Test;
+
+public class HtmlRendererStyleTest {
+    private static final String START = "<html><body class='markdown-body'>";
+    private static final String END = "</body></html>";
+    private static final Pattern STYLE_TAG = Pattern.compile("<(/?)(strong|em|s|code|a)[ >]");
+
+    private static String renderParagraph(TextNode node){
+        var renderer = new HtmlRenderer(false);
+        renderer.body();
+        renderer.p(node);
+        renderer.done();
+        String html = renderer.getRenderedHtml();
+        return html.substring(START.length(), html.length() - END.length());
+    }
+
+    /**
+     * @return whether the inline style tags are properly nested
+     */
+    private static boolean isNested(String html){
+        var open = new ArrayDeque<String>();
+        Matcher matcher = STYLE_TAG.matcher(html.replace("<pre><code", "<pre>").replace("</code></pre>", "</pre>"));
+        while(matcher.find()){
+            if(matcher.group(1).isEmpty())
+                open.push(matcher.group(2));
+            else if(open.isEmpty() || !open.pop().equals(matcher.group(2)))
+                return false;
+        }
+        return open.isEmpty();
+    }
+
+    @Test
+    void testStyles_overlapping() {
+        var node = new TextNode();
+        node.add(TextStyle.of(TextStyle.EMPHASIS), "a ");
+        node.add(TextStyle.of(TextStyle.EMPHASIS | TextStyle.STRONG), "b");
+        node.add(TextStyle.of(TextStyle.STRONG), " c");
+        assertEquals("<div class='para'><em>a </em><strong><em>b</em> c</strong></div>", renderParagraph(node));
+    }
+
+    @Test
+    void testStyles_closedInnermostFirst() {
+        var node = new TextNode();
+        node.add(TextStyle.of(TextStyle.STRONG | TextStyle.EMPHASIS | TextStyle.CODE), "a");
+        node.add(TextStyle.of(TextStyle.STRONG | TextStyle.CODE), "b");
+        assertEquals("<div class='para'><strong><em><code>a</code></em><code>b</code></strong></div>", renderParagraph(node));
+    }
+
+    @Test
+    void testStyles_adjacentLinks() {
+        var node = new TextNode();
+        node.addLink(TextStyle.of(TextStyle.STRONG | TextStyle.LINK), "a", "u");
+        node.addLink(TextStyle.of(TextStyle.STRONG | TextStyle.LINK), "b", "v");
+        node.add(TextStyle.of(TextStyle.STRONG), "c");
+        assertEquals("<div class='para'><strong><a href='u'>a</a><a href='v'>b</a>c</strong></div>", renderParagraph(node));
+    }
+
+    @Test
+    void testStyles_customTags() {
+        var renderer = new HtmlRenderer(false);
+        renderer.setTag(HtmlTag.EMPHASIS, "<i>", "</i>");
+        new MarkdownParser().parse("*a **b** c*", renderer);
+        assertEquals(START + "<div class='para'><i>a </i><strong><i>b</i></strong><i> c</i></div>" + END, renderer.getRenderedHtml());
+    }
+
+    @Test
+    void testStyles_nestedInCorpus() {
+        var parser = new MarkdownParser();
+        for(Profile profile : new Profile[]{Profile.MIXED, Profile.UNMATCHED_EMPHASIS}){
+            for(int seed = 0; seed < 20; seed++){
+                var renderer = new HtmlRenderer(false);
+                parser.parse(new CorpusGenerator(seed, profile).generate(16 * 1024), renderer);
+                assertTrue(isNested(renderer.getRenderedHtml()), profile + " " + seed);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.markdown.renderer.HtmlTag;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class HtmlRendererTemplatesTest {
+    private static final String START = "<html><body class='markdown-body'>";
+    private static final String END = "</body></html>";
+
+    private static String render(HtmlRenderer renderer, String text){
+        new MarkdownParser().parse(text, renderer);
+        return renderer.getRenderedHtml();
+    }
+
+    @Test
+    void testTags_default() {
+        String html = render(new HtmlRenderer(false), "# a\n\nb **c**\n\n- e\n");
+        assertEquals(START + "<h1>a</h1><div class='para'>b <strong>c</strong></div><ul><li>e</li></ul>" + END, html);
+    }
+
+    @Test
+    void testTags_custom() {
+        var renderer = new HtmlRenderer(false);
+        renderer.setTag(HtmlTag.PARAGRAPH, "<p class='x'>", "</p>");
+        renderer.setTag(HtmlTag.STRONG, "<b>", "</b>");
+        renderer.setTag(HtmlTag.LIST_ITEM, "<li class='item'>", "</li>");
+        String html = render(renderer, "b **c**\n\n- e\n  - f\n");
+        assertEquals(START + "<p class='x'>b <b>c</b></p><ul><li class='item'>e<ul><li class='item'>f</li></ul></li></ul>" + END, html);
+
+        // other renderers keep the default tags
+        assertEquals(START + "<div class='para'>b</div>" + END, render(new HtmlRenderer(false), "b"));
+    }
+
+    @Test
+    void testTags_null() {
+        var renderer = new HtmlRenderer();
+        assertThrows(IllegalArgumentException.class, () -> renderer.setTag(null, "<p>", "</p>"));
+        assertThrows(IllegalArgumentException.class, () -> renderer.setTag(HtmlTag.H1, null, "</h1>"));
+    }
+
+    @Test
+    void testStylesheet_link() {
+        var renderer = new HtmlRenderer();
+        renderer.setStylesheetDirectory("/static css/");
+        String html = render(renderer, "a");
+        String name = HtmlRenderer.getStylesheetFileName();
+        assertTrue(name.matches("markdown-[0-9a-f]{16}\\.css"), name);
+        assertEquals("<html><link rel='stylesheet' href='/static%20css/" + name + "'><body class='markdown-body'>"
+            + "<div class='para'>a</div>" + END, html);
+    }
+
+    @Test
+    void testStylesheet_fileHasTheInlineCss(@TempDir Path dir) throws IOException {
+        Path file = HtmlRenderer.writeStylesheet(dir);
+        assertEquals(dir.resolve(HtmlRenderer.getStylesheetFileName()), file);
+        String css = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+
+        String html = render(new HtmlRenderer(), "a");
+        assertEquals("<html><style>" + css + "</style><body class='markdown-body'>", html.substring(0, html.indexOf('>', html.indexOf("<body")) + 1));
+
+        // written once
+        assertEquals(file, HtmlRenderer.writeStylesheet(dir));
+        try(var files = Files.list(dir)){
+            assertEquals(1, files.count());
+        }
+        assertFalse(css.isEmpty());
+    }
+}
@@ -1,10 +1,15 @@
 package com.vincentcodes.tests.markdown;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
+
 import com.vincentcodes.markdown.MarkdownParser;
 import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.inline.TextSpan;
+import com.vincentcodes.markdown.inline.TextStyle;
 
 import org.junit.jupiter.api.Test;
 
@@ -17,16 +22,16 @@ public class MarkdownParseInlineTextTest {
         TextNode result = parser.parseText();
         assertTrue(result.groups.size() == 4);
 
-        assertEquals("asdasd", result.groups.get(0).value);
-        assertTrue(result.groups.get(0).isStrong);
-        assertTrue(result.groups.get(0).isEmphasis);
+        assertEquals("asdasd", result.groups.get(0).getValue());
+        assertTrue(result.groups.get(0).isStrong());
+        assertTrue(result.groups.get(0).isEmphasis());
 
-        assertEquals(" text asdasd", result.groups.get(1).value);
+        assertEquals(" text asdasd", result.groups.get(1).getValue());
         
-        assertEquals("asd", result.groups.get(2).value);
-        assertTrue(result.groups.get(2).isStrikeThrough);
+        assertEquals("asd", result.groups.get(2).getValue());
+        assertTrue(result.groups.get(2).isStrikeThrough());
 
-        assertEquals("1~2~3", result.groups.get(3).value);
+        assertEquals("1~2~3", result.groups.get(3).getValue());
     }
 
     @Test
@@ -35,10 +40,10 @@ public class MarkdownParseInlineTextTest {
         parser.setText("asd*as**d*asd**123*\n*123**123");
         TextNode result = parser.parseText();
         assertTrue(result.groups.size() == 7);
-        assertEquals("123", result.groups.get(6).value);
-        assertEquals("d", result.groups.get(2).value);
-        assertTrue(result.groups.get(2).isStrong);
-        assertTrue(result.groups.get(2).isEmphasis);
+        assertEquals("123", result.groups.get(6).getValue());
+        assertEquals("d", result.groups.get(2).getValue());
+        assertTrue(result.groups.get(2).isStrong());
+        assertTrue(result.groups.get(2).isEmphasis());
     }
 
     @Test
@@ -47,10 +52,10 @@ public class MarkdownParseInlineTextTest {
         parser.setText("asd*as`*asd`");
         TextNode result = parser.parseText();
         assertTrue(result.groups.size() == 2);
-        assertEquals("asd*as", result.groups.get(0).value);
+        assertEquals("asd*as", result.groups.get(0).getValue());
         
-        assertEquals("*asd", result.groups.get(1).value);
-        assertTrue(result.groups.get(1).isCode);
+        assertEquals("*asd", result.groups.get(1).getValue());
+        assertTrue(result.groups.get(1).isCode());
     }
 
     @Test
@@ -60,16 +65,16 @@ public class MarkdownParseInlineTextTest {
         TextNode result = parser.parseText();
         System.out.println(result);
         assertTrue(result.groups.size() == 4);
-        assertEquals("asd", result.groups.get(0).value);
+        assertEquals("asd", result.groups.get(0).getValue());
         
-        assertEquals("as", result.groups.get(1).value);
-        assertTrue(result.groups.get(1).isStrong);
+        assertEquals("as", result.groups.get(1).getValue());
+        assertTrue(result.groups.get(1).isStrong());
         
-        assertEquals("asd", result.groups.get(2).value);
-        assertTrue(result.groups.get(2).isCode);
+        assertEquals("asd", result.groups.get(2).getValue());
+        assertTrue(result.groups.get(2).isCode());
         
-        assertEquals(" text", result.groups.get(3).value);
-        assertTrue(result.groups.get(3).isStrong);
+        assertEquals(" text", result.groups.get(3).getValue());
+        assertTrue(result.groups.get(3).isStrong());
     }
 
     @Test
@@ -78,14 +83,14 @@ public class MarkdownParseInlineTextTest {
         parser.setText("asd*[momomia](https://google.com)*asd");
         TextNode result = parser.parseText();
         assertTrue(result.groups.size() == 3);
-        assertEquals("asd", result.groups.get(0).value);
+        assertEquals("asd", result.groups.get(0).getValue());
 
         assertEquals("momomia", result.groups.get(1).desc);
         assertEquals("https://google.com", result.groups.get(1).url);
-        assertTrue(result.groups.get(1).isEmphasis);
-        assertTrue(result.groups.get(1).isLink);
+        assertTrue(result.groups.get(1).isEmphasis());
+        assertTrue(result.groups.get(1).isLink());
         
-        assertEquals("asd", result.groups.get(2).value);
+        assertEquals("asd", result.groups.get(2).getValue());
     }
 
     @Test
@@ -94,16 +99,54 @@ public class MarkdownParseInlineTextTest {
         parser.setText("asd*![momomia](https://google.com)a*sd");
         TextNode result = parser.parseText();
         assertTrue(result.groups.size() == 4);
-        assertEquals("asd", result.groups.get(0).value);
+        assertEquals("asd", result.groups.get(0).getValue());
 
         assertEquals("momomia", result.groups.get(1).desc);
         assertEquals("https://google.com", result.groups.get(1).url);
-        assertTrue(result.groups.get(1).isEmphasis);
-        assertTrue(result.groups.get(1).isImage);
+        assertTrue(result.groups.get(1).isEmphasis());
+        assertTrue(result.groups.get(1).isImage());
+
+        assertEquals("a", result.groups.get(2).getValue());
+        assertTrue(result.groups.get(2).isEmphasis());
+
+        assertEquals("sd", result.groups.get(3).getValue());
+    }
 
-        assertEquals("a", result.groups.get(2).value);
-        assertTrue(result.groups.get(2).isEmphasis);
+    @Test
+    void testParseText_manyDelimiters() {
+        // each delimiter used to re-scan the rest of the line
+        var parser = new MarkdownParser(null);
+        parser.setText(" *a".repeat(100000) + " _a".repeat(100000) + " **a".repeat(100000) + " ~~a".repeat(100000));
+        TextNode result = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> parser.parseText());
+        assertEquals(1, result.groups.size());
+    }
 
-        assertEquals("sd", result.groups.get(3).value);
+    @Test
+    void testParseText_valuesAreSpans() {
+        var parser = new MarkdownParser(null);
+        parser.setText("asd *as* d\ne `c<d` f\\*g");
+        TextNode result = parser.parseText();
+        assertEquals(5, result.groups.size());
+
+        // plain runs (even across lines) are not copied
+        assertTrue(result.groups.get(1).getText() instanceof TextSpan);
+        assertTrue(result.groups.get(2).getText() instanceof TextSpan);
+        assertEquals(" d e ", result.groups.get(2).getText().toString());
+        assertTrue(result.groups.get(3).getText() instanceof TextSpan);
+        assertEquals("c<d", result.groups.get(3).getValue());
+        // escaped chars are copied
+        assertTrue(result.groups.get(4).getText() instanceof String);
+        assertEquals(" f*g", result.groups.get(4).getValue());
+    }
+
+    @Test
+    void testParseText_stylesAreShared() {
+        var parser = new MarkdownParser(null);
+        parser.setText("***a*** b ***c***");
+        TextNode result = parser.parseText();
+        assertEquals(3, result.groups.size());
+        assertTrue(result.groups.get(0).getStyle() == result.groups.get(2).getStyle());
+        assertTrue(result.groups.get(1).getStyle() == TextStyle.NONE);
+        assertEquals(TextStyle.STRONG | TextStyle.EMPHASIS, result.groups.get(0).getStyle().bits());
     }
 }
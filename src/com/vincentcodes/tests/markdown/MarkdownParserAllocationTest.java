@@ -0,0 +1,48 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.tests.markdown.AllocationBenchmark.Construct;
+import com.vincentcodes.tests.markdown.mock.NoOpRenderer;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Bytes allocated per KB of markdown must stay within a budget, about
+ * 25% above what is allocated now. Lower the budget after making the
+ * parser allocate less, see {@link AllocationBenchmark} for the numbers.
+ */
+public class MarkdownParserAllocationTest {
+    private static final int SIZE = 64 * 1024;
+
+    private void assertWithinBudget(Construct construct, double parserBudget, double htmlBudget){
+        String document = AllocationBenchmark.document(construct, SIZE, AllocationBenchmark.SEED);
+        double parser = AllocationBenchmark.bytesPerKb(document, NoOpRenderer::new);
+        assertTrue(parser <= parserBudget, 
+            construct + ": parser allocates " + Math.round(parser) + " B/KB, budget is " + Math.round(parserBudget));
+        double html = AllocationBenchmark.bytesPerKb(document, HtmlRenderer::new);
+        assertTrue(html <= htmlBudget, 
+            construct + ": html allocates " + Math.round(html) + " B/KB, budget is " + Math.round(htmlBudget));
+    }
+
+    @Test
+    void testAllocation_paragraph() {
+        assertWithinBudget(Construct.PARAGRAPH, 17_000, 24_000);
+    }
+
+    @Test
+    void testAllocation_list() {
+        assertWithinBudget(Construct.LIST, 27_000, 34_000);
+    }
+
+    @Test
+    void testAllocation_table() {
+        assertWithinBudget(Construct.TABLE, 22_000, 30_000);
+    }
+
+    @Test
+    void testAllocation_codeBlock() {
+        assertWithinBudget(Construct.CODE_BLOCK, 12_000, 17_500);
+    }
+}
@@ -0,0 +1,112 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+import com.vincentcodes.tests.markdown.mock.NoOpRenderer;
+import com.vincentcodes.tests.markdown.mock.SimpleRenderer;
+
+import org.junit.jupiter.api.Test;
+
+public class MarkdownParserConcurrencyTest {
+    private static final String DOCUMENT = """
+        # Title *%d*
+        > quote **%d**
+        >> nested `%d`
+
+        1. item *%d*
+           - sub __%d__
+        2. item ~~%d~~
+
+        |a|b|
+        |-|-|
+        |%d|[link](https://%d.com)|
+        """;
+
+    @Test
+    void testParse_sharedParser_manyThreads() throws Exception {
+        var parser = new MarkdownParser();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try{
+            List<Future<String>> results = new ArrayList<>();
+            for(int i = 0; i < 200; i++){
+                String text = DOCUMENT.replace("%d", String.valueOf(i));
+                results.add(pool.submit(() -> {
+                    var renderer = new HtmlRenderer(false);
+                    parser.parse(text, renderer);
+                    return renderer.getRenderedHtml();
+                }));
+            }
+            for(int i = 0; i < results.size(); i++){
+                var renderer = new HtmlRenderer(false);
+                new MarkdownParser(renderer).parse(DOCUMENT.replace("%d", String.valueOf(i)));
+                assertEquals(renderer.getRenderedHtml(), results.get(i).get());
+            }
+        }finally{
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParseParallel_sameEventsAsSequential() {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 50; i++)
+            text.append(DOCUMENT.replace("%d", String.valueOf(i))).append("\n```\ncode\n\n# not a heading\n```\n\n");
+        var expected = new SimpleRenderer();
+        new MarkdownParser().parse(text.toString(), expected);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try{
+            // tiny chunks, so that many of them start inside a block
+            for(int chunkSize : new int[]{1, 7, 64, 1000}){
+                var parser = new MarkdownParser();
+                parser.setParallelChunkSize(chunkSize);
+                var renderer = new SimpleRenderer();
+                parser.parseParallel(text.toString(), renderer, pool);
+                assertEquals(expected.body.toString(), renderer.body.toString(), "chunk size " + chunkSize);
+            }
+        }finally{
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParseParallel_chunksStopWhenTheCallThrows() {
+        String text = new CorpusGenerator(5).generate(4 * 1024 * 1024);
+        var parser = new MarkdownParser();
+        parser.setParallelChunkSize(16 * 1024);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try{
+            long startTime = System.nanoTime();
+            parser.parseParallel(text, new NoOpRenderer(), pool);
+            long parseTime = System.nanoTime() - startTime;
+
+            var failing = new NoOpRenderer(){
+                @Override
+                public void body(){
+                    throw new IllegalStateException("The renderer is broken");
+                }
+            };
+            startTime = System.nanoTime();
+            assertThrows(IllegalStateException.class, () -> parser.parseParallel(text, failing, pool));
+            assertTrue(pool.awaitQuiescence(1, TimeUnit.MINUTES));
+            long stopTime = System.nanoTime() - startTime;
+            // the chunks are not parsed once the call has thrown
+            assertTrue(stopTime < parseTime / 4, stopTime / 1000000 + "ms to stop, " + parseTime / 1000000 + "ms to parse");
+        }finally{
+            pool.shutdown();
+        }
+    }
+}
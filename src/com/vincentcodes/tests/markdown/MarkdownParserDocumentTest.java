@@ -0,0 +1,126 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.ast.Block;
+import com.vincentcodes.markdown.ast.BlockQuote;
+import com.vincentcodes.markdown.ast.CodeBlock;
+import com.vincentcodes.markdown.ast.Document;
+import com.vincentcodes.markdown.ast.Heading;
+import com.vincentcodes.markdown.ast.ListBlock;
+import com.vincentcodes.markdown.ast.ListItem;
+import com.vincentcodes.markdown.ast.Paragraph;
+import com.vincentcodes.markdown.ast.Table;
+import com.vincentcodes.markdown.inline.TextGroup;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+
+import org.junit.jupiter.api.Test;
+
+public class MarkdownParserDocumentTest {
+    private static final String DOCUMENT = """
+        ## Title
+
+        some *text*
+
+        |a|b|
+        |-|-|
+        |1|2|
+
+        1. first
+           - nested
+        2. second
+
+        ```java
+        code
+        ```
+        > quote
+        >> deeper
+        """;
+
+    @Test
+    void testParseDocument_blocks() {
+        Document document = new MarkdownParser().parseDocument(DOCUMENT);
+        List<Block> blocks = document.getBlocks();
+
+        Heading heading = (Heading)blocks.get(0);
+        assertEquals(2, heading.getLevel());
+        assertEquals("Title", heading.getText().get(0).getValue());
+
+        Paragraph paragraph = (Paragraph)blocks.get(1);
+        assertTrue(paragraph.getText().get(1).isEmphasis());
+
+        ListBlock list = (ListBlock)blocks.stream().filter(b -> b instanceof ListBlock).findFirst().get();
+        assertTrue(list.isOrdered());
+        assertEquals(3, list.getItems().size());
+        assertTrue(list.getItems().get(0) instanceof ListItem);
+        ListBlock nested = (ListBlock)list.getItems().get(1);
+        assertFalse(nested.isOrdered());
+        assertEquals(List.of(ListBlock.End.UNORDERED), nested.getEnds());
+
+        Table table = (Table)blocks.stream().filter(b -> b instanceof Table).findFirst().get();
+        assertEquals(2, table.getHeadings().size());
+        assertEquals("2", table.getRows().get(0).get(1).get(0).getValue());
+
+        CodeBlock code = (CodeBlock)blocks.stream().filter(b -> b instanceof CodeBlock).findFirst().get();
+        assertEquals("java", code.getLang());
+        assertEquals("code", code.getCode());
+
+        BlockQuote quote = (BlockQuote)blocks.get(blocks.size() - 1);
+        assertEquals(2, quote.getLines().size());
+        assertEquals(2, quote.getLines().get(1).getLevel());
+
+        assertThrows(UnsupportedOperationException.class, () -> blocks.remove(0));
+    }
+
+    @Test
+    void testReplay_sameAsParse() {
+        var expected = new HtmlRenderer(false);
+        new MarkdownParser().parse(DOCUMENT, expected);
+
+        Document document = new MarkdownParser().parseDocument(DOCUMENT);
+        for(int i = 0; i < 2; i++){
+            var renderer = new HtmlRenderer(false);
+            document.replay(renderer);
+            assertEquals(expected.getRenderedHtml(), renderer.getRenderedHtml());
+        }
+    }
+
+    @Test
+    void testReplay_manyThreads() throws Exception {
+        String text = new CorpusGenerator(5).generate(64 * 1024);
+        var expected = new HtmlRenderer(false);
+        new MarkdownParser().parse(text, expected);
+
+        Document document = new MarkdownParser().parseDocument(text);
+        Paragraph paragraph = (Paragraph)document.getBlocks().stream().filter(b -> b instanceof Paragraph).findFirst().get();
+        assertTrue(paragraph.getText().isFrozen());
+        assertThrows(UnsupportedOperationException.class, () -> paragraph.getText().groups.add(new TextGroup()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try{
+            List<Future<String>> results = new ArrayList<>();
+            for(int i = 0; i < 8; i++){
+                results.add(pool.submit(() -> {
+                    var renderer = new HtmlRenderer(false);
+                    document.replay(renderer);
+                    return renderer.getRenderedHtml();
+                }));
+            }
+            for(Future<String> result : results)
+                assertEquals(expected.getRenderedHtml(), result.get());
+        }finally{
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+import com.vincentcodes.tests.markdown.mock.NoOpRenderer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class MarkdownParserEventsTest {
+    @TempDir
+    Path dir;
+
+    private List<RecordedEvent> record(Runnable parse) throws IOException{
+        Path file = dir.resolve("parse.jfr");
+        try(Recording recording = new Recording()){
+            recording.enable("com.vincentcodes.markdown.Parse");
+            recording.enable("com.vincentcodes.markdown.BlockParse");
+            recording.enable("com.vincentcodes.markdown.RenderDone");
+            recording.start();
+            parse.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+            .filter(event -> event.getEventType().getName().startsWith("com.vincentcodes.markdown."))
+            .collect(Collectors.toList());
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name){
+        return events.stream()
+            .filter(event -> event.getEventType().getName().equals("com.vincentcodes.markdown." + name))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    void testParse_file() throws IOException {
+        String text = "# Title\n\nSome text\n\n- a\n- b\n";
+        Path file = dir.resolve("doc.md");
+        Files.writeString(file, text);
+        var events = record(() -> {
+            try{
+                new MarkdownParser().parse(file, new NoOpRenderer());
+            }catch(IOException e){
+                throw new AssertionError(e);
+            }
+        });
+
+        var parses = ofType(events, "Parse");
+        assertEquals(1, parses.size());
+        RecordedEvent parse = parses.get(0);
+        long documentId = parse.getLong("documentId");
+        assertEquals(file.toString(), parse.getString("file"));
+        assertEquals("reader", parse.getString("mode"));
+        assertEquals(text.length(), parse.getLong("chars"));
+
+        var blocks = ofType(events, "BlockParse");
+        assertEquals(List.of("HEADING", "PARAGRAPH", "UNORDERED_LIST"), 
+            blocks.stream().map(event -> event.getString("kind")).collect(Collectors.toList()));
+        assertEquals(0, blocks.get(0).getLong("offset"));
+        assertEquals(text.length(), blocks.stream().mapToInt(event -> event.getInt("chars")).sum());
+        assertTrue(blocks.stream().allMatch(event -> event.getLong("documentId") == documentId));
+
+        var done = ofType(events, "RenderDone");
+        assertEquals(1, done.size());
+        assertEquals(documentId, done.get(0).getLong("documentId"));
+        assertEquals(NoOpRenderer.class.getName(), done.get(0).getClass("renderer").getName());
+    }
+
+    /**
+     * @return kind, offset and chars of each block, sorted (the events
+     * of a recording are not in order)
+     */
+    private static List<String> blocks(List<RecordedEvent> events){
+        return ofType(events, "BlockParse").stream()
+            .map(event -> event.getString("kind") + " " + event.getLong("offset") + " " + event.getInt("chars"))
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    void testParseParallel_sameBlocksAsParse() throws IOException {
+        // the chunks which start inside the loose list are thrown away
+        String text = new CorpusGenerator(3).generate(8 * 1024) + "\n\n" + "1. item of a loose list\n\n".repeat(200)
+            + "\n\nend\n\n" + new CorpusGenerator(4).generate(32 * 1024);
+        var parser = new MarkdownParser();
+        var expected = blocks(record(() -> parser.parse(text, new NoOpRenderer())));
+
+        parser.setParallelChunkSize(512);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try{
+            var events = record(() -> parser.parseParallel(text, new NoOpRenderer(), pool));
+            assertEquals(expected, blocks(events));
+            long documentId = ofType(events, "Parse").get(0).getLong("documentId");
+            assertTrue(ofType(events, "BlockParse").stream().allMatch(event -> event.getLong("documentId") == documentId));
+        }finally{
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParse_eachDocumentHasItsOwnId() throws IOException {
+        var parser = new MarkdownParser();
+        var events = record(() -> {
+            parser.parse("first", new NoOpRenderer());
+            parser.parse("second", new NoOpRenderer());
+        });
+        var parses = ofType(events, "Parse");
+        assertEquals(2, parses.size());
+        assertEquals("text", parses.get(0).getString("mode"));
+        assertTrue(parses.get(0).getLong("documentId") != parses.get(1).getLong("documentId"));
+    }
+}
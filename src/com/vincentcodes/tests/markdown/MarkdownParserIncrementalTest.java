@@ -0,0 +1,98 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.ParseResult;
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.tests.markdown.mock.SimpleRenderer;
+
+import org.junit.jupiter.api.Test;
+
+public class MarkdownParserIncrementalTest {
+    private static final String DOCUMENT = """
+        # Title
+
+        first paragraph
+        continues here
+
+        - item
+          - sub item
+
+        |a|b|
+        |-|-|
+        |1|2|
+
+        > quote
+        > second line
+
+        last paragraph
+        """;
+
+    @Test
+    void testReparse_sameAsFullParse() {
+        var parser = new MarkdownParser();
+        ParseResult result = parser.parseIncremental(DOCUMENT);
+        String[][] edits = {
+            {"first", "5", "**bold**"},   // inside a paragraph
+            {"continues", "0", "# "},      // a heading splits the paragraph
+            {"\n\n- item", "1", ""},       // joins the paragraph and the list
+            {"|1|2|", "5", "|3|4|\n|5|6|"},
+            {"> quote", "0", ">"},
+            {"last", "4", "```\ncode"},    // an unclosed code block takes the rest
+        };
+        for(String[] edit : edits){
+            String text = result.getText();
+            int offset = text.indexOf(edit[0]);
+            int removed = Integer.parseInt(edit[1]);
+            result = parser.reparse(result, offset, removed, edit[2]);
+
+            String expectedText = text.substring(0, offset) + edit[2] + text.substring(offset + removed);
+            assertEquals(expectedText, result.getText());
+            assertEquals(renderHtml(expectedText), renderHtml(result));
+        }
+    }
+
+    @Test
+    void testReparse_unchangedBlocksAreReused() {
+        var parser = new MarkdownParser();
+        ParseResult previous = parser.parseIncremental(DOCUMENT);
+        // the table before only looks at the first line of the quote
+        int offset = DOCUMENT.indexOf("second");
+        ParseResult result = parser.reparse(previous, offset, 6, "2nd");
+
+        assertEquals(previous.getNumOfBlocks(), result.getNumOfBlocks());
+        assertEquals(1, result.getNumOfChangedBlocks());
+        assertEquals(1, result.getNumOfReplacedBlocks());
+        int changed = result.getFirstChangedBlock();
+        assertEquals(DOCUMENT.indexOf("> quote"), result.getBlockStart(changed));
+        assertEquals(previous.getBlockStart(changed + 1) - 3, result.getBlockStart(changed + 1));
+
+        var before = new SimpleRenderer();
+        var after = new SimpleRenderer();
+        previous.replay(before);
+        result.replay(after);
+        assertEquals(before.body.size(), after.body.size());
+        for(int i = 0; i < before.body.size(); i++){
+            if(before.body.get(i).type.startsWith("blockquote"))
+                assertNotSame(before.body.get(i).value, after.body.get(i).value);
+            else if(before.body.get(i).value instanceof TextNode)
+                assertSame(before.body.get(i).value, after.body.get(i).value);
+        }
+    }
+
+    private static String renderHtml(String text){
+        var renderer = new HtmlRenderer(false);
+        new MarkdownParser().parse(text, renderer);
+        return renderer.getRenderedHtml();
+    }
+
+    private static String renderHtml(ParseResult result){
+        var renderer = new HtmlRenderer(false);
+        result.replay(renderer);
+        return renderer.getRenderedHtml();
+    }
+}
@@ -0,0 +1,159 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.ParseLimitException;
+import com.vincentcodes.markdown.ParseLimitException.Limit;
+import com.vincentcodes.markdown.renderer.HtmlRenderer;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+import com.vincentcodes.tests.markdown.mock.NoOpRenderer;
+
+import org.junit.jupiter.api.Test;
+
+public class MarkdownParserLimitsTest {
+
+    private static final String HUGE_PARAGRAPH = "# Title\n\n" + "*a* b ".repeat(100000) + "\n";
+
+    private Limit parseAndGetLimit(MarkdownParser parser, String text){
+        return assertThrows(ParseLimitException.class, () -> parser.parse(text, new NoOpRenderer())).getLimit();
+    }
+
+    /**
+     * @return the html, or the limit which is hit
+     */
+    private static String render(Consumer<HtmlRenderer> parse){
+        var renderer = new HtmlRenderer(false);
+        try{
+            parse.accept(renderer);
+        }catch(ParseLimitException e){
+            return e.getLimit().name();
+        }
+        return renderer.getRenderedHtml();
+    }
+
+    /**
+     * The items of a loose list look like the start of a block, the chunks
+     * of a parallel parse which start inside it are wasted
+     */
+    private static String looseListDocument(int items){
+        return new CorpusGenerator(3).generate(8 * 1024) + "\n\n" + "1. item of a loose list\n\n".repeat(items)
+            + "\n\nend\n\n" + new CorpusGenerator(4).generate(32 * 1024);
+    }
+
+    @Test
+    void testParse_inputSize() {
+        var parser = new MarkdownParser();
+        parser.setMaxInputSize(100);
+        assertEquals(Limit.INPUT_SIZE, parseAndGetLimit(parser, "a".repeat(101)));
+        assertEquals(Limit.INPUT_SIZE, assertThrows(ParseLimitException.class, 
+            () -> parser.parse(new StringReader("a\n".repeat(100)), new NoOpRenderer())).getLimit());
+        parser.parse("a".repeat(100), new NoOpRenderer());
+    }
+
+    @Test
+    void testParse_nestingDepth() {
+        var parser = new MarkdownParser();
+        parser.setMaxNestingDepth(3);
+        parser.parse(">>> quote\n\n- a\n  - b\n    - c\n", new NoOpRenderer());
+        assertEquals(Limit.NESTING_DEPTH, parseAndGetLimit(parser, ">>>> quote\n"));
+        assertEquals(Limit.NESTING_DEPTH, parseAndGetLimit(parser, "- a\n  - b\n    - c\n      - d\n"));
+    }
+
+    @Test
+    void testParse_workAndTime() {
+        var parser = new MarkdownParser();
+        parser.setMaxWork(10000);
+        assertEquals(Limit.WORK, parseAndGetLimit(parser, HUGE_PARAGRAPH));
+
+        parser = new MarkdownParser();
+        parser.setTimeLimit(Duration.ofNanos(1));
+        assertEquals(Limit.TIME, parseAndGetLimit(parser, HUGE_PARAGRAPH));
+    }
+
+    @Test
+    void testParse_interrupted() {
+        var parser = new MarkdownParser();
+        Thread.currentThread().interrupt();
+        try{
+            assertEquals(Limit.INTERRUPTED, parseAndGetLimit(parser, HUGE_PARAGRAPH));
+            assertTrue(Thread.currentThread().isInterrupted());
+        }finally{
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void testParse_plainTextFallback() {
+        var parser = new MarkdownParser();
+        parser.setMaxWork(10000);
+        parser.setPlainTextFallback(true);
+        var renderer = new HtmlRenderer();
+        parser.parse(HUGE_PARAGRAPH, renderer);
+        String html = renderer.getRenderedHtml();
+        // the heading is complete before the limit is hit
+        assertTrue(html.contains("Title</h1>"));
+        assertTrue(html.contains("<div class='para'>*a* b *a* b"));
+    }
+
+    @Test
+    void testParseParallel_workCountedOnce() {
+        // the wasted chunks are not charged, the chunks after them are checked
+        String text = looseListDocument(1000);
+        var parser = new MarkdownParser();
+        long low = 1, high = 100L * text.length();
+        while(low < high){
+            long maxWork = (low + high) / 2;
+            parser.setMaxWork(maxWork);
+            try{
+                parser.parse(text, new NoOpRenderer());
+                high = maxWork;
+            }catch(ParseLimitException e){
+                low = maxWork + 1;
+            }
+        }
+        var expected = new HtmlRenderer(false);
+        parser.setMaxWork(low);
+        parser.parse(text, expected);
+
+        parser.setParallelChunkSize(512);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try{
+            for(int i = 0; i < 20; i++){
+                parser.setMaxWork(low);
+                assertEquals(expected.getRenderedHtml(), render(renderer -> parser.parseParallel(text, renderer, pool)));
+                parser.setMaxWork(low - 1);
+                assertEquals(Limit.WORK.name(), render(renderer -> parser.parseParallel(text, renderer, pool)));
+            }
+        }finally{
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParseParallel_sameLimitsAsParse() {
+        String text = looseListDocument(300);
+        var parser = new MarkdownParser();
+        parser.setParallelChunkSize(512);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try{
+            for(long maxWork = 2000; maxWork <= 120000; maxWork += 1777){
+                parser.setMaxWork(maxWork);
+                for(boolean fallback : new boolean[]{false, true}){
+                    parser.setPlainTextFallback(fallback);
+                    assertEquals(render(renderer -> parser.parse(text, renderer)),
+                        render(renderer -> parser.parseParallel(text, renderer, pool)), maxWork + " " + fallback);
+                }
+            }
+        }finally{
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.ParseListener.BlockKind;
+import com.vincentcodes.markdown.ParseListener.InlineCounter;
+import com.vincentcodes.markdown.ParseMetrics;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+import com.vincentcodes.tests.markdown.mock.NoOpRenderer;
+
+import org.junit.jupiter.api.Test;
+
+public class MarkdownParserListenerTest {
+    private static final String DOCUMENT = """
+        # Title
+
+        Some *emphasis*, **strong**, `code` and a [link](https://google.com) *unpaired
+
+        |a|b|
+        |-|-|
+        |1|2|
+
+        ```java
+        int a = 0;
+        ```
+
+        - item
+        - item
+
+        > quote
+        """;
+
+    @Test
+    void testParse_blocksAndInlineCounters() {
+        var parser = new MarkdownParser();
+        var metrics = new ParseMetrics();
+        parser.setParseListener(metrics);
+        parser.parse(DOCUMENT, new NoOpRenderer());
+
+        assertEquals(1, metrics.getCount(BlockKind.HEADING));
+        assertEquals(1, metrics.getCount(BlockKind.TABLE));
+        assertEquals(1, metrics.getCount(BlockKind.CODE_BLOCK));
+        assertEquals(1, metrics.getCount(BlockKind.UNORDERED_LIST));
+        assertEquals(1, metrics.getCount(BlockKind.QUOTE));
+        assertTrue(metrics.getCount(BlockKind.PARAGRAPH) >= 1);
+        assertEquals("|a|b|\n|-|-|\n|1|2|\n".length(), metrics.getChars(BlockKind.TABLE));
+        long chars = 0;
+        for(BlockKind kind : BlockKind.values())
+            chars += metrics.getChars(kind);
+        assertTrue(chars >= DOCUMENT.length());
+
+        assertEquals(2, metrics.getCount(InlineCounter.EMPHASIS_OPENED));
+        assertEquals(2, metrics.getCount(InlineCounter.EMPHASIS_CLOSED));
+        assertEquals(1, metrics.getCount(InlineCounter.EMPHASIS_UNPAIRED));
+        assertEquals(1, metrics.getCount(InlineCounter.CODE_SPANS));
+        assertEquals(1, metrics.getCount(InlineCounter.LINKS));
+        assertTrue(metrics.getCount(InlineCounter.LINE_SCANS) > 0);
+
+        metrics.reset();
+        parser.setParseListener(null);
+        parser.parse(DOCUMENT, new NoOpRenderer());
+        assertEquals(0, metrics.getCount(BlockKind.HEADING));
+    }
+
+    @Test
+    void testParse_plainTextFallback() {
+        var parser = new MarkdownParser();
+        var metrics = new ParseMetrics();
+        parser.setParseListener(metrics);
+        parser.setMaxWork(10000);
+        parser.setPlainTextFallback(true);
+        parser.parse("# *Title*\n\n" + "*a* b ".repeat(100000) + "\n", new NoOpRenderer());
+
+        // the counts of the heading are still reported after the fallback
+        assertEquals(1, metrics.getCount(BlockKind.HEADING));
+        assertTrue(metrics.getCount(InlineCounter.EMPHASIS_OPENED) >= 1);
+        assertTrue(metrics.getCount(InlineCounter.LINE_SCANS) > 0);
+    }
+
+    @Test
+    void testParseParallel_sameReportsAsParse() {
+        // the chunks which start inside the loose list are thrown away
+        String text = new CorpusGenerator(3).generate(8 * 1024) + "\n\n" + "1. item of a loose list\n\n".repeat(1000)
+            + "\n\nend\n\n" + new CorpusGenerator(4).generate(32 * 1024);
+        var parser = new MarkdownParser();
+        var expected = new ParseMetrics();
+        parser.setParseListener(expected);
+        parser.parse(text, new NoOpRenderer());
+
+        parser.setParallelChunkSize(512);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try{
+            var metrics = new ParseMetrics();
+            parser.setParseListener(metrics);
+            parser.parseParallel(text, new NoOpRenderer(), pool);
+            for(BlockKind kind : BlockKind.values()){
+                assertEquals(expected.getCount(kind), metrics.getCount(kind), kind.name());
+                assertEquals(expected.getChars(kind), metrics.getChars(kind), kind.name());
+            }
+            for(InlineCounter counter : InlineCounter.values())
+                assertEquals(expected.getCount(counter), metrics.getCount(counter), counter.name());
+        }finally{
+            pool.shutdown();
+        }
+    }
+}
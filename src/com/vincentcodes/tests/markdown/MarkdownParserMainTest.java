@@ -21,14 +21,14 @@ public class MarkdownParserMainTest {
 
         List<Container> result = renderer.body;
         assertEquals("h3", result.get(0).type);
-        assertEquals("asdsad", ((TextNode)result.get(0).value).groups.get(0).value);
+        assertEquals("asdsad", ((TextNode)result.get(0).value).groups.get(0).getValue());
 
         assertEquals("p", result.get(1).type);
-        assertEquals("asd&", ((TextNode)result.get(1).value).groups.get(1).value);
-        assertTrue(((TextNode)result.get(1).value).groups.get(1).isEmphasis);
+        assertEquals("asd&", ((TextNode)result.get(1).value).groups.get(1).getValue());
+        assertTrue(((TextNode)result.get(1).value).groups.get(1).isEmphasis());
 
         assertEquals("h1", result.get(2).type);
-        assertEquals("Heading1", ((TextNode)result.get(2).value).groups.get(0).value);
+        assertEquals("Heading1", ((TextNode)result.get(2).value).groups.get(0).getValue());
     }
 
     @Test
@@ -39,7 +39,7 @@ public class MarkdownParserMainTest {
 
         List<Container> result = renderer.body;
         assertEquals("blockquote(1)", result.get(0).type);
-        assertEquals("asd asd", ((TextNode)result.get(0).value).groups.get(0).value);
+        assertEquals("asd asd", ((TextNode)result.get(0).value).groups.get(0).getValue());
         
         assertEquals("blockquote(2)", result.get(1).type);
 
@@ -64,11 +64,11 @@ public class MarkdownParserMainTest {
         List<Container> result = renderer.body;
         assertEquals("ol", result.get(0).type);
         assertEquals("li", result.get(1).type);
-        assertEquals("ds", ((TextNode)result.get(1).value).groups.get(3).value);
-        assertTrue(((TextNode)result.get(1).value).groups.get(3).isEmphasis);
+        assertEquals("ds", ((TextNode)result.get(1).value).groups.get(3).getValue());
+        assertTrue(((TextNode)result.get(1).value).groups.get(3).isEmphasis());
 
         assertEquals("li", result.get(2).type);
-        assertEquals("d new line", ((TextNode)result.get(2).value).groups.get(2).value);
+        assertEquals("d new line", ((TextNode)result.get(2).value).groups.get(2).getValue());
         
         assertEquals("ul", result.get(3).type);
         assertEquals("li", result.get(4).type);
@@ -100,11 +100,11 @@ public class MarkdownParserMainTest {
         List<Container> result = renderer.body;
         assertEquals("ul", result.get(0).type);
         assertEquals("li", result.get(1).type);
-        assertEquals("ds", ((TextNode)result.get(1).value).groups.get(3).value);
-        assertTrue(((TextNode)result.get(1).value).groups.get(3).isEmphasis);
+        assertEquals("ds", ((TextNode)result.get(1).value).groups.get(3).getValue());
+        assertTrue(((TextNode)result.get(1).value).groups.get(3).isEmphasis());
 
         assertEquals("li", result.get(2).type);
-        assertEquals("d new line", ((TextNode)result.get(2).value).groups.get(2).value);
+        assertEquals("d new line", ((TextNode)result.get(2).value).groups.get(2).getValue());
         
         assertEquals("ol", result.get(3).type);
         assertEquals("li", result.get(4).type);
@@ -134,22 +134,22 @@ public class MarkdownParserMainTest {
         List<Container> result = renderer.body;
         System.out.println(result);
         assertEquals("table", result.get(0).type);
-        assertEquals("a", ((TextNode[])result.get(0).value)[0].groups.get(0).value);
-        assertEquals("b", ((TextNode[])result.get(0).value)[1].groups.get(0).value);
-        assertTrue(((TextNode[])result.get(0).value)[1].groups.get(0).isStrong);
+        assertEquals("a", ((TextNode[])result.get(0).value)[0].groups.get(0).getValue());
+        assertEquals("b", ((TextNode[])result.get(0).value)[1].groups.get(0).getValue());
+        assertTrue(((TextNode[])result.get(0).value)[1].groups.get(0).isStrong());
         
         assertEquals("tr", result.get(1).type);
-        assertEquals("1", ((TextNode[])result.get(1).value)[0].groups.get(0).value);
-        assertTrue(((TextNode[])result.get(1).value)[0].groups.get(0).isStrikeThrough);
-        assertEquals("2", ((TextNode[])result.get(1).value)[1].groups.get(0).value);
+        assertEquals("1", ((TextNode[])result.get(1).value)[0].groups.get(0).getValue());
+        assertTrue(((TextNode[])result.get(1).value)[0].groups.get(0).isStrikeThrough());
+        assertEquals("2", ((TextNode[])result.get(1).value)[1].groups.get(0).getValue());
         
         assertEquals("tr", result.get(2).type);
-        assertEquals("3", ((TextNode[])result.get(2).value)[0].groups.get(0).value);
-        assertEquals("4", ((TextNode[])result.get(2).value)[1].groups.get(0).value);
+        assertEquals("3", ((TextNode[])result.get(2).value)[0].groups.get(0).getValue());
+        assertEquals("4", ((TextNode[])result.get(2).value)[1].groups.get(0).getValue());
         
         assertEquals("p", result.get(4).type);
-        assertEquals("asd", ((TextNode)result.get(4).value).groups.get(0).value);
-        assertTrue(((TextNode)result.get(4).value).groups.get(0).isEmphasis);
+        assertEquals("asd", ((TextNode)result.get(4).value).groups.get(0).getValue());
+        assertTrue(((TextNode)result.get(4).value).groups.get(0).isEmphasis());
     }
 
     @Test
@@ -167,21 +167,21 @@ public class MarkdownParserMainTest {
         List<Container> result = renderer.body;
         System.out.println(result);
         assertEquals("table", result.get(0).type);
-        assertEquals("a", ((TextNode[])result.get(0).value)[0].groups.get(0).value);
-        assertEquals("b", ((TextNode[])result.get(0).value)[1].groups.get(0).value);
-        assertTrue(((TextNode[])result.get(0).value)[1].groups.get(0).isStrong);
+        assertEquals("a", ((TextNode[])result.get(0).value)[0].groups.get(0).getValue());
+        assertEquals("b", ((TextNode[])result.get(0).value)[1].groups.get(0).getValue());
+        assertTrue(((TextNode[])result.get(0).value)[1].groups.get(0).isStrong());
         
         assertEquals("tr", result.get(1).type);
-        assertEquals("1", ((TextNode[])result.get(1).value)[0].groups.get(0).value);
-        assertTrue(((TextNode[])result.get(1).value)[0].groups.get(0).isStrikeThrough);
-        assertEquals("2", ((TextNode[])result.get(1).value)[1].groups.get(0).value);
+        assertEquals("1", ((TextNode[])result.get(1).value)[0].groups.get(0).getValue());
+        assertTrue(((TextNode[])result.get(1).value)[0].groups.get(0).isStrikeThrough());
+        assertEquals("2", ((TextNode[])result.get(1).value)[1].groups.get(0).getValue());
         
         assertEquals("tr", result.get(2).type);
-        assertEquals("3", ((TextNode[])result.get(2).value)[0].groups.get(0).value);
-        assertEquals("4", ((TextNode[])result.get(2).value)[1].groups.get(0).value);
+        assertEquals("3", ((TextNode[])result.get(2).value)[0].groups.get(0).getValue());
+        assertEquals("4", ((TextNode[])result.get(2).value)[1].groups.get(0).getValue());
         
         assertEquals("p", result.get(4).type);
-        assertEquals("asd", ((TextNode)result.get(4).value).groups.get(0).value);
-        assertTrue(((TextNode)result.get(4).value).groups.get(0).isEmphasis);
+        assertEquals("asd", ((TextNode)result.get(4).value).groups.get(0).getValue());
+        assertTrue(((TextNode)result.get(4).value).groups.get(0).isEmphasis());
     }
 }
@@ -0,0 +1,74 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.tests.markdown.mock.SimpleRenderer;
+
+import org.junit.jupiter.api.Test;
+
+public class MarkdownParserStreamingTest {
+    private static final String DOCUMENT = """
+        ### asdsad
+        awds*asd&*##ads
+
+        #Heading1
+        >asd
+        asd
+        >>asd
+
+        ```js
+        let a = '';
+        let b = `*asd*`;
+        ```
+        1. ad*sa*s
+        as*ds*ad
+        2. bd*sa*d
+        new line
+           - oke t*es*t
+        3. ddas
+           - o*k 3*21
+
+        |a|**b**|cd|
+        |-|-|-|-|-
+        |~~1~~|2|f|e|ads
+        |3|4|f|asd
+        *asd*
+        break __here__ and `code` with [link](https://google.com)
+        ---
+        - ad*sa*s
+        - bd*sa*d
+           1. oke t*es*t
+        """;
+
+    private String parseString(String text){
+        var renderer = new SimpleRenderer();
+        new MarkdownParser(renderer).parse(text);
+        return renderer.body.toString();
+    }
+
+    private String parseReader(String text, int windowSize) throws IOException{
+        var renderer = new SimpleRenderer();
+        var parser = new MarkdownParser(renderer);
+        parser.setWindowSize(windowSize);
+        parser.parse(new StringReader(text));
+        return renderer.body.toString();
+    }
+
+    @Test
+    void testParse_reader_sameAsString() throws IOException {
+        assertEquals(parseString(DOCUMENT), parseReader(DOCUMENT, 8192));
+    }
+
+    @Test
+    void testParse_reader_blocksCrossWindow() throws IOException {
+        String expected = parseString(DOCUMENT);
+        // windows smaller than a line force every block to cross a boundary
+        for(int windowSize : new int[]{1, 2, 3, 7, 16, 31}){
+            assertEquals(expected, parseReader(DOCUMENT, windowSize), "window size " + windowSize);
+        }
+    }
+}
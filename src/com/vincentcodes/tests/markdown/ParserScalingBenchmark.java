@@ -0,0 +1,30 @@
+package com.vincentcodes.tests.markdown;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.tests.markdown.corpus.CorpusGenerator;
+import com.vincentcodes.tests.markdown.mock.NoOpRenderer;
+
+/**
+ * Prints the parse time per KB from 10 KB up to 100 MB. Parse time
+ * should grow linearly with the input size, ie. the time per KB stays
+ * roughly the same.
+ * <p>
+ * The 100 MB input needs a heap of about 1 GB (-Xmx1g).
+ */
+public class ParserScalingBenchmark {
+    private static final long SEED = 42;
+
+    public static void main(String[] args){
+        MarkdownParser parser = new MarkdownParser(new NoOpRenderer());
+        parser.parse(new CorpusGenerator(SEED).generate(1024 * 1024)); // warm up
+
+        for(int size = 10 * 1024; size <= 100 * 1024 * 1024; size *= 10){
+            String document = new CorpusGenerator(SEED).generate(size);
+            long startingTime = System.nanoTime();
+            parser.parse(document);
+            long timeTaken = System.nanoTime() - startingTime;
+            System.out.printf("%10d KB: %8d ms, %8.1f us/KB%n", 
+                size / 1024, timeTaken / 1000000, timeTaken / 1000.0 / (size / 1024));
+        }
+    }
+}
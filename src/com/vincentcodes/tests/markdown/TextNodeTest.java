@@ -0,0 +1,76 @@
+package com.vincentcodes.tests.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.vincentcodes.markdown.MarkdownParser;
+import com.vincentcodes.markdown.inline.TextGroup;
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.inline.TextStyle;
+
+import org.junit.jupiter.api.Test;
+
+public class TextNodeTest {
+    @Test
+    void testIndexedAccess_sameAsGroups() {
+        var parser = new MarkdownParser(null);
+        parser.setText("a **b** [c](d) `e`");
+        TextNode result = parser.parseText();
+        assertEquals(result.groups.size(), result.size());
+        for(int i = 0; i < result.size(); i++){
+            TextGroup group = result.groups.get(i);
+            assertSame(group.getStyle(), result.getStyle(i));
+            assertEquals(group.getValue(), result.getText(i) == null? null : result.getText(i).toString());
+            assertEquals(group.desc, result.getDesc(i));
+            assertEquals(group.url, result.getUrl(i));
+        }
+        assertEquals("c", result.getDesc(2));
+        assertEquals("d", result.getUrl(2));
+        assertNull(result.getText(2));
+    }
+
+    @Test
+    void testGroups_createdOnceAndChangesAreSeen() {
+        TextNode node = new TextNode();
+        node.add(TextStyle.NONE, "  a  ");
+        node.add(TextStyle.of(TextStyle.STRONG), "b");
+
+        TextGroup group = node.groups.get(0);
+        assertSame(group, node.groups.get(0));
+        group.trimValue();
+        assertEquals("a", node.getText(0));
+
+        node.groups.get(1).setStyle(TextStyle.NONE);
+        assertSame(TextStyle.NONE, node.getStyle(1));
+
+        TextGroup added = new TextGroup(TextStyle.of(TextStyle.CODE), "c");
+        node.add(added);
+        assertSame(added, node.groups.get(2));
+        assertEquals(3, node.size());
+    }
+
+    @Test
+    void testFreeze_readOnly() {
+        TextNode node = new TextNode();
+        node.add(TextStyle.NONE, "a");
+        node.add(TextStyle.of(TextStyle.STRONG), "b");
+        // a change made before the node is frozen is kept
+        node.groups.get(1).setStyle(TextStyle.of(TextStyle.CODE));
+        node.freeze();
+
+        assertSame(TextStyle.of(TextStyle.CODE), node.getStyle(1));
+        assertEquals("b", node.getText(1).toString());
+        assertThrows(UnsupportedOperationException.class, () -> node.add(TextStyle.NONE, "c"));
+        assertThrows(UnsupportedOperationException.class, () -> node.groups.add(new TextGroup()));
+        assertThrows(UnsupportedOperationException.class, () -> node.trimValue(0));
+
+        TextGroup group = node.groups.get(0);
+        assertNotSame(group, node.groups.get(0));
+        group.setValue("changed");
+        assertEquals("a", node.getText(0).toString());
+        assertEquals(2, node.size());
+    }
+}
@@ -0,0 +1,433 @@
+package com.vincentcodes.tests.markdown.corpus;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * <p>
+ * Generates markdown documents of an exact size for benchmarks and
+ * tests. The same seed, profile and mix always give the same
+ * document, on any JVM ({@link Random} is fully specified).
+ * <p>
+ * A document is a sequence of blocks whose kinds are picked by
+ * weight (see {@link #setWeight(Block, int)}). A block which does
+ * not fit in the rest of the size is cut after its last line, list
+ * item or table row which fits. Headings and code blocks are never
+ * cut, another block is drawn instead. The last few chars (less than
+ * {@value #MAX_FILLER}) are a line of plain words, so that the document
+ * is never cut inside a code block or a table.
+ * <p>
+ * Documents up to about 1 GB can be held in a String ({@link #generate(int)}),
+ * bigger ones should be written out with {@link #write(Appendable, long)}.
+ * From the command line:
+ * <pre>
+ * CorpusGenerator &lt;size, eg. 1k, 64m, 1g&gt; [profile] [seed] [output file]
+ * </pre>
+ */
+public class CorpusGenerator {
+    public enum Block {
+        HEADING,
+        PARAGRAPH, // dense emphasis and links
+        LIST,      // nested ordered and bullet lists
+        TABLE,
+        WIDE_TABLE,
+        LONG_TABLE,
+        CODE,
+        QUOTE
+    }
+
+    public enum Profile {
+        /**
+         * Every kind of block, mostly paragraphs and lists
+         */
+        MIXED,
+        /**
+         * Paragraphs full of '*', '_' and '~~' which have no pair
+         */
+        UNMATCHED_EMPHASIS,
+        /**
+         * Paragraphs, list items and table rows with lines of 10k to 100k chars
+         */
+        LONG_LINES,
+        /**
+         * Lists which are indented further on every line, block quotes with many '>'
+         */
+        DEEP_NESTING
+    }
+
+    private static final String[] WORDS = {
+        "lorem", "ipsum", "dolor", "sit", "amet", "markdown", "parser", "render",
+        "block", "inline", "table", "list", "quote", "code", "heading", "text",
+        "java", "stream", "buffer", "window", "token", "style", "link", "image"
+    };
+    private static final String[] LANGS = {"java", "js", "python", "", "sh"};
+    /**
+     * The rest of the size below which no more blocks are drawn
+     */
+    public static final int MAX_FILLER = 200;
+    private static final int MAX_MISSES = 100; // blocks in a row which do not fit
+
+    private final long seed;
+    private final Profile profile;
+    private final int[] weights = new int[Block.values().length];
+
+    public CorpusGenerator(long seed){
+        this(seed, Profile.MIXED);
+    }
+
+    public CorpusGenerator(long seed, Profile profile){
+        this.seed = seed;
+        this.profile = profile;
+        setWeight(Block.HEADING, 2);
+        setWeight(Block.PARAGRAPH, 6);
+        setWeight(Block.LIST, 3);
+        setWeight(Block.TABLE, 2);
+        setWeight(Block.WIDE_TABLE, 1);
+        setWeight(Block.LONG_TABLE, 1);
+        setWeight(Block.CODE, 2);
+        setWeight(Block.QUOTE, 2);
+    }
+
+    /**
+     * How often a kind of block is picked compared to the others,
+     * 0 to leave it out. Only used by {@link Profile#MIXED}.
+     */
+    public void setWeight(Block block, int weight){
+        if(weight < 0)
+            throw new IllegalArgumentException("Weight must not be negative");
+        weights[block.ordinal()] = weight;
+    }
+
+    /**
+     * @return a document of exactly {@code size} chars
+     */
+    public String generate(int size){
+        StringBuilder builder = new StringBuilder(size);
+        write(builder, size);
+        return builder.toString();
+    }
+
+    /**
+     * Append a document of exactly {@code size} chars to {@code out}
+     */
+    public void write(Appendable out, long size){
+        Random random = new Random(seed);
+        int totalWeight = 0;
+        for(int weight : weights)
+            totalWeight += weight;
+        if(profile == Profile.MIXED && totalWeight == 0)
+            throw new IllegalStateException("All weights are 0");
+
+        StringBuilder block = new StringBuilder();
+        long written = 0;
+        int misses = 0;
+        try{
+            while(written < size){
+                long room = size - written;
+                block.setLength(0);
+                if(room >= MAX_FILLER){
+                    appendBlock(block, random, totalWeight, (int)Math.min(room, Integer.MAX_VALUE));
+                    // a heading, a code block or the first line of a block which does not fit
+                    if(block.length() > room && ++misses < MAX_MISSES)
+                        continue;
+                }
+                if(block.length() == 0 || block.length() > room){
+                    block.setLength(0);
+                    appendFiller(block, random, (int)room);
+                }
+                misses = 0;
+                out.append(block);
+                written += block.length();
+            }
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param room the no. of chars left, the block is cut to fit in it if it can
+     */
+    private void appendBlock(StringBuilder out, Random random, int totalWeight, int room){
+        switch(profile){
+            case UNMATCHED_EMPHASIS:
+                appendUnmatchedEmphasis(out, random, room);
+                return;
+            case LONG_LINES:
+                appendLongLine(out, random, room);
+                return;
+            case DEEP_NESTING:
+                appendDeepNesting(out, random, room);
+                return;
+            default:
+                break;
+        }
+        int pick = random.nextInt(totalWeight);
+        Block kind = null;
+        for(Block candidate : Block.values()){
+            pick -= weights[candidate.ordinal()];
+            if(pick < 0){
+                kind = candidate;
+                break;
+            }
+        }
+        switch(kind){
+            case HEADING: appendHeading(out, random); break;
+            case PARAGRAPH: appendParagraph(out, random, room); break;
+            case LIST: appendList(out, random, room); break;
+            case TABLE: appendTable(out, random, 2 + random.nextInt(4), 2 + random.nextInt(8), room); break;
+            case WIDE_TABLE: appendTable(out, random, 20 + random.nextInt(40), 2 + random.nextInt(8), room); break;
+            case LONG_TABLE: appendTable(out, random, 2 + random.nextInt(4), 100 + random.nextInt(900), room); break;
+            case CODE: appendCode(out, random); break;
+            case QUOTE: appendQuote(out, random, room); break;
+        }
+    }
+
+    private void appendHeading(StringBuilder out, Random random){
+        out.append("#".repeat(1 + random.nextInt(6))).append(' ');
+        appendWords(out, random, 2 + random.nextInt(6));
+        out.append("\n\n");
+    }
+
+    /**
+     * Removes the last line (or word) of a block, from {@code start},
+     * if the block and its last {@code end} chars do not fit in
+     * {@code room}. The first line is always kept.
+     * @param index of the line in the block
+     * @return whether the line is kept
+     */
+    private static boolean fits(StringBuilder out, int start, int index, int room, int end){
+        if(index == 0 || out.length() + end <= room)
+            return true;
+        out.setLength(start);
+        return false;
+    }
+
+    private void appendParagraph(StringBuilder out, Random random, int room){
+        int lines = 1 + random.nextInt(5);
+        for(int i = 0; i < lines; i++){
+            int start = out.length();
+            appendInline(out, random, 6 + random.nextInt(10));
+            out.append('\n');
+            if(!fits(out, start, i, room, 1))
+                break;
+        }
+        out.append('\n');
+    }
+
+    private void appendList(StringBuilder out, Random random, int room){
+        boolean ordered = random.nextBoolean();
+        int items = 2 + random.nextInt(7);
+        int level = 0;
+        for(int i = 0; i < items; i++){
+            int start = out.length();
+            out.append("   ".repeat(level));
+            appendMarker(out, random, ordered && level == 0, i);
+            appendInline(out, random, 3 + random.nextInt(6));
+            out.append('\n');
+            if(!fits(out, start, i, room, 1))
+                break;
+            // go one level deeper, stay or go back to the top
+            int next = random.nextInt(3);
+            level = next == 0? Math.min(level + 1, 3) : next == 1? level : 0;
+        }
+        out.append('\n');
+    }
+
+    private void appendMarker(StringBuilder out, Random random, boolean ordered, int index){
+        if(ordered || random.nextInt(4) == 0)
+            out.append(index + 1).append(". ");
+        else out.append("- ");
+    }
+
+    private void appendTable(StringBuilder out, Random random, int columns, int rows, int room){
+        for(int column = 0; column < columns; column++){
+            out.append('|');
+            appendWords(out, random, 1);
+        }
+        out.append("|\n");
+        out.append("|-".repeat(columns)).append("|\n");
+        for(int row = 0; row < rows; row++){
+            int start = out.length();
+            for(int column = 0; column < columns; column++){
+                out.append('|');
+                appendInline(out, random, 1 + random.nextInt(3));
+            }
+            out.append("|\n");
+            if(!fits(out, start, row, room, 1))
+                break;
+        }
+        out.append('\n');
+    }
+
+    private void appendCode(StringBuilder out, Random random){
+        out.append("```").append(LANGS[random.nextInt(LANGS.length)]).append('\n');
+        int lines = 2 + random.nextInt(19);
+        for(int i = 0; i < lines; i++){
+            out.append("    ".repeat(random.nextInt(3)));
+            appendWords(out, random, 1 + random.nextInt(4));
+            out.append(random.nextBoolean()? " = *ptr_a + b_;\n" : "();\n");
+        }
+        out.append("```\n\n");
+    }
+
+    private void appendQuote(StringBuilder out, Random random, int room){
+        int lines = 1 + random.nextInt(4);
+        for(int i = 0; i < lines; i++){
+            int start = out.length();
+            out.append(">".repeat(1 + random.nextInt(3))).append(' ');
+            appendInline(out, random, 3 + random.nextInt(8));
+            out.append('\n');
+            if(!fits(out, start, i, room, 1))
+                break;
+        }
+        out.append('\n');
+    }
+
+    private void appendUnmatchedEmphasis(StringBuilder out, Random random, int room){
+        String[] delimiters = {"*", "**", "_", "__", "~~", "`", "[", "]("};
+        int tokens = 50 + random.nextInt(200);
+        for(int i = 0; i < tokens; i++){
+            int start = out.length();
+            String delimiter = delimiters[random.nextInt(delimiters.length)];
+            // only opening or only closing delimiters on one line, they never pair up
+            if(i % 2 == 0) out.append(delimiter);
+            out.append(WORDS[random.nextInt(WORDS.length)]);
+            if(i % 2 == 1) out.append(delimiter);
+            out.append(' ');
+            if(!fits(out, start, i, room, 2))
+                break;
+        }
+        out.append("\n\n");
+    }
+
+    private void appendLongLine(StringBuilder out, Random random, int room){
+        int length = 10000 + random.nextInt(90000);
+        int kind = random.nextInt(3);
+        if(kind == 1){
+            out.append("- ");
+        }else if(kind == 2){
+            out.append("|a|b|\n|-|-|\n|");
+        }
+        int start = out.length();
+        while(out.length() - start < length){
+            int word = out.length();
+            appendInline(out, random, 1);
+            out.append(' ');
+            if(!fits(out, word, word - start, room, kind == 2? 3 : 2))
+                break;
+        }
+        out.append(kind == 2? "|\n\n" : "\n\n");
+    }
+
+    private void appendDeepNesting(StringBuilder out, Random random, int room){
+        if(random.nextBoolean()){
+            int depth = 10 + random.nextInt(90);
+            for(int level = 0; level < depth; level++){
+                int start = out.length();
+                out.append("  ".repeat(level));
+                appendMarker(out, random, false, level);
+                appendWords(out, random, 2);
+                out.append('\n');
+                if(!fits(out, start, level, room, 1))
+                    break;
+            }
+        }else{
+            int lines = 1 + random.nextInt(5);
+            for(int i = 0; i < lines; i++){
+                int start = out.length();
+                out.append(">".repeat(10 + random.nextInt(90))).append(' ');
+                appendWords(out, random, 3);
+                out.append('\n');
+                if(!fits(out, start, i, room, 1))
+                    break;
+            }
+        }
+        out.append('\n');
+    }
+
+    /**
+     * A line of plain words, cut at {@code length}, which ends the document
+     */
+    private void appendFiller(StringBuilder out, Random random, int length){
+        while(out.length() < length){
+            out.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        out.setLength(length);
+        // a document of a single '\n' is not parsed
+        if(length > 1)
+            out.setCharAt(length - 1, '\n');
+    }
+
+    private void appendWords(StringBuilder out, Random random, int count){
+        for(int i = 0; i < count; i++){
+            if(i > 0) out.append(' ');
+            out.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+    }
+
+    /**
+     * Words, every other one styled or linked
+     */
+    private void appendInline(StringBuilder out, Random random, int count){
+        for(int i = 0; i < count; i++){
+            if(i > 0) out.append(' ');
+            String word = WORDS[random.nextInt(WORDS.length)];
+            switch(random.nextInt(12)){
+                case 0: out.append('*').append(word).append('*'); break;
+                case 1: out.append("**").append(word).append("**"); break;
+                case 2: out.append('_').append(word).append('_'); break;
+                case 3: out.append("~~").append(word).append("~~"); break;
+                case 4: out.append('`').append(word).append('`'); break;
+                case 5: out.append('[').append(word).append("](https://example.com/").append(word).append(')'); break;
+                case 6: out.append("![").append(word).append("](").append(word).append(".png)"); break;
+                default: out.append(word); break;
+            }
+        }
+    }
+
+    /**
+     * @param size eg. "512", "1k", "64m" or "1g" (units of 1024)
+     */
+    public static long parseSize(String size){
+        String digits = size.trim().toLowerCase();
+        long unit = 1;
+        switch(digits.charAt(digits.length() - 1)){
+            case 'k': unit = 1L << 10; break;
+            case 'm': unit = 1L << 20; break;
+            case 'g': unit = 1L << 30; break;
+            default: break;
+        }
+        if(unit != 1)
+            digits = digits.substring(0, digits.length() - 1);
+        return Long.parseLong(digits) * unit;
+    }
+
+    public static void main(String[] args) throws IOException{
+        if(args.length == 0){
+            System.err.println("Usage: CorpusGenerator <size, eg. 1k, 64m, 1g> [profile] [seed] [output file]");
+            System.exit(1);
+        }
+        long size = parseSize(args[0]);
+        Profile profile = args.length > 1? Profile.valueOf(args[1].toUpperCase()) : Profile.MIXED;
+        long seed = args.length > 2? Long.parseLong(args[2]) : 0;
+        CorpusGenerator generator = new CorpusGenerator(seed, profile);
+        if(args.length > 3){
+            Path file = Paths.get(args[3]);
+            try(Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)){
+                generator.write(out, size);
+            }
+        }else{
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            generator.write(out, size);
+            out.flush();
+        }
+    }
+}
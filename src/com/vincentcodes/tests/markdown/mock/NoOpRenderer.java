@@ -0,0 +1,34 @@
+package com.vincentcodes.tests.markdown.mock;
+
+import com.vincentcodes.markdown.inline.TextNode;
+import com.vincentcodes.markdown.renderer.Renderer;
+
+/**
+ * Ignores every event. Used to measure the parser alone.
+ */
+public class NoOpRenderer implements Renderer{
+    public void body(){}
+    public void done(){}
+
+    public void hr(){}
+
+    public void h1(TextNode texts){}
+    public void h2(TextNode texts){}
+    public void h3(TextNode texts){}
+    public void h4(TextNode texts){}
+    public void h5(TextNode texts){}
+    public void h6(TextNode texts){}
+
+    public void p(TextNode texts){}
+    public void append(String text){}
+
+    public void table(TextNode[] headings){}
+    public void tr(TextNode[] rowEntries){}
+    public void endTable(){}
+
+    public void codeblock(String text, String lang){}
+
+    public void startBlockQuote(){}
+    public void blockquote(TextNode text, int level){}
+    public void endBlockQuote(){}
+}